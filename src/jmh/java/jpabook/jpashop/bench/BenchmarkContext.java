@@ -0,0 +1,146 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * BenchmarkContext
+ * <pre>
+ * 벤치마크용 스프링 컨텍스트 (in-memory H2)
+ * - 벤치마크 마다 별도의 메모리 DB 를 사용
+ * - seedOrders 로 (주문 수 x 주문당 상품 수) 데이터 생성
+ * </pre>
+ *
+ * @version 1.0,
+ */
+public class BenchmarkContext implements AutoCloseable {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final ConfigurableApplicationContext context;
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+
+    private BenchmarkContext(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.em = context.getBean(EntityManager.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+    }
+
+    /**
+     * @param properties 추가/덮어쓸 설정 (key=value)
+     */
+    public static BenchmarkContext start(String... properties) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        List<String> props = new ArrayList<>(Arrays.asList(
+                "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "server.port=0",
+                "spring.main.banner-mode=off",
+                "logging.level.root=warn",
+                "logging.level.org.hibernate.SQL=warn",
+                "logging.level.org.hibernate.type=warn"));
+        props.addAll(Arrays.asList(properties));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(JpashopApplication.class)
+                .properties(props.toArray(new String[0]))
+                .run();
+        return new BenchmarkContext(context);
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public <T> T inTransaction(Function<EntityManager, T> callback) {
+        return transactionTemplate.execute(status -> callback.apply(em));
+    }
+
+    public <T> T readOnly(Function<EntityManager, T> callback) {
+        return readOnlyTemplate.execute(status -> callback.apply(em));
+    }
+
+    /**
+     * 주문 데이터 생성
+     * - 회원은 최대 1000명, 상품은 최소 100개를 만들고 주문에 순서대로 분배
+     * @param orderCount 주문 수
+     * @param itemsPerOrder 주문당 주문상품 수
+     */
+    public void seedOrders(int orderCount, int itemsPerOrder) {
+        int memberCount = Math.max(1, Math.min(orderCount, 1000));
+        int itemCount = Math.max(itemsPerOrder, 100);
+
+        List<Long> memberIds = inTransaction(em -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < memberCount; i++) {
+                Member member = new Member();
+                member.setName("member" + i);
+                member.setAddress(new Address("city" + (i % 10), "street" + i, String.valueOf(10000 + i)));
+                em.persist(member);
+                ids.add(member.getId());
+            }
+            return ids;
+        });
+
+        List<Long> itemIds = inTransaction(em -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < itemCount; i++) {
+                Book book = new Book();
+                book.setName("book" + i);
+                book.setPrice(1000 + (i % 50) * 100);
+                book.setStockQuantity(Integer.MAX_VALUE / 2);
+                em.persist(book);
+                ids.add(book.getId());
+            }
+            return ids;
+        });
+
+        for (int from = 0; from < orderCount; from += CHUNK_SIZE) {
+            int start = from;
+            int end = Math.min(orderCount, from + CHUNK_SIZE);
+            inTransaction(em -> {
+                List<Member> members = em.createQuery("select m from Member m where m.id in :ids", Member.class)
+                        .setParameter("ids", memberIds)
+                        .getResultList();
+                List<Item> items = em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                        .setParameter("ids", itemIds)
+                        .getResultList();
+
+                for (int i = start; i < end; i++) {
+                    Member member = members.get(i % members.size());
+                    OrderItem[] orderItems = new OrderItem[itemsPerOrder];
+                    for (int j = 0; j < itemsPerOrder; j++) {
+                        Item item = items.get((i + j) % items.size());
+                        orderItems[j] = OrderItem.createOrderItem(item, item.getPrice(), 1 + j % 3);
+                    }
+                    Delivery delivery = new Delivery();
+                    delivery.setAddress(member.getAddress());
+                    em.persist(Order.createOrder(member, delivery, orderItems));
+                }
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
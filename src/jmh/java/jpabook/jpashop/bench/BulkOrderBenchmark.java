@@ -0,0 +1,73 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.service.BulkOrder;
+import jpabook.jpashop.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BulkOrderBenchmark
+ * <pre>
+ * 초당 주문 수 : 단건 주문 API 100번 vs 대량 주문 1번(주문 100건)
+ * - 두 경우 모두 주문당 상품 1개, 결과는 주문 1건 기준 (OperationsPerInvocation)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BulkOrderBenchmark {
+
+    private static final int ORDERS = 100;
+
+    private BenchmarkContext context;
+    private OrderService orderService;
+    private List<Long> memberIds;
+    private List<Long> itemIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        context.seedOrders(ORDERS, 1);
+        orderService = context.getBean(OrderService.class);
+        memberIds = context.readOnly(em -> em.createQuery("select m.id from Member m", Long.class)
+                .getResultList());
+        itemIds = context.readOnly(em -> em.createQuery("select i.id from Item i", Long.class)
+                .getResultList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void singleOrders() {
+        for (int i = 0; i < ORDERS; i++) {
+            orderService.order(memberId(i), itemId(i), 1);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public List<Long> bulkOrders() {
+        List<BulkOrder> bulkOrders = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            bulkOrders.add(new BulkOrder(memberId(i), List.of(new BulkOrder.Line(itemId(i), 1))));
+        }
+        return orderService.orderBulk(bulkOrders);
+    }
+
+    private Long memberId(int i) {
+        return memberIds.get(i % memberIds.size());
+    }
+
+    private Long itemId(int i) {
+        return itemIds.get(i % itemIds.size());
+    }
+}
@@ -0,0 +1,88 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.domain.OrderCursor;
+import jpabook.jpashop.domain.OrderSearch;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.service.OrderQueryAsyncService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderAsyncQueryBenchmark
+ * <pre>
+ * V5 DTO 조회 : 직렬(OrderQueryRepository) vs 비동기(OrderQueryAsyncService) 요청당 응답 시간
+ * - serialPage / asyncPage : 전체 주문을 요청 1번으로 조회 (orderItem 조회를 id 구간별로 동시에 실행)
+ * - serialScan / asyncScan : pageLimit 건씩 keyset 페이지로 전체 조회 (비동기는 다음 페이지 루트 조회를 미리 실행)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderAsyncQueryBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int orders;
+
+    @Param("2")
+    public int itemsPerOrder;
+
+    @Param("1000")
+    public int pageLimit;
+
+    private BenchmarkContext context;
+    private OrderQueryRepository orderQueryRepository;
+    private OrderQueryAsyncService orderQueryAsyncService;
+    private final OrderSearch orderSearch = new OrderSearch();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        context.seedOrders(orders, itemsPerOrder);
+        orderQueryRepository = context.getBean(OrderQueryRepository.class);
+        orderQueryAsyncService = context.getBean(OrderQueryAsyncService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> serialPage() {
+        return context.readOnly(em -> orderQueryRepository.findAllByDto_optimization(orderSearch, OrderCursor.first(), orders));
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> asyncPage() {
+        return orderQueryAsyncService.findAllByDto_optimization(orderSearch, OrderCursor.first(), orders);
+    }
+
+    @Benchmark
+    public long serialScan(Blackhole bh) {
+        return context.readOnly(em -> {
+            OrderCursor cursor = OrderCursor.first();
+            long count = 0;
+            while (true) {
+                List<OrderQueryDto> page = orderQueryRepository.findAllByDto_optimization(orderSearch, cursor, pageLimit);
+                bh.consume(page);
+                count += page.size();
+                if (page.size() < pageLimit) {
+                    return count;
+                }
+                OrderQueryDto last = page.get(page.size() - 1);
+                cursor = cursor.next(last.getOrderId(), last.getOrderDate());
+            }
+        });
+    }
+
+    @Benchmark
+    public long asyncScan(Blackhole bh) {
+        return orderQueryAsyncService.forEachPage(orderSearch, pageLimit, bh::consume);
+    }
+}
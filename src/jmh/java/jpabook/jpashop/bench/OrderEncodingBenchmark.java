@@ -0,0 +1,108 @@
+package jpabook.jpashop.bench;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.config.CompactEncodingConfig;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.http.converter.json.Jackson2ObjectMapperBuilder.json;
+
+/**
+ * OrderEncodingBenchmark
+ * <pre>
+ * /api/v5/orders 응답 인코딩 비교 : JSON vs Smile vs CBOR (CompactEncodingConfig 와 같은 설정)
+ * - encode : List<OrderQueryDto> -> byte[]
+ * - decode : byte[] -> List<OrderQueryDto> (바이너리의 열 단위 orderItems 는 ColumnarListDeserializer 로 복원)
+ * - 페이로드 크기는 setup 에서 출력 (format, orders, bytes, JSON 대비 비율)
+ * - DB 없이 메모리의 DTO 만 사용, 회원 / 주소 / 상품명은 실제 데이터처럼 일부 값이 반복
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderEncodingBenchmark {
+
+    private static final TypeReference<List<OrderQueryDto>> ORDER_LIST = new TypeReference<>() {
+    };
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param("10000")
+    public int orders;
+
+    @Param("2")
+    public int itemsPerOrder;
+
+    private ObjectMapper mapper;
+    private List<OrderQueryDto> dtos;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mapper = mapper(format);
+        dtos = createOrders(orders, itemsPerOrder);
+        payload = mapper.writeValueAsBytes(dtos);
+        OrderItemQueryDto decoded = decode().get(0).getOrderItems().get(0);
+        if (!dtos.get(0).getOrderItems().get(0).getItemName().equals(decoded.getItemName())) {
+            throw new IllegalStateException("decode 결과가 원본과 다릅니다. format=" + format);
+        }
+
+        int jsonSize = mapper("json").writeValueAsBytes(dtos).length;
+        System.out.printf("%n[payload] format=%s, orders=%d, bytes=%d, vsJson=%.2f%n",
+                format, orders, payload.length, (double) payload.length / jsonSize);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> decode() throws IOException {
+        return mapper.readValue(payload, ORDER_LIST);
+    }
+
+    private static ObjectMapper mapper(String format) {
+        switch (format) {
+            case "smile":
+                return CompactEncodingConfig.smileMapper(json());
+            case "cbor":
+                return CompactEncodingConfig.cborMapper(json());
+            default:
+                return json().build();
+        }
+    }
+
+    private static List<OrderQueryDto> createOrders(int orders, int itemsPerOrder) {
+        String[] cities = {"서울", "부산", "대구", "인천", "광주"};
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
+        List<OrderQueryDto> result = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            long orderId = i + 1;
+            int memberNo = i % 1000;
+            Address address = new Address(cities[memberNo % cities.length], "거리 " + memberNo, String.format("%05d", memberNo));
+
+            List<OrderItemQueryDto> orderItems = new ArrayList<>(itemsPerOrder);
+            for (int j = 0; j < itemsPerOrder; j++) {
+                int itemNo = (i * itemsPerOrder + j) % 100;
+                orderItems.add(new OrderItemQueryDto(orderId, "item" + itemNo, 1000 * (itemNo + 1), j + 1));
+            }
+            result.add(new OrderQueryDto(orderId, "member" + memberNo, start.plusMinutes(i),
+                    i % 10 == 0 ? OrderStatus.CANCEL : OrderStatus.ORDER, address, orderItems));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,124 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.api.OrderApiController;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderSearch;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.order.query.OrderFlatDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderFetchStrategyBenchmark
+ * <pre>
+ * 주문 조회 전략(V1 ~ V6) 비교
+ * - Throughput : 초당 처리 수, SampleTime : p50/p90/p99 응답 시간, -prof gc : 호출당 할당량
+ * - 데이터 크기는 orders(주문 수) x itemsPerOrder(주문당 상품 수) 로 조정
+ *
+ * 엔티티 조회 방식은 트랜잭션 안에서 member / delivery / orderItems / item 까지 초기화해서 API 응답과 같은 조건으로 맞춤
+ * - findAllByCriteria : V1/V2, 지연 로딩 (1 + N + N + M, default_batch_fetch_size 로 완화)
+ * - findAllWithItem : V3, 컬렉션 fetch join + distinct
+ * - findAllWithMemberDelivery(offset, limit) : V3.1, toOne fetch join + 컬렉션 batch fetch
+ * - findOrderQueryDtos : V4, DTO 루트 1번 + 컬렉션 N번
+ * - findAllByDto_optimization : V5, DTO 루트 1번 + 컬렉션 in 1번
+ * - findAllByDto_flat : V6, 조인 1번 (flatOnly 와 flatWithRegroup 의 차이 = 메모리 regroup 비용)
+ *   ㄴ flatWithSortedRegroup : V6.1, 정렬된 row 를 OrderFlatGrouper 로 한 번에 묶음
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderFetchStrategyBenchmark {
+
+    @Param({"1000"})
+    public int orders;
+
+    @Param({"2", "10"})
+    public int itemsPerOrder;
+
+    @Param("100")
+    public int pageLimit;
+
+    private BenchmarkContext context;
+    private OrderRepository orderRepository;
+    private OrderQueryRepository orderQueryRepository;
+    private OrderApiController orderApiController;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        context.seedOrders(orders, itemsPerOrder);
+        orderRepository = context.getBean(OrderRepository.class);
+        orderQueryRepository = context.getBean(OrderQueryRepository.class);
+        orderApiController = context.getBean(OrderApiController.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void findAllByCriteria(Blackhole bh) {
+        context.readOnly(em -> {
+            consume(orderRepository.findAllByCriteria(new OrderSearch()), bh);
+            return null;
+        });
+    }
+
+    @Benchmark
+    public void findAllWithItem(Blackhole bh) {
+        context.readOnly(em -> {
+            consume(orderRepository.findAllWithItem(), bh);
+            return null;
+        });
+    }
+
+    @Benchmark
+    public void findAllWithMemberDelivery_page(Blackhole bh) {
+        context.readOnly(em -> {
+            consume(orderRepository.findAllWithMemberDelivery(0, pageLimit), bh);
+            return null;
+        });
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> findOrderQueryDtos() {
+        return orderQueryRepository.findOrderQueryDtos();
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> findAllByDto_optimization() {
+        return orderQueryRepository.findAllByDto_optimization();
+    }
+
+    @Benchmark
+    public List<OrderFlatDto> flatOnly() {
+        return orderQueryRepository.findAllByDto_flat();
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> flatWithRegroup() {
+        return orderApiController.orderV6();
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> flatWithSortedRegroup() {
+        return orderApiController.orderV6_sorted();
+    }
+
+    private void consume(List<Order> orders, Blackhole bh) {
+        for (Order order : orders) {
+            bh.consume(order.getMember().getName());
+            bh.consume(order.getDelivery().getAddress());
+            order.getOrderItems().forEach(oi -> bh.consume(oi.getItem().getName()));
+        }
+    }
+}
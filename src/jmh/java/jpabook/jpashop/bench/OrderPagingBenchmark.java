@@ -0,0 +1,79 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderCursor;
+import jpabook.jpashop.repository.OrderRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderPagingBenchmark
+ * <pre>
+ * V3.1 offset 페이징 vs V3.2 keyset(cursor) 페이징
+ * - 같은 page 번호를 조회할 때 응답 시간 비교 (기본 1000 페이지)
+ * - 컬렉션(orderItems -> item)은 양쪽 모두 default_batch_fetch_size 로 초기화
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderPagingBenchmark {
+
+    @Param({"1", "1000"})
+    public int page;
+
+    @Param("20")
+    public int pageSize;
+
+    private BenchmarkContext context;
+    private OrderRepository orderRepository;
+    private OrderCursor pageCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        context.seedOrders((page + 1) * pageSize, 2);
+        orderRepository = context.getBean(OrderRepository.class);
+
+        // keyset 방식은 직전 페이지의 마지막 주문 id 를 커서로 사용
+        pageCursor = page == 0
+                ? OrderCursor.first()
+                : new OrderCursor(context.readOnly(em -> em.createQuery("select o.id from Order o order by o.id", Long.class)
+                        .setFirstResult(page * pageSize - 1)
+                        .setMaxResults(1)
+                        .getSingleResult()), null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void offset(Blackhole bh) {
+        context.readOnly(em -> {
+            consume(orderRepository.findAllWithMemberDelivery(page * pageSize, pageSize), bh);
+            return null;
+        });
+    }
+
+    @Benchmark
+    public void keyset(Blackhole bh) {
+        context.readOnly(em -> {
+            consume(orderRepository.findAllWithMemberDelivery(pageCursor, pageSize), bh);
+            return null;
+        });
+    }
+
+    private void consume(List<Order> orders, Blackhole bh) {
+        for (Order order : orders) {
+            bh.consume(order.getMember().getName());
+            order.getOrderItems().forEach(oi -> bh.consume(oi.getItem().getName()));
+        }
+    }
+}
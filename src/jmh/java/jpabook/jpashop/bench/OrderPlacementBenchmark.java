@@ -0,0 +1,81 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.monitor.QueryCounter;
+import jpabook.jpashop.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderPlacementBenchmark
+ * <pre>
+ * 주문(OrderService.order) 처리량과 주문 1건당 SQL 실행 수
+ * - secondLevelCache=true 이면 member / item 조회가 2차 캐시에서 처리됨
+ * - allocationSize=1 이면 insert 마다 시퀀스 조회(주문 1건당 order / delivery / order_item 3번), 50 이면 50건마다 1번
+ * - statements / 처리량(ops) = 주문 1건당 SQL 수
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderPlacementBenchmark {
+
+    @Param({"true", "false"})
+    public boolean secondLevelCache;
+
+    @Param({"50", "1"})
+    public int allocationSize;
+
+    private BenchmarkContext context;
+    private OrderService orderService;
+    private Long memberId;
+    private List<Long> itemIds;
+    private int next;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Statements {
+        public long statements;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+                "spring.jpa.properties.hibernate.cache.use_query_cache=" + secondLevelCache,
+                "spring.jpa.properties.jpashop.id.allocation_size=" + allocationSize,
+                "spring.jpa.properties.jpashop.id.allocation_size.order_item_seq=" + allocationSize);
+        context.seedOrders(0, 1);
+        orderService = context.getBean(OrderService.class);
+        memberId = context.readOnly(em -> em.createQuery("select m.id from Member m", Long.class)
+                .setMaxResults(1)
+                .getSingleResult());
+        itemIds = context.readOnly(em -> em.createQuery("select i.id from Item i", Long.class)
+                .getResultList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long order(Statements counters) {
+        QueryCounter counter = QueryCounter.start();
+        try {
+            Long itemId = itemIds.get(Math.floorMod(next++, itemIds.size()));
+            return orderService.order(memberId, itemId, 1);
+        } finally {
+            counters.statements += counter.getCount();
+            QueryCounter.clear();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package jpabook.jpashop.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.repository.order.query.OrderFlatGrouper;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.service.OrderExportService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderSerializationBenchmark
+ * <pre>
+ * 전체 주문 JSON 응답 생성 : DTO 목록 + Jackson 리플렉션 vs row 스트림 -> JsonGenerator
+ * - reflectiveV5 : /api/v5/orders (루트 + orderItem in 조회 -> List<OrderQueryDto> -> ObjectMapper)
+ * - reflectiveV6 : /api/v6.1/orders (플랫 조인 -> OrderFlatGrouper -> List<OrderQueryDto> -> ObjectMapper)
+ * - streaming : /api/v6.2/orders (플랫 조인 커서 -> OrderJsonWriter)
+ * - SampleTime 으로 p99, gc 프로파일러(build.gradle jmh.profilers)의 gc.alloc.rate.norm 으로 요청당 할당량 비교
+ * - 출력은 버림 (OutputStream.nullOutputStream), 쿼리 시간 포함
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderSerializationBenchmark {
+
+    @Param({"1000", "10000"})
+    public int orders;
+
+    @Param("2")
+    public int itemsPerOrder;
+
+    private BenchmarkContext context;
+    private ObjectMapper objectMapper;
+    private OrderQueryRepository orderQueryRepository;
+    private OrderExportService orderExportService;
+    private final OutputStream out = OutputStream.nullOutputStream();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        context.seedOrders(orders, itemsPerOrder);
+        objectMapper = context.getBean(ObjectMapper.class);
+        orderQueryRepository = context.getBean(OrderQueryRepository.class);
+        orderExportService = context.getBean(OrderExportService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int reflectiveV5() {
+        return context.readOnly(em -> write(orderQueryRepository.findAllByDto_optimization()));
+    }
+
+    @Benchmark
+    public int reflectiveV6() {
+        return context.readOnly(em -> write(orderQueryRepository.findAllByDto_flat().stream()
+                .collect(OrderFlatGrouper.toOrderQueryDtos())));
+    }
+
+    @Benchmark
+    public long streaming() {
+        return orderExportService.writeJson(out, 1000);
+    }
+
+    private int write(List<OrderQueryDto> orders) {
+        try {
+            objectMapper.writeValue(out, orders);
+            return orders.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
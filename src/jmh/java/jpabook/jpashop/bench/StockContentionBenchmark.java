@@ -0,0 +1,108 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.service.OrderService;
+import jpabook.jpashop.service.StockLedger;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StockContentionBenchmark
+ * <pre>
+ * 64명이 같은 상품 1개를 동시에 주문
+ * - mode=ledger : StockLedger 메모리 재고 차감 + 저널 insert (item row 락 없음, write-behind)
+ * - mode=atomic : 조건부 UPDATE 재고 차감
+ * - mode=entity : 엔티티 read-modify-write (동시 주문 시 lost update -> 초과 판매)
+ * - ordered / failed : 주문 성공 / 실패 수 (JMH 보조 결과, AuxCounters)
+ * - 종료 시 저널을 모두 반영한 뒤 (주문 성공 수 == 초기 재고 - 남은 재고) 인지 확인, 다르면 초과 판매 -> 예외
+ *   ㄴ entity 는 초과 판매가 정상 동작이므로 확인하지 않음
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(64)
+public class StockContentionBenchmark {
+
+    private static final int INITIAL_STOCK = 10_000_000;
+
+    @Param({"ledger", "atomic", "entity"})
+    public String mode;
+
+    private BenchmarkContext context;
+    private OrderService orderService;
+    private StockLedger stockLedger;
+    private Long memberId;
+    private Long itemId;
+
+    private final AtomicLong ordered = new AtomicLong();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long ordered;
+        public long failed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            ordered = 0;
+            failed = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "jpashop.stock.atomic-update=" + !"entity".equals(mode),
+                "spring.datasource.hikari.maximum-pool-size=64");
+        context.seedOrders(0, 1);
+        orderService = context.getBean(OrderService.class);
+        stockLedger = context.getBean(StockLedger.class);
+        memberId = context.readOnly(em -> em.createQuery("select m.id from Member m", Long.class)
+                .setMaxResults(1)
+                .getSingleResult());
+        itemId = context.inTransaction(em -> {
+            Item item = em.createQuery("select i from Item i order by i.id", Item.class)
+                    .setMaxResults(1)
+                    .getSingleResult();
+            item.setStockQuantity(INITIAL_STOCK);
+            return item.getId();
+        });
+        if ("ledger".equals(mode)) {
+            stockLedger.markHot(itemId);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stockLedger.flush();
+        int stock = context.readOnly(em -> em.createQuery("select i.stockQuantity from Item i where i.id = :id", Integer.class)
+                .setParameter("id", itemId)
+                .getSingleResult());
+        long sold = INITIAL_STOCK - stock;
+        context.close();
+
+        if (!"entity".equals(mode) && ordered.get() != sold) {
+            throw new IllegalStateException("재고 차감 수와 주문 수가 다릅니다. mode=" + mode
+                    + ", ordered=" + ordered.get() + ", sold=" + sold);
+        }
+    }
+
+    @Benchmark
+    public Long order(Outcomes outcomes) {
+        try {
+            Long orderId = orderService.order(memberId, itemId, 1);
+            ordered.incrementAndGet();
+            outcomes.ordered++;
+            return orderId;
+        } catch (RuntimeException e) {
+            // 재고 부족(NotEnoughStockException), read-modify-write 방식의 락 타임아웃 등
+            outcomes.failed++;
+            return null;
+        }
+    }
+}
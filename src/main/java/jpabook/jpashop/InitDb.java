@@ -1,98 +0,0 @@
-package jpabook.jpashop;
-
-import jpabook.jpashop.domain.*;
-import jpabook.jpashop.domain.item.Book;
-import lombok.RequiredArgsConstructor;
-import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-
-import javax.annotation.PostConstruct;
-import javax.persistence.EntityManager;
-
-/**
- * 조회 성능 테스트를 위해 임시 작성한 클래스
- * 총 주문 2개
- * * userA
- *      *JAP1 BOOK
- *      *JAP2 BOOK
- * * userB
- *      * SPRING1 BOOK
- *      * SPRING2 BOOK
- */
-
-@Component
-@RequiredArgsConstructor
-public class InitDb {
-    private final InitService initService;
-
-    // 스프링 라이프 사이클 특성 상 아래와 같이 클래스 분리 필요(트랜잭션 잘 먹음)
-    @PostConstruct
-    public void init() {
-        initService.doInit1();
-        initService.doInit2();
-    }
-
-    @Component
-    @Transactional
-    @RequiredArgsConstructor
-    static class InitService {
-
-        private final EntityManager em;
-        public void doInit1() {
-            Member member = createMember("userA", "서울", "1", "1111");
-            em.persist(member);
-
-            Book book1 = createBook("JPA1 BOOK", 10000, 100);
-            em.persist(book1);
-
-            Book book2 = createBook("JPA2 BOOK", 20000, 100);
-            em.persist(book2);
-
-            OrderItem orderItem1 = OrderItem.createOrderItem(book1, 10000, 1);
-            OrderItem orderItem2 = OrderItem.createOrderItem(book2, 20000, 2);
-
-            Delivery delivery = createDelivery(member);
-            Order order = Order.createOrder(member, delivery, orderItem1, orderItem2);
-            em.persist(order);
-        }
-
-        public void doInit2() {
-            Member member = createMember("userB", "경기", "2", "2222");
-            em.persist(member);
-
-            Book book1 = createBook("SPRING1 BOOK", 20000, 200);
-            em.persist(book1);
-
-            Book book2 = createBook("SPING2 BOOK", 40000, 300);
-            em.persist(book2);
-
-            OrderItem orderItem1 = OrderItem.createOrderItem(book1, 20000, 3);
-            OrderItem orderItem2 = OrderItem.createOrderItem(book2, 40000, 4);
-
-            Delivery delivery = createDelivery(member);
-            Order order = Order.createOrder(member, delivery, orderItem1, orderItem2);
-            em.persist(order);
-        }
-
-        private Delivery createDelivery(Member member) {
-            Delivery delivery = new Delivery();
-            delivery.setAddress(member.getAddress());
-            return delivery;
-        }
-
-        private Book createBook(String name, int price, int stockQuantity) {
-            Book book2 = new Book();
-            book2.setName(name);
-            book2.setPrice(price);
-            book2.setStockQuantity(stockQuantity);
-            return book2;
-        }
-
-        private Member createMember(String name, String city, String street, String zipcode) {
-            Member member = new Member();
-            member.setName(name);
-            member.setAddress(new Address(city, street, zipcode));
-            return member;
-        }
-    }
-}
@@ -0,0 +1,50 @@
+package jpabook.jpashop.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import javax.validation.ConstraintViolationException;
+import java.util.NoSuchElementException;
+
+/**
+ * ApiExceptionHandler
+ * <pre>
+ * API 요청 파라미터 검증(@Validated 컨트롤러의 @Positive 등) 실패 -> 400
+ * 잘못된 요청 값(IllegalArgumentException : 커서 디코딩 실패 등) -> 400
+ * 요청이 가리키는 회원 / 상품 등이 없음(NoSuchElementException) -> 404
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@RestControllerAdvice(basePackages = "jpabook.jpashop.api")
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResult constraintViolation(ConstraintViolationException e) {
+        return new ErrorResult(e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResult illegalArgument(IllegalArgumentException e) {
+        return new ErrorResult(e.getMessage());
+    }
+
+    @ExceptionHandler(NoSuchElementException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ErrorResult noSuchElement(NoSuchElementException e) {
+        return new ErrorResult(e.getMessage());
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class ErrorResult {
+        private String message;
+    }
+}
@@ -0,0 +1,85 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.service.CategoryService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.constraints.Positive;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * CategoryApiController
+ * <pre>
+ * 카테고리 하위 트리 상품 조회
+ * - category.path 접두 일치로 하위 카테고리 전체를 쿼리 1번에 조회 (트리를 단계별로 지연 로딩하지 않음)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@RestController
+@Validated
+@RequiredArgsConstructor
+public class CategoryApiController {
+
+    private final CategoryService categoryService;
+
+    /**
+     * 하위 트리(자신 포함) 상품 목록
+     * @param afterItemId 이전 페이지 마지막 상품 id
+     * @param limit 1 이상, MAX_PAGE_LIMIT(1000) 보다 크면 1000 건만 조회
+     * @param count true 이면 하위 트리 전체 상품 수 포함
+     * @return SubtreeResult<List<CategoryItemDto>>
+     */
+    @GetMapping("/api/categories/{categoryId}/items")
+    public SubtreeResult<List<CategoryItemDto>> subtreeItems(
+            @PathVariable("categoryId") Long categoryId,
+            @RequestParam(value = "afterItemId", required = false) Long afterItemId,
+            @RequestParam(value = "limit", defaultValue = "100") @Positive int limit,
+            @RequestParam(value = "count", defaultValue = "true") boolean count) {
+        limit = OrderApiController.pageLimit(limit);
+        List<CategoryItemDto> collect = categoryService.findSubtreeItems(categoryId, afterItemId, limit).stream()
+                .map(CategoryItemDto::new)
+                .collect(Collectors.toList());
+
+        Long nextAfterItemId = collect.isEmpty() || collect.size() < limit
+                ? null
+                : collect.get(collect.size() - 1).getItemId();
+        Long itemCount = count ? categoryService.countSubtreeItems(categoryId) : null;
+        return new SubtreeResult<>(collect, nextAfterItemId, itemCount);
+    }
+
+    @Data
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    static class SubtreeResult<T> {
+        private T data;
+        private Long nextAfterItemId;
+        private Long itemCount;
+    }
+
+    @Getter
+    static class CategoryItemDto {
+        private Long itemId;
+        private String name;
+        private int price;
+        private int stockQuantity;
+
+        public CategoryItemDto(Item item) {
+            itemId = item.getId();
+            name = item.getName();
+            price = item.getPrice();
+            stockQuantity = item.getStockQuantity();
+        }
+    }
+}
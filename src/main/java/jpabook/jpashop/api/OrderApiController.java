@@ -1,30 +1,72 @@
 package jpabook.jpashop.api;
 
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import jpabook.jpashop.config.ColumnarListDeserializer;
+import jpabook.jpashop.config.ColumnarListSerializer;
+import jpabook.jpashop.config.VersionedETag;
+import jpabook.jpashop.datasource.ReplicaRoutingDataSource;
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.order.query.OrderFlatDto;
+import jpabook.jpashop.repository.order.query.OrderFlatGrouper;
 import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.service.BulkOrder;
+import jpabook.jpashop.service.DataVersionTracker;
+import jpabook.jpashop.service.OrderExportService;
+import jpabook.jpashop.service.OrderQueryAsyncService;
+import jpabook.jpashop.service.OrderQueryCoalescer;
+import jpabook.jpashop.service.OrderService;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.*;
 
 @RestController
+@Validated
 @RequiredArgsConstructor
 public class OrderApiController {
 
+    /**
+     * 페이지 조회 limit 최대값, 더 크게 요청하면 이 값으로 조회 (1 미만은 400)
+     */
+    static final int MAX_PAGE_LIMIT = 1000;
+
     private final OrderRepository orderRepository;
     private final OrderQueryRepository orderQueryRepository;
+    private final OrderExportService orderExportService;
+    private final OrderService orderService;
+    private final OrderQueryAsyncService orderQueryAsyncService;
+    private final OrderQueryCoalescer orderQueryCoalescer;
 
     /**
      * 주문 조회 V1 : 잘못된 케이스 - 엔티티 직접 노출
@@ -93,6 +135,45 @@ public class OrderApiController {
                 .collect(toList());
     }
 
+    /**
+     * 주문 조회 V3.2 :  fetch join 최적화 + keyset(cursor) paging
+     * - V3.1 과 동일하게 ToOne 은 페치 조인, 컬렉션은 default_batch_fetch_size 로 최적화
+     * - offset 대신 이전 페이지의 마지막 주문 위치(cursor) 이후부터 조회 -> 뒤 페이지도 일정한 속도
+     * - cursor 가 없으면 afterOrderId / afterOrderDate 로 시작 위치 지정 (afterOrderDate 지정 시 주문일시 순)
+     * - limit : 1 이상, MAX_PAGE_LIMIT(1000) 보다 크면 1000 건만 조회
+     * @return CursorResult<List<OrderDto>>
+     */
+    @GetMapping("/api/v3.2/orders")
+    public CursorResult<List<OrderDto>> orderV3_cursor(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "afterOrderId", required = false) Long afterOrderId,
+            @RequestParam(value = "afterOrderDate", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterOrderDate,
+            @RequestParam(value = "limit", defaultValue = "100") @Positive int limit) {
+        limit = pageLimit(limit);
+        OrderCursor orderCursor = StringUtils.hasText(cursor)
+                ? OrderCursor.decode(cursor)
+                : new OrderCursor(afterOrderId, afterOrderDate);
+        List<Order> orders = orderRepository.findAllWithMemberDelivery(orderCursor, limit);
+
+        List<OrderDto> collect = orders.stream()
+                .map(OrderDto::new)
+                .collect(toList());
+
+        // limit 만큼 채워졌을 때만 다음 페이지가 있을 수 있음
+        String nextCursor = orders.isEmpty() || orders.size() < limit
+                ? null
+                : orderCursor.next(orders.get(orders.size() - 1)).encode();
+        return new CursorResult<>(collect, nextCursor);
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CursorResult<T> {
+        private T data;
+        private String nextCursor;
+    }
+
     /**
      * 주문 조회 V4 :  fetch join 최적화 + paging
      * - ToOne 관계만 우선 모두 페치 조인으로 최적화
@@ -108,11 +189,80 @@ public class OrderApiController {
      * 주문 조회 V5 :  JPA에서 DTO 직접 조회 - 컬렉션 조회 최적화
      * - ToOne 관계만 우선 모두 페치 조인으로 최적화
      * - 컬렉션 관계는 hibernate.default_batch_fetch_size, @BatchSize로 최적화
+     * - 동시에 들어온 같은 조회는 DB 조회 1번으로 합침 (OrderQueryCoalescer)
      * @return List<OrderDto>
      */
     @GetMapping("/api/v5/orders")
+    @VersionedETag({DataVersionTracker.Resource.ORDERS, DataVersionTracker.Resource.ITEMS, DataVersionTracker.Resource.MEMBERS})
     public List<OrderQueryDto> orderV5() {
-        return orderQueryRepository.findAllByDto_optimization();
+        return orderQueryCoalescer.findAllByDto_optimization();
+    }
+
+    /**
+     * 주문 조회 V5.1 :  V5 + 검색 조건 + keyset(cursor) paging
+     * - 상태 / 회원명 조건과 페이징은 루트 쿼리에서 처리, 해당 페이지 주문의 컬렉션만 in 으로 1번 조회
+     * - count=true 인 경우에만 전체 건수 조회 쿼리 실행
+     * - limit : 1 이상, MAX_PAGE_LIMIT(1000) 보다 크면 1000 건만 조회
+     * - 동시에 들어온 같은 조건 / 커서 조회는 DB 조회 1번으로 합침 (OrderQueryCoalescer)
+     * @return PageResult<List<OrderQueryDto>>
+     */
+    @GetMapping("/api/v5.1/orders")
+    public PageResult<List<OrderQueryDto>> orderV5_page(
+            @ModelAttribute OrderSearch orderSearch,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") @Positive int limit,
+            @RequestParam(value = "count", defaultValue = "false") boolean count) {
+        limit = pageLimit(limit);
+        OrderCursor orderCursor = StringUtils.hasText(cursor) ? OrderCursor.decode(cursor) : OrderCursor.first();
+        List<OrderQueryDto> orders = orderQueryCoalescer.findAllByDto_optimization(orderSearch, orderCursor, limit);
+
+        Long totalCount = count ? orderQueryCoalescer.countOrders(orderSearch) : null;
+        return new PageResult<>(orders, nextCursor(orderCursor, orders, limit), totalCount);
+    }
+
+    /**
+     * 주문 조회 V5.2 : V5.1 과 같은 결과를 비동기로 조회
+     * - 건수 조회와 루트 조회를 동시에 실행
+     * - orderItem 은 주문 id 구간별로 나눠서 별도 커넥션에서 동시에 조회
+     */
+    @GetMapping("/api/v5.2/orders")
+    public PageResult<List<OrderQueryDto>> orderV5_async(
+            @ModelAttribute OrderSearch orderSearch,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") @Positive int limit,
+            @RequestParam(value = "count", defaultValue = "false") boolean count) {
+        limit = pageLimit(limit);
+        OrderCursor orderCursor = StringUtils.hasText(cursor) ? OrderCursor.decode(cursor) : OrderCursor.first();
+        CompletableFuture<Long> totalCount = count
+                ? orderQueryAsyncService.countOrdersAsync(orderSearch)
+                : CompletableFuture.completedFuture(null);
+        List<OrderQueryDto> orders = orderQueryAsyncService.findAllByDto_optimization(orderSearch, orderCursor, limit);
+
+        return new PageResult<>(orders, nextCursor(orderCursor, orders, limit), totalCount.join());
+    }
+
+    /**
+     * limit 을 MAX_PAGE_LIMIT 로 제한 (다른 api 컨트롤러의 페이지 조회도 사용)
+     */
+    static int pageLimit(int limit) {
+        return Math.min(limit, MAX_PAGE_LIMIT);
+    }
+
+    private String nextCursor(OrderCursor orderCursor, List<OrderQueryDto> orders, int limit) {
+        if (orders.isEmpty() || orders.size() < limit) {
+            return null;
+        }
+        OrderQueryDto last = orders.get(orders.size() - 1);
+        return orderCursor.next(last.getOrderId(), last.getOrderDate()).encode();
+    }
+
+    @Data
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    static class PageResult<T> {
+        private T data;
+        private String nextCursor;
+        private Long totalCount;
     }
 
     /**
@@ -136,7 +286,113 @@ public class OrderApiController {
 
     }
 
+    /**
+     * 주문 조회 V6.1 : V6 + 정렬된 row 를 한 번에 훑으면서 묶기
+     * - o.id 순으로 정렬된 row 에서 연속된 orderId 를 주문 1건으로 묶음 (OrderFlatGrouper)
+     * - HashMap / equals, hashCode 불필요, 주문당 DTO 1개만 생성, 정렬 순서 유지
+     * @return List<OrderQueryDto>
+     */
+    @GetMapping("/api/v6.1/orders")
+    public List<OrderQueryDto> orderV6_sorted() {
+        return orderQueryRepository.findAllByDto_flat().stream()
+                .collect(OrderFlatGrouper.toOrderQueryDtos());
+    }
+
+    /**
+     * 주문 조회 V6.2 : V4 / V5 / V6 와 같은 JSON 을 DTO 없이 row 스트림에서 바로 출력
+     * - 플랫 조인 1번을 forward-only 커서로 읽으면서 JsonGenerator 에 씀 (OrderJsonWriter)
+     * - OrderQueryDto / List 를 만들지 않고 Jackson 리플렉션도 거치지 않음 -> 주문 수와 관계 없이 힙 사용량 일정
+     * - o.id 순 정렬
+     * - fetchSize : 1 이상 (아니면 400)
+     * - 본문은 비동기 스레드에서 쓰므로 요청 스레드의 primary 라우팅(@VersionedETag)을 넘겨줌
+     * @return StreamingResponseBody
+     */
+    @GetMapping("/api/v6.2/orders")
+    @VersionedETag({DataVersionTracker.Resource.ORDERS, DataVersionTracker.Resource.ITEMS, DataVersionTracker.Resource.MEMBERS})
+    public ResponseEntity<StreamingResponseBody> orderV6_stream(
+            @RequestParam(value = "fetchSize", defaultValue = "1000") @Positive int fetchSize) {
+        boolean primaryOnly = ReplicaRoutingDataSource.isPrimaryOnly();
+        StreamingResponseBody body = out -> {
+            boolean previous = ReplicaRoutingDataSource.setPrimaryOnly(primaryOnly);
+            try {
+                orderExportService.writeJson(out, fetchSize);
+            } finally {
+                ReplicaRoutingDataSource.setPrimaryOnly(previous);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * 대량 주문 등록
+     * - 여러 주문(주문당 상품 여러 개)을 한 트랜잭션에서 처리
+     * - 회원 / 상품은 in 쿼리 1번씩, insert 는 JDBC batch
+     * @param request 주문 목록
+     * @return CreateOrdersResponse
+     */
+    @PostMapping("/api/orders/bulk")
+    public CreateOrdersResponse saveOrdersBulk(@RequestBody @Valid CreateOrdersRequest request) {
+        List<BulkOrder> bulkOrders = request.getOrders().stream()
+                .map(o -> new BulkOrder(o.getMemberId(), o.getItems().stream()
+                        .map(i -> new BulkOrder.Line(i.getItemId(), i.getCount()))
+                        .collect(toList())))
+                .collect(toList());
+
+        List<Long> orderIds = orderService.orderBulk(bulkOrders);
+        return new CreateOrdersResponse(orderIds.size(), orderIds);
+    }
+
+    @Data
+    static class CreateOrdersRequest {
+        @NotEmpty
+        @Valid
+        private List<CreateOrderRequest> orders;
+    }
+
+    @Data
+    static class CreateOrderRequest {
+        @NotNull
+        private Long memberId;
+        @NotEmpty
+        @Valid
+        private List<CreateOrderItemRequest> items;
+    }
+
+    @Data
+    static class CreateOrderItemRequest {
+        @NotNull
+        private Long itemId;
+        @Positive
+        private int count;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CreateOrdersResponse {
+        private int count;
+        private List<Long> orderIds;
+    }
+
+    /**
+     * 주문 전체 export : NDJSON 스트리밍
+     * - 주문 1건(주문상품 포함) = JSON 1줄
+     * - forward-only 커서로 읽으면서 바로 응답에 씀 -> 전체 List 를 만들지 않음
+     * - chunkSize : 1 이상 (아니면 400)
+     * @return StreamingResponseBody
+     */
+    @GetMapping("/api/orders/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(value = "chunkSize", defaultValue = "1000") @Positive int chunkSize) {
+        StreamingResponseBody body = out -> orderExportService.exportNdjson(out, chunkSize);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @Getter
+    @NoArgsConstructor(access = AccessLevel.PRIVATE)  // Smile / CBOR 클라이언트 역직렬화용
     static class OrderDto {
 
         private Long orderId;
@@ -144,6 +400,8 @@ public class OrderApiController {
         private LocalDateTime orderDate;
         private OrderStatus orderStatus;
         private Address address;
+        @JsonSerialize(using = ColumnarListSerializer.class)
+        @JsonDeserialize(using = ColumnarListDeserializer.class)
         private List<OrderItemDto> orderItems;
 
         public OrderDto(Order order) {
@@ -159,6 +417,7 @@ public class OrderApiController {
     }
 
     @Getter
+    @NoArgsConstructor(access = AccessLevel.PRIVATE)
     static class OrderItemDto {
         private String itemName;    // 상품명
         private int orderPrice;     // 주문 가격
@@ -1,11 +1,14 @@
 package jpabook.jpashop.api;
 
+import jpabook.jpashop.config.VersionedETag;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderSearch;
 import jpabook.jpashop.domain.OrderStatus;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
+import jpabook.jpashop.service.DataVersionTracker;
+import jpabook.jpashop.service.OrderQueryCoalescer;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -27,6 +30,7 @@ import java.util.stream.Collectors;
 public class OrderSimpleApiController {
 
     private final OrderRepository orderRepository;
+    private final OrderQueryCoalescer orderQueryCoalescer;
 
     /**
      * 주문 조회 V1 : entity 노출 케이스
@@ -79,10 +83,12 @@ public class OrderSimpleApiController {
      * - fetch join 사용
      * - JPA 에서 DTO 바로 조회
      * - select 절에서 원하는 데이터만 선택해서 조회
+     * - 동시에 들어온 같은 조회는 DB 조회 1번으로 합침 (OrderQueryCoalescer)
      */
     @GetMapping("/api/v4/simple-orders")
+    @VersionedETag({DataVersionTracker.Resource.ORDERS, DataVersionTracker.Resource.MEMBERS})
     public List<OrderSimpleQueryDto> ordersV4() {
-        return orderRepository.findOrderDtos();
+        return orderQueryCoalescer.findOrderDtos();
     }
 
     @Data
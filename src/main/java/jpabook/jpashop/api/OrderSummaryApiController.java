@@ -0,0 +1,103 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.config.AdminOnly;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.OrderSummary;
+import jpabook.jpashop.service.OrderSummaryService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.constraints.Positive;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * OrderSummaryApiController
+ * <pre>
+ * 주문 요약 조회 : 비정규화 테이블(order_summary) 사용
+ * - 조인 없이 인덱스 범위 스캔 1번으로 목록 조회
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@RestController
+@Validated
+@RequiredArgsConstructor
+public class OrderSummaryApiController {
+
+    private final OrderSummaryService orderSummaryService;
+
+    /**
+     * 주문 요약 목록
+     * @param status 주문 상태 (없으면 전체)
+     * @param afterOrderId 이전 페이지 마지막 주문 id
+     * @param limit 1 이상, MAX_PAGE_LIMIT(1000) 보다 크면 1000 건만 조회
+     * @return Result<List<OrderSummaryDto>>
+     */
+    @GetMapping("/api/order-summaries")
+    public Result<List<OrderSummaryDto>> orderSummaries(
+            @RequestParam(value = "status", required = false) OrderStatus status,
+            @RequestParam(value = "afterOrderId", required = false) Long afterOrderId,
+            @RequestParam(value = "limit", defaultValue = "100") @Positive int limit) {
+        limit = OrderApiController.pageLimit(limit);
+        List<OrderSummaryDto> collect = orderSummaryService.findSummaries(status, afterOrderId, limit).stream()
+                .map(OrderSummaryDto::new)
+                .collect(Collectors.toList());
+
+        Long nextAfterOrderId = collect.isEmpty() || collect.size() < limit
+                ? null
+                : collect.get(collect.size() - 1).getOrderId();
+        return new Result<>(collect, nextAfterOrderId);
+    }
+
+    /**
+     * 주문 요약 전체 재생성 : 관리 API (X-Admin-Token)
+     * - 주문 / 취소가 없을 때 실행 (전체 삭제 후 다시 생성하므로 실행 중 커밋된 주문 / 취소와 충돌할 수 있음)
+     * @return 생성된 요약 수
+     */
+    @AdminOnly
+    @PostMapping("/api/order-summaries/rebuild")
+    public int rebuild() {
+        return orderSummaryService.rebuild();
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private T data;
+        private Long nextAfterOrderId;
+    }
+
+    @Getter
+    static class OrderSummaryDto {
+        private Long orderId;
+        private String name;
+        private LocalDateTime orderDate;
+        private OrderStatus orderStatus;
+        private Address address;
+        private int itemCount;
+        private int totalPrice;
+        private String firstItemName;
+
+        public OrderSummaryDto(OrderSummary summary) {
+            orderId = summary.getOrderId();
+            name = summary.getMemberName();
+            orderDate = summary.getOrderDate();
+            orderStatus = summary.getStatus();
+            address = summary.getAddress();
+            itemCount = summary.getItemCount();
+            totalPrice = summary.getTotalPrice();
+            firstItemName = summary.getFirstItemName();
+        }
+    }
+}
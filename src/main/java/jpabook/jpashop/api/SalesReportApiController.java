@@ -0,0 +1,104 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.config.AdminOnly;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.SalesRollup;
+import jpabook.jpashop.repository.SalesTotalDto;
+import jpabook.jpashop.service.SalesRollupService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.constraints.Positive;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * SalesReportApiController
+ * <pre>
+ * 매출 리포트 : 집계 테이블(sales_rollup) 사용
+ * - 주문 / 주문상품을 읽지 않고 일별 / 월별로 미리 합산된 row 만 조회
+ * - 주문 / 취소는 fold 주기(jpashop.sales-rollup.fold-interval-ms) 이후 반영
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@RestController
+@Validated
+@RequiredArgsConstructor
+public class SalesReportApiController {
+
+    private final SalesRollupService salesRollupService;
+
+    /**
+     * 일별 매출 / 수량 / 주문 건수
+     * @param status 주문 상태 (없으면 상태별로 각각)
+     * @return Result<List<SalesTotalDto>>
+     */
+    @GetMapping("/api/reports/sales/daily")
+    public Result<List<SalesTotalDto>> daily(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "status", required = false) OrderStatus status) {
+        return new Result<>(salesRollupService.findPeriodTotals(SalesRollup.Grain.DAY, from, to, status));
+    }
+
+    /**
+     * 월별 매출 / 수량 / 주문 건수
+     * @param from 시작 월의 아무 날짜
+     */
+    @GetMapping("/api/reports/sales/monthly")
+    public Result<List<SalesTotalDto>> monthly(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "status", required = false) OrderStatus status) {
+        return new Result<>(salesRollupService.findPeriodTotals(SalesRollup.Grain.MONTH, from.withDayOfMonth(1), to, status));
+    }
+
+    /**
+     * 상품별 매출 상위 limit 개 (orderCount : 그 상품의 주문상품 수)
+     * - limit : 1 이상, MAX_PAGE_LIMIT(1000) 보다 크면 1000 개만 조회
+     */
+    @GetMapping("/api/reports/sales/items")
+    public Result<List<SalesTotalDto>> items(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "status", defaultValue = "ORDER") OrderStatus status,
+            @RequestParam(value = "limit", defaultValue = "100") @Positive int limit) {
+        return new Result<>(salesRollupService.findItemTotals(from, to, status, OrderApiController.pageLimit(limit)));
+    }
+
+    /**
+     * 주문 상태별 매출 / 수량 / 주문 건수
+     */
+    @GetMapping("/api/reports/sales/status")
+    public Result<List<SalesTotalDto>> status(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return new Result<>(salesRollupService.findStatusTotals(from, to));
+    }
+
+    /**
+     * 매출 집계 전체 재생성 : 관리 API (X-Admin-Token)
+     * - 주문 / 취소 중에도 실행 가능 (누락 / 중복 없음, SalesRollupService.rebuild 참고)
+     * @return 생성된 집계 row 수
+     */
+    @AdminOnly
+    @PostMapping("/api/reports/sales/rebuild")
+    public int rebuild() {
+        return salesRollupService.rebuild();
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private T data;
+    }
+}
@@ -0,0 +1,23 @@
+package jpabook.jpashop.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * AdminOnly
+ * <pre>
+ * 관리 작업 API (집계 / 요약 테이블 전체 재생성 등) 표시
+ * - X-Admin-Token 헤더가 jpashop.admin.token 과 같을 때만 핸들러 실행, 아니면 403 (AdminTokenInterceptor)
+ * - jpashop.admin.token 이 비어 있으면 항상 403 (관리 API 사용 안 함)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdminOnly {
+}
@@ -0,0 +1,49 @@
+package jpabook.jpashop.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * AdminTokenInterceptor
+ * <pre>
+ * @AdminOnly 핸들러는 X-Admin-Token 헤더가 jpashop.admin.token 과 같을 때만 실행
+ * - 토큰 미설정 / 헤더 없음 / 불일치 : 403, 핸들러 실행 안 함
+ * - 비교는 MessageDigest.isEqual (일치하는 앞부분 길이에 따라 응답 시간이 달라지지 않게)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Component
+public class AdminTokenInterceptor implements HandlerInterceptor {
+
+    public static final String HEADER = "X-Admin-Token";
+
+    private final byte[] token;
+
+    public AdminTokenInterceptor(@Value("${jpashop.admin.token:}") String token) {
+        this.token = StringUtils.hasText(token) ? token.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!(handler instanceof HandlerMethod) || !((HandlerMethod) handler).hasMethodAnnotation(AdminOnly.class)) {
+            return true;
+        }
+        String header = request.getHeader(HEADER);
+        if (token != null && header != null && MessageDigest.isEqual(token, header.getBytes(StandardCharsets.UTF_8))) {
+            return true;
+        }
+        response.sendError(HttpServletResponse.SC_FORBIDDEN);
+        return false;
+    }
+}
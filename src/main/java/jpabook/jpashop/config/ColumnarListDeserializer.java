@@ -0,0 +1,96 @@
+package jpabook.jpashop.config;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ColumnarListDeserializer
+ * <pre>
+ * ColumnarListSerializer 로 쓴 열 단위 목록을 다시 객체 목록으로 읽음 (Smile / CBOR 클라이언트용)
+ * - {"itemName": ["A", "B"], "count": [1, 2]} -> [{"itemName": "A", "count": 1}, {"itemName": "B", "count": 2}]
+ *   ㄴ 열마다 i 번째 값을 모아 원소 1개로 만들고, 원소 타입(선언된 제네릭 타입)의 기본 deserializer 로 변환
+ *   ㄴ 원소 수는 가장 긴 열 기준, 짧은 열의 빈 자리는 null
+ * - 배열이 오면 (JSON 응답) 기존 방식 그대로 읽음
+ * - null 원소는 직렬화 시 모든 열이 null 로 쓰이므로, 모든 필드가 기본값인 원소로 읽힘
+ * - 사용 : 목록 필드에 @JsonDeserialize(using = ColumnarListDeserializer.class)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+public class ColumnarListDeserializer extends StdDeserializer<List<?>> implements ContextualDeserializer {
+
+    private final JsonDeserializer<Object> listDeserializer;
+    private final JsonDeserializer<Object> elementDeserializer;
+
+    public ColumnarListDeserializer() {
+        this(null, null);
+    }
+
+    private ColumnarListDeserializer(JsonDeserializer<Object> listDeserializer, JsonDeserializer<Object> elementDeserializer) {
+        super(List.class);
+        this.listDeserializer = listDeserializer;
+        this.elementDeserializer = elementDeserializer;
+    }
+
+    @Override
+    public JsonDeserializer<?> createContextual(DeserializationContext ctxt, BeanProperty property) throws JsonMappingException {
+        if (property == null) {
+            return this;
+        }
+        JavaType listType = property.getType();
+        JavaType elementType = listType.getContentType();
+        if (elementType == null) {
+            return this;
+        }
+        return new ColumnarListDeserializer(
+                ctxt.findContextualValueDeserializer(listType, property),
+                ctxt.findContextualValueDeserializer(elementType, property));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<?> deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (listDeserializer == null) {
+            return (List<?>) ctxt.handleUnexpectedToken(List.class, p);
+        }
+        if (!p.hasToken(JsonToken.START_OBJECT)) {
+            return (List<Object>) listDeserializer.deserialize(p, ctxt);
+        }
+
+        JsonNode columns = ctxt.readTree(p);
+        int size = 0;
+        for (JsonNode column : columns) {
+            size = Math.max(size, column.size());
+        }
+
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ObjectNode row = ctxt.getNodeFactory().objectNode();
+            Iterator<Map.Entry<String, JsonNode>> fields = columns.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> column = fields.next();
+                row.set(column.getKey(), column.getValue().get(i));
+            }
+            try (JsonParser rowParser = row.traverse(p.getCodec())) {
+                rowParser.nextToken();
+                list.add(elementDeserializer.deserialize(rowParser, ctxt));
+            }
+        }
+        return list;
+    }
+}
@@ -0,0 +1,93 @@
+package jpabook.jpashop.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ColumnarListSerializer
+ * <pre>
+ * 바이너리 응답(Smile / CBOR)에서 객체 목록을 열 단위로 직렬화
+ * - [{"itemName": "A", "count": 1}, {"itemName": "B", "count": 2}] -> {"itemName": ["A", "B"], "count": [1, 2]}
+ *   ㄴ 필드명을 원소마다 반복하지 않고, 같은 열의 값이 연속됨
+ * - JSON 응답은 기존 배열 그대로 (API 스펙 유지)
+ *   ㄴ 바이너리 판단은 generator 타입으로 (SmileGenerator / CBORGenerator)
+ *      canWriteBinaryNatively 는 TokenBuffer(convertValue / valueToTree)도 true 라서 쓰지 않음
+ * - 열 = 원소 타입(선언된 제네릭 타입)의 직렬화 대상 프로퍼티 (@JsonIgnore 제외, 선언 순서), 빈 목록도 빈 열로 씀
+ * - 사용 : 목록 필드에 @JsonSerialize(using = ColumnarListSerializer.class)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+public class ColumnarListSerializer extends StdSerializer<List<?>> implements ContextualSerializer {
+
+    private final List<BeanPropertyDefinition> columns;
+
+    public ColumnarListSerializer() {
+        this(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ColumnarListSerializer(List<BeanPropertyDefinition> columns) {
+        super((Class<List<?>>) (Class<?>) List.class);
+        this.columns = columns;
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) throws JsonMappingException {
+        if (property == null) {
+            return this;
+        }
+        JavaType elementType = property.getType().getContentType();
+        if (elementType == null) {
+            return this;
+        }
+
+        List<BeanPropertyDefinition> columns = new ArrayList<>();
+        for (BeanPropertyDefinition definition : provider.getConfig().introspect(elementType).findProperties()) {
+            AnnotatedMember accessor = definition.getAccessor();
+            if (accessor != null && definition.couldSerialize()) {
+                accessor.fixAccess(true);
+                columns.add(definition);
+            }
+        }
+        return new ColumnarListSerializer(columns);
+    }
+
+    @Override
+    public void serialize(List<?> list, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (columns == null || !isBinary(gen)) {
+            provider.defaultSerializeValue(list, gen);
+            return;
+        }
+
+        gen.writeStartObject(list);
+        for (BeanPropertyDefinition column : columns) {
+            AnnotatedMember accessor = column.getAccessor();
+            gen.writeFieldName(column.getName());
+            gen.writeStartArray(list, list.size());
+            for (Object element : list) {
+                provider.defaultSerializeValue(element == null ? null : accessor.getValue(element), gen);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+    }
+
+    private static boolean isBinary(JsonGenerator gen) {
+        return gen instanceof SmileGenerator || gen instanceof CBORGenerator;
+    }
+}
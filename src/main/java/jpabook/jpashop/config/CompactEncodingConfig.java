@@ -0,0 +1,88 @@
+package jpabook.jpashop.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+
+/**
+ * CompactEncodingConfig
+ * <pre>
+ * API 응답 바이너리 인코딩 (Accept 헤더로 선택, 없으면 JSON)
+ * - application/x-jackson-smile : Smile, 필드명 + 짧은 문자열 값(주소 등) 반복 시 앞에 나온 값을 참조로 씀
+ * - application/cbor : CBOR
+ * - 스프링 부트 ObjectMapper 설정(모듈, 날짜 형식)을 그대로 사용 (Jackson2ObjectMapperBuilder)
+ * - 바이너리 응답에서 orderItems 는 열(column) 단위로 씀 (ColumnarListSerializer)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Configuration
+public class CompactEncodingConfig {
+
+    public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    public static final MediaType CBOR = new MediaType("application", "cbor");
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(smileMapper(builder));
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(cborMapper(builder));
+    }
+
+    public static ObjectMapper smileMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(SmileFactory.builder()
+                        .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                        .build())
+                .build();
+    }
+
+    public static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new CBORFactory())
+                .build();
+    }
+
+    /**
+     * 응답 표현 구분 (ETag 용), Accept 에서 우선순위가 가장 높은 형식이 바이너리면 그 이름, 아니면 null
+     */
+    public static String representation(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return null;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (SMILE.includes(mediaType)) {
+                return "smile";
+            }
+            if (CBOR.includes(mediaType)) {
+                return "cbor";
+            }
+            if (MediaType.APPLICATION_JSON.isCompatibleWith(mediaType)) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,82 @@
+package jpabook.jpashop.config;
+
+import jpabook.jpashop.domain.PooledSequenceGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+
+/**
+ * IdSequenceMigrator
+ * <pre>
+ * 공용 hibernate_sequence(increment 1) -> 엔티티별 pooled-lo 시퀀스 이관
+ * - jpashop.id.migrate-sequences=true 일 때만 동작 (ddl-auto=create 인 경우 필요 없음)
+ * - 시퀀스가 없으면 먼저 생성 (hibernate_sequence 만 있던 기존 스키마)
+ * - 시퀀스별로 restart with max(id)+1, increment by allocation size 적용
+ *   ㄴ pooled-lo 는 시퀀스 값을 구간의 시작 값으로 사용 -> 기존 id 와 겹치지 않음
+ * - allocation size 를 바꾼 경우에도 다시 실행해서 DB 시퀀스 increment 를 맞춰야 함
+ * - JDBC 로 id 를 직접 넣은 경우(DataSeeder) 에도 syncSequences 로 시퀀스를 맞춤
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Slf4j
+@Component
+public class IdSequenceMigrator {
+
+    /** 시퀀스 이름, 테이블, id 컬럼 (엔티티의 @GenericGenerator 와 맞춰야 함) */
+    private static final String[][] SEQUENCES = {
+            {"member_seq", "member", "member_id"},
+            {"item_seq", "item", "item_id"},
+            {"category_seq", "category", "category_id"},
+            {"delivery_seq", "delivery", "delivery_id"},
+            {"orders_seq", "orders", "order_id"},
+            {"order_item_seq", "order_item", "order_item_id"},
+            {"stock_journal_seq", "stock_journal", "stock_journal_id"},
+            {"sales_delta_seq", "sales_delta", "sales_delta_id"},
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory emf;
+    private final boolean enabled;
+
+    public IdSequenceMigrator(JdbcTemplate jdbcTemplate,
+                              EntityManagerFactory emf,
+                              @Value("${jpashop.id.migrate-sequences:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.emf = emf;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (enabled) {
+            syncSequences();
+        }
+    }
+
+    /**
+     * 엔티티 시퀀스를 현재 테이블의 max(id) 다음 값으로 맞춤 (없는 시퀀스는 생성)
+     */
+    public void syncSequences() {
+        Map<String, Object> settings = emf.getProperties();
+        for (String[] sequence : SEQUENCES) {
+            String sequenceName = sequence[0];
+            Long maxId = jdbcTemplate.queryForObject(
+                    "select coalesce(max(" + sequence[2] + "), 0) from " + sequence[1], Long.class);
+            long start = (maxId == null ? 0 : maxId) + 1;
+            int allocationSize = PooledSequenceGenerator.allocationSize(settings, sequenceName);
+
+            jdbcTemplate.execute("create sequence if not exists " + sequenceName
+                    + " start with " + start + " increment by " + allocationSize);
+            jdbcTemplate.execute("alter sequence " + sequenceName
+                    + " restart with " + start + " increment by " + allocationSize);
+            log.info("id sequence synced. sequence={}, start={}, allocationSize={}", sequenceName, start, allocationSize);
+        }
+    }
+}
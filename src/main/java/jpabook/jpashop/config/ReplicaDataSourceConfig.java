@@ -0,0 +1,153 @@
+package jpabook.jpashop.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jpabook.jpashop.datasource.ReplicaCacheModeGuard;
+import jpabook.jpashop.datasource.ReplicaLagMonitor;
+import jpabook.jpashop.datasource.ReplicaLagProbe;
+import jpabook.jpashop.datasource.ReplicaLoadBalancer;
+import jpabook.jpashop.datasource.ReplicaRoutingDataSource;
+import jpabook.jpashop.datasource.ReplicaTarget;
+import jpabook.jpashop.monitor.EndpointMetricsTrackerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ReplicaDataSourceConfig
+ * <pre>
+ * 읽기 전용 트랜잭션 -> 복제 DB 라우팅 (jpashop.datasource.replica.enabled=true 일 때만)
+ * - DataSource = LazyConnectionDataSourceProxy(ReplicaRoutingDataSource(primary, 복제 DB ...))
+ *   ㄴ primary : spring.datasource.* , 복제 DB : jpashop.datasource.replica.urls (계정이 없으면 primary 와 같음)
+ *   ㄴ 복제 DB 커넥션은 readOnly
+ *   ㄴ 풀은 직접 생성하고 spring.datasource.hikari.* 를 바인딩 (primary / 복제 DB 공통)
+ *      복제 DB 는 그 뒤에 url / 계정 / readOnly / 풀 크기(jpashop.datasource.replica.maximum-pool-size)를 덮어씀
+ * - 복제 DB 로 라우팅된 세션은 2차 캐시에 쓰지 않음 (ReplicaCacheModeGuard)
+ * - 커넥션 풀은 대상별 HikariCP (pool 이름 = primary / replica-0, replica-1 ...) -> hikaricp.* / jpashop.datasource.* 메트릭 pool 태그
+ * - hibernate 커넥션은 트랜잭션이 끝나면 반납 (DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION)
+ *   ㄴ OSIV 로 요청 끝까지 커넥션을 잡고 있으면 읽기 전용 트랜잭션에서 얻은 복제 DB 커넥션으로 다음 쓰기 트랜잭션이 실행됨
+ * - 부하 분산 (ReplicaLoadBalancer), 복제 지연 확인 (ReplicaLagProbe) 은 빈을 등록해서 바꿀 수 있음
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Configuration
+@ConditionalOnProperty(name = "jpashop.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties,
+                                                             Environment environment,
+                                                             ReplicaLoadBalancer replicaLoadBalancer,
+                                                             @Value("${jpashop.datasource.replica.urls}") List<String> urls,
+                                                             @Value("${jpashop.datasource.replica.username:}") String username,
+                                                             @Value("${jpashop.datasource.replica.password:}") String password,
+                                                             @Value("${jpashop.datasource.replica.maximum-pool-size:10}") int maximumPoolSize) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        bindHikariProperties(binder, primary);
+        primary.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+
+        List<ReplicaTarget> replicas = new ArrayList<>();
+        for (String url : urls) {
+            String name = "replica-" + replicas.size();
+            HikariDataSource replica = new HikariDataSource();
+            bindHikariProperties(binder, replica);
+            replica.setPoolName(name);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(StringUtils.hasText(username) ? username : properties.determineUsername());
+            replica.setPassword(StringUtils.hasText(username) ? password : properties.determinePassword());
+            replica.setMaximumPoolSize(maximumPoolSize);
+            replica.setReadOnly(true);
+            replicas.add(new ReplicaTarget(name, replica));
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, replicaLoadBalancer);
+    }
+
+    /**
+     * spring.datasource.hikari.* (풀 크기, 타임아웃 등) - 자동 설정 DataSource 와 같은 속성
+     */
+    private static void bindHikariProperties(Binder binder, HikariDataSource dataSource) {
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+    }
+
+    /**
+     * 직접 생성한 풀(primary / 복제 DB)에 API 별 커넥션 풀 메트릭 설정
+     * - DataSource 생성 중(LazyConnectionDataSourceProxy 가 커넥션을 얻어 풀 시작)에는 MeterRegistry 를 조회하지 않음
+     */
+    @Bean
+    public MeterBinder replicaPoolMetrics(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return registry -> {
+            EndpointMetricsTrackerFactory.bindTo((HikariDataSource) replicaRoutingDataSource.getPrimary(), registry);
+            for (ReplicaTarget replica : replicaRoutingDataSource.getReplicas()) {
+                EndpointMetricsTrackerFactory.bindTo((HikariDataSource) replica.getDataSource(), registry);
+            }
+        };
+    }
+
+    /**
+     * EntityManagerFactory 가 ReplicaRoutingDataSource 를 사용하므로 별도 빈에서 연결
+     */
+    @Bean
+    public ReplicaCacheModeGuard replicaCacheModeGuard(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                                       EntityManagerFactory entityManagerFactory) {
+        ReplicaCacheModeGuard guard = new ReplicaCacheModeGuard(entityManagerFactory);
+        replicaRoutingDataSource.setReplicaReadListener(guard);
+        return guard;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReplicaLoadBalancer replicaLoadBalancer(@Value("${jpashop.datasource.replica.load-balancer:round-robin}") String loadBalancer) {
+        return ReplicaLoadBalancer.of(loadBalancer);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReplicaLagProbe replicaLagProbe(@Value("${jpashop.datasource.replica.lag-query:}") String lagQuery) {
+        return ReplicaLagProbe.query(lagQuery);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                               ReplicaLagProbe replicaLagProbe,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${jpashop.datasource.replica.max-lag-ms:1000}") long maxLagMillis,
+                                               @Value("${jpashop.datasource.replica.check-interval-ms:1000}") long checkIntervalMs) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource, replicaLagProbe, maxLagMillis, checkIntervalMs, meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandlingCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -1,13 +1,20 @@
 package jpabook.jpashop.config;
 
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
 import springfox.documentation.builders.ApiInfoBuilder;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.service.ApiInfo;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.spring.web.plugins.WebMvcRequestHandlerProvider;
+
+import java.lang.reflect.Field;
+import java.util.List;
 
 @Configuration
 
@@ -24,6 +31,30 @@ public class SwaggerConfig {
 				.apiInfo(apiInfo());
 	}
 
+	/**
+	 * actuator 엔드포인트 매핑(PathPatternParser 사용)은 springfox 문서 대상에서 제외
+	 * - springfox 3.0 은 ant_path_matcher 매핑만 처리하고 PathPatternParser 매핑에서 NPE 발생
+	 */
+	@Bean
+	public static BeanPostProcessor springfoxHandlerMappingsPostProcessor() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof WebMvcRequestHandlerProvider) {
+					handlerMappings(bean).removeIf(mapping -> mapping.getPatternParser() != null);
+				}
+				return bean;
+			}
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<RequestMappingInfoHandlerMapping> handlerMappings(Object bean) {
+		Field field = ReflectionUtils.findField(bean.getClass(), "handlerMappings");
+		ReflectionUtils.makeAccessible(field);
+		return (List<RequestMappingInfoHandlerMapping>) ReflectionUtils.getField(field, bean);
+	}
+
 	private ApiInfo apiInfo() {
 		return new ApiInfoBuilder()
 				.title("JPA Study project")
@@ -0,0 +1,29 @@
+package jpabook.jpashop.config;
+
+import jpabook.jpashop.service.DataVersionTracker;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * VersionedETag
+ * <pre>
+ * GET 핸들러 응답에 DataVersionTracker 버전 기반 ETag 적용
+ * - value : 응답 내용이 의존하는 데이터 (하나라도 바뀌면 ETag 변경)
+ * - If-None-Match 가 일치하면 핸들러 실행 전에 304 응답 (DB 조회, JSON 직렬화 없음)
+ * - 복제 DB 라우팅 사용 시 핸들러의 읽기 전용 트랜잭션도 primary 에서 조회 (VersionedETagInterceptor)
+ * - 요청 파라미터에 따라 결과가 달라지는 핸들러에는 사용하면 안 됨 (ETag 에 파라미터가 포함되지 않음)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface VersionedETag {
+
+    DataVersionTracker.Resource[] value();
+}
@@ -0,0 +1,87 @@
+package jpabook.jpashop.config;
+
+import jpabook.jpashop.datasource.ReplicaRoutingDataSource;
+import jpabook.jpashop.service.DataVersionTracker;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * VersionedETagInterceptor
+ * <pre>
+ * @VersionedETag 핸들러의 조건부 GET 처리
+ * - 조회 전에 현재 버전으로 ETag 계산 -> 조회 중에 데이터가 바뀌면 다음 요청에서 ETag 가 달라지므로 다시 조회
+ * - If-None-Match 일치 : 304 + ETag, 핸들러 실행 안 함
+ * - 불일치 : ETag 헤더만 추가하고 핸들러 실행
+ * - Cache-Control: no-cache -> 클라이언트는 매번 ETag 로 재검증
+ * - 같은 데이터라도 인코딩(JSON / Smile / CBOR)마다 본문이 다르므로 ETag 에 표현 구분을 붙이고 Vary: Accept
+ * - 복제 DB 라우팅 사용 시 핸들러 조회는 primary 로 (ReplicaRoutingDataSource.setPrimaryOnly)
+ *   ㄴ 버전은 primary 커밋 기준 -> 복제 DB 에서 읽으면 복제 지연으로 이전 데이터가 새 ETag 로 캐시될 수 있음
+ *   ㄴ 요청 스레드에만 적용, 완료 / 비동기 처리 시작 시 해제
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Component
+public class VersionedETagInterceptor implements AsyncHandlerInterceptor {
+
+    private final DataVersionTracker dataVersionTracker;
+    private final boolean replicaRouting;
+
+    public VersionedETagInterceptor(DataVersionTracker dataVersionTracker,
+                                    ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource) {
+        this.dataVersionTracker = dataVersionTracker;
+        this.replicaRouting = replicaRoutingDataSource.getIfAvailable() != null;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        VersionedETag versionedETag = ((HandlerMethod) handler).getMethodAnnotation(VersionedETag.class);
+        if (versionedETag == null) {
+            return true;
+        }
+
+        String etag = withRepresentation(dataVersionTracker.etag(versionedETag.value()),
+                CompactEncodingConfig.representation(request));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        // GET / HEAD 만 304 처리, 일치하지 않아도 ETag 헤더는 설정됨
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return false;
+        }
+        if (replicaRouting) {
+            ReplicaRoutingDataSource.setPrimaryOnly(true);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReplicaRoutingDataSource.setPrimaryOnly(false);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReplicaRoutingDataSource.setPrimaryOnly(false);
+    }
+
+    /**
+     * 예) "kx3f9a-orders.12" + smile -> "kx3f9a-orders.12-smile"
+     */
+    private static String withRepresentation(String etag, String representation) {
+        if (representation == null) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + '-' + representation + '"';
+    }
+}
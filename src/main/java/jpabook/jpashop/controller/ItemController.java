@@ -1,7 +1,9 @@
 package jpabook.jpashop.controller;
 
+import jpabook.jpashop.config.VersionedETag;
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.service.DataVersionTracker;
 import jpabook.jpashop.service.ItemService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
@@ -48,6 +50,7 @@ public class ItemController {
     }
 
     @GetMapping
+    @VersionedETag(DataVersionTracker.Resource.ITEMS)
     public String list(Model model) {
         List<Item> items = itemService.findItems();
         model.addAttribute("items", items);
@@ -0,0 +1,55 @@
+package jpabook.jpashop.datasource;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * ReplicaCacheModeGuard
+ * <pre>
+ * 복제 DB 로 라우팅된 트랜잭션의 hibernate 세션은 2차 캐시 / 쿼리 캐시를 읽기만 함 (CacheMode.GET)
+ * - 복제 지연 중에 읽은 이전 row 가 캐시에 들어가면 다음 쓰기 트랜잭션의 em.find 가 그 값을 사용함
+ *   ㄴ 예) 재고 UPDATE 후 evict -> 복제 DB 조회가 이전 재고 / 가격을 다시 캐시 -> 주문이 이전 값으로 처리
+ * - ReplicaRoutingDataSource 가 복제 DB 커넥션을 얻을 때 호출 (replicaReadListener)
+ *   ㄴ 현재 트랜잭션의 EntityManager 에 적용, 트랜잭션이 끝나면 이전 CacheMode 로 되돌림 (OSIV 로 세션이 이어지는 경우)
+ * - 캐시 조회는 그대로 -> 캐시에 있는 값은 primary 에서 읽거나 쓴 값
+ * </pre>
+ *
+ * @version 1.0,
+ */
+public class ReplicaCacheModeGuard implements Runnable {
+
+    private final EntityManagerFactory emf;
+
+    public ReplicaCacheModeGuard(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    @Override
+    public void run() {
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(emf);
+        if (holder == null) {
+            return;
+        }
+        Session session = holder.getEntityManager().unwrap(Session.class);
+        CacheMode previous = session.getCacheMode();
+        if (!previous.isPutEnabled()) {
+            return;
+        }
+        session.setCacheMode(CacheMode.GET);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (session.isOpen()) {
+                        session.setCacheMode(previous);
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package jpabook.jpashop.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReplicaLagMonitor
+ * <pre>
+ * 복제 DB 의 복제 지연을 주기적으로 확인해서 라우팅 대상 여부 갱신
+ * - 지연 max-lag-ms 이하 : 사용, 초과 / 확인 실패 : 사용 안 함 (읽기 전용 트랜잭션도 primary 로)
+ *   ㄴ 다음 확인에서 지연이 줄면 다시 사용
+ * - 기동 시 1번 확인 후 check-interval-ms 마다 별도 스레드에서 확인
+ * - 메트릭 (target 태그)
+ *   ㄴ jpashop.datasource.replica.lag : 마지막으로 확인한 지연(ms), 확인 실패 시 -1
+ *   ㄴ jpashop.datasource.replica.available : 사용 가능 1, 아니면 0
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final ReplicaLagProbe lagProbe;
+    private final long maxLagMillis;
+    private final long checkIntervalMs;
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource,
+                             ReplicaLagProbe lagProbe,
+                             long maxLagMillis,
+                             long checkIntervalMs,
+                             MeterRegistry meterRegistry) {
+        this.routingDataSource = routingDataSource;
+        this.lagProbe = lagProbe;
+        this.maxLagMillis = maxLagMillis;
+        this.checkIntervalMs = checkIntervalMs;
+
+        for (ReplicaTarget replica : routingDataSource.getReplicas()) {
+            Gauge.builder("jpashop.datasource.replica.lag", replica, ReplicaTarget::getLagMillis)
+                    .description("last measured replication lag in milliseconds, -1 if the check failed")
+                    .tag("target", replica.getName())
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            Gauge.builder("jpashop.datasource.replica.available", replica, r -> r.isAvailable() ? 1 : 0)
+                    .description("1 if read-only transactions are routed to the replica")
+                    .tag("target", replica.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        check();
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("replica-lag-"));
+        scheduler.scheduleWithFixedDelay(this::check, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 전체 복제 DB 지연 확인 후 사용 여부 갱신
+     */
+    public void check() {
+        for (ReplicaTarget replica : routingDataSource.getReplicas()) {
+            boolean wasAvailable = replica.isAvailable();
+            try {
+                long lag = lagProbe.lagMillis(replica.getDataSource());
+                replica.update(lag, lag <= maxLagMillis);
+                if (wasAvailable != replica.isAvailable()) {
+                    log.warn("replica {} available={}, lag={}ms, max={}ms", replica.getName(), replica.isAvailable(), lag, maxLagMillis);
+                }
+            } catch (Exception e) {
+                replica.update(-1, false);
+                if (wasAvailable) {
+                    log.warn("replica {} 확인 실패, primary 로 조회", replica.getName(), e);
+                }
+            }
+        }
+    }
+}
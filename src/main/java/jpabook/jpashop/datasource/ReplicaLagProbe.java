@@ -0,0 +1,43 @@
+package jpabook.jpashop.datasource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * ReplicaLagProbe
+ * <pre>
+ * 복제 DB 의 복제 지연 확인 (ReplicaLagMonitor 가 주기적으로 호출)
+ * - 예외 : 연결 실패 등 -> 해당 복제 DB 사용 안 함
+ * - 기본 구현 query(lagQuery) : 지연(ms) 1개를 반환하는 SQL (jpashop.datasource.replica.lag-query)
+ *   ㄴ 예) PostgreSQL : select extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000
+ *   ㄴ 예) heartbeat 테이블 : primary 가 주기적으로 갱신하는 시각과 현재 시각의 차이
+ *   ㄴ SQL 이 없으면 연결만 확인 (select 1) 하고 지연 0
+ * - 다른 방식이 필요하면 ReplicaLagProbe 빈을 등록
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@FunctionalInterface
+public interface ReplicaLagProbe {
+
+    /**
+     * @return 복제 지연(ms)
+     */
+    long lagMillis(DataSource replica) throws SQLException;
+
+    static ReplicaLagProbe query(String lagQuery) {
+        if (!StringUtils.hasText(lagQuery)) {
+            return replica -> {
+                new JdbcTemplate(replica).queryForObject("select 1", Integer.class);
+                return 0;
+            };
+        }
+        return replica -> {
+            Number lag = new JdbcTemplate(replica).queryForObject(lagQuery, Number.class);
+            return lag == null ? Long.MAX_VALUE : Math.max(0, lag.longValue());
+        };
+    }
+}
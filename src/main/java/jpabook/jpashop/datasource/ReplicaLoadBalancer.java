@@ -0,0 +1,65 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ReplicaLoadBalancer
+ * <pre>
+ * 읽기 전용 트랜잭션을 보낼 복제 DB 선택
+ * - candidates : 사용 가능한(복제 지연 max-lag-ms 이하) 복제 DB, 1개 이상
+ * - 기본 구현 (jpashop.datasource.replica.load-balancer)
+ *   ㄴ round-robin : 순서대로
+ *   ㄴ random : 무작위
+ *   ㄴ least-active : 사용 중인 커넥션이 가장 적은 복제 DB (HikariDataSource 만 집계, 그 외는 0)
+ * - 다른 방식이 필요하면 ReplicaLoadBalancer 빈을 등록
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@FunctionalInterface
+public interface ReplicaLoadBalancer {
+
+    ReplicaTarget choose(List<ReplicaTarget> candidates);
+
+    static ReplicaLoadBalancer of(String name) {
+        switch (name) {
+            case "round-robin":
+                return roundRobin();
+            case "random":
+                return random();
+            case "least-active":
+                return leastActive();
+            default:
+                throw new IllegalArgumentException("지원하지 않는 load-balancer 입니다. " + name);
+        }
+    }
+
+    static ReplicaLoadBalancer roundRobin() {
+        AtomicInteger next = new AtomicInteger();
+        return candidates -> candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    static ReplicaLoadBalancer random() {
+        return candidates -> candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+    }
+
+    static ReplicaLoadBalancer leastActive() {
+        return candidates -> candidates.stream()
+                .min(Comparator.comparingInt(ReplicaLoadBalancer::activeConnections))
+                .orElseThrow();
+    }
+
+    private static int activeConnections(ReplicaTarget target) {
+        if (target.getDataSource() instanceof HikariDataSource) {
+            HikariPoolMXBean pool = ((HikariDataSource) target.getDataSource()).getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+        return 0;
+    }
+}
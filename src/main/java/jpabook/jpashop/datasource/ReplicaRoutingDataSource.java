@@ -0,0 +1,163 @@
+package jpabook.jpashop.datasource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ReplicaRoutingDataSource
+ * <pre>
+ * 읽기 전용 트랜잭션(@Transactional(readOnly = true))은 복제 DB, 그 외는 primary 로 커넥션 라우팅
+ * - 커넥션을 얻는 시점의 트랜잭션 readOnly 여부로 판단
+ *   ㄴ 트랜잭션 시작 시점에는 아직 readOnly 가 설정되지 않으므로 LazyConnectionDataSourceProxy 로 감싸서 사용
+ *      (첫 SQL 실행 때 실제 커넥션을 얻음)
+ *   ㄴ 쓰기 트랜잭션 안에서 호출된 readOnly 메서드는 바깥 트랜잭션의 커넥션(primary)을 그대로 사용
+ *   ㄴ 트랜잭션 밖 조회(OSIV 지연 로딩 등)는 primary
+ * - setPrimaryOnly(true) 인 스레드는 읽기 전용 트랜잭션도 primary (@VersionedETag 핸들러, VersionedETagInterceptor)
+ *   ㄴ ETag 버전은 primary 커밋 기준이므로 복제 지연으로 이전 데이터가 새 ETag 로 캐시되지 않게 함
+ * - 복제 DB 선택은 ReplicaLoadBalancer, 사용 가능한 복제 DB 가 없으면(복제 지연 / 장애) primary 로 조회
+ * - 복제 DB 커넥션을 얻으면 replicaReadListener 호출 (ReplicaCacheModeGuard : 복제 DB 에서 읽은 데이터를 2차 캐시에 넣지 않음)
+ * - 메트릭 (MeterBinder -> registry 가 생성될 때 등록, DataSource 생성 시점에는 registry 를 조회하지 않음)
+ *   ㄴ jpashop.datasource.route (target 태그) : 대상별로 커넥션을 얻은 횟수
+ *   ㄴ jpashop.datasource.replica.fallback : 읽기 전용인데 복제 DB 가 없어서 primary 로 보낸 횟수
+ * </pre>
+ *
+ * @version 1.0,
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder, Closeable {
+
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<ReplicaTarget> replicas;
+    private final ReplicaLoadBalancer loadBalancer;
+    private final Map<String, AtomicLong> routeCounts = new HashMap<>();
+    private final AtomicLong fallbackCount = new AtomicLong();
+    private volatile Runnable replicaReadListener = () -> { };
+
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    List<ReplicaTarget> replicas,
+                                    ReplicaLoadBalancer loadBalancer) {
+        this.primary = primary;
+        this.replicas = Collections.unmodifiableList(new ArrayList<>(replicas));
+        this.loadBalancer = loadBalancer;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        routeCounts.put(PRIMARY, new AtomicLong());
+        for (ReplicaTarget replica : this.replicas) {
+            if (targets.put(replica.getName(), replica.getDataSource()) != null) {
+                throw new IllegalArgumentException("복제 DB 이름이 중복되었습니다. " + replica.getName());
+            }
+            routeCounts.put(replica.getName(), new AtomicLong());
+        }
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        routeCounts.forEach((target, count) -> FunctionCounter.builder("jpashop.datasource.route", count, AtomicLong::doubleValue)
+                .description("connections obtained per routing target")
+                .tag("target", target)
+                .register(registry));
+        FunctionCounter.builder("jpashop.datasource.replica.fallback", fallbackCount, AtomicLong::doubleValue)
+                .description("read-only connections sent to the primary because no replica was available")
+                .register(registry);
+    }
+
+    /**
+     * 현재 스레드의 읽기 전용 트랜잭션도 primary 로 보낼지 설정
+     * - 다른 스레드에서 이어서 조회하면 그 스레드에서 다시 설정해야 함 (StreamingResponseBody 등)
+     * @return 이전 값
+     */
+    public static boolean setPrimaryOnly(boolean primaryOnly) {
+        boolean previous = isPrimaryOnly();
+        if (primaryOnly) {
+            PRIMARY_ONLY.set(Boolean.TRUE);
+        } else {
+            PRIMARY_ONLY.remove();
+        }
+        return previous;
+    }
+
+    public static boolean isPrimaryOnly() {
+        return PRIMARY_ONLY.get() != null;
+    }
+
+    /**
+     * 복제 DB 로 커넥션을 얻을 때마다 (커넥션을 얻는 스레드에서) 호출
+     */
+    public void setReplicaReadListener(Runnable replicaReadListener) {
+        this.replicaReadListener = replicaReadListener;
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<ReplicaTarget> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String target = route();
+        routeCounts.get(target).incrementAndGet();
+        if (!PRIMARY.equals(target)) {
+            replicaReadListener.run();
+        }
+        return target;
+    }
+
+    private String route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || isPrimaryOnly()) {
+            return PRIMARY;
+        }
+        List<ReplicaTarget> candidates = new ArrayList<>(replicas.size());
+        for (ReplicaTarget replica : replicas) {
+            if (replica.isAvailable()) {
+                candidates.add(replica);
+            }
+        }
+        if (candidates.isEmpty()) {
+            fallbackCount.incrementAndGet();
+            return PRIMARY;
+        }
+        return loadBalancer.choose(candidates).getName();
+    }
+
+    /**
+     * primary / 복제 DB 커넥션 풀 종료 (빈 소멸 시)
+     */
+    @Override
+    public void close() throws IOException {
+        close(primary);
+        for (ReplicaTarget replica : replicas) {
+            close(replica.getDataSource());
+        }
+    }
+
+    private static void close(DataSource dataSource) throws IOException {
+        if (dataSource instanceof Closeable) {
+            ((Closeable) dataSource).close();
+        }
+    }
+}
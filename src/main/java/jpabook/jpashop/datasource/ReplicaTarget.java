@@ -0,0 +1,50 @@
+package jpabook.jpashop.datasource;
+
+import javax.sql.DataSource;
+
+/**
+ * ReplicaTarget
+ * <pre>
+ * 읽기 전용 복제 DB 1개 (라우팅 대상)
+ * - 복제 지연 / 사용 가능 여부는 ReplicaLagMonitor 가 주기적으로 갱신
+ * - 첫 확인 전에는 사용 안 함 (primary 로 조회)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+public class ReplicaTarget {
+
+    private final String name;
+    private final DataSource dataSource;
+    private volatile long lagMillis = -1;
+    private volatile boolean available;
+
+    public ReplicaTarget(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * @return 마지막으로 확인한 복제 지연(ms), 확인 실패 시 -1
+     */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    void update(long lagMillis, boolean available) {
+        this.lagMillis = lagMillis;
+        this.available = available;
+    }
+}
@@ -3,6 +3,10 @@ package jpabook.jpashop.domain;
 import jpabook.jpashop.domain.item.Item;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -13,7 +17,11 @@ import static javax.persistence.FetchType.*;
 /**
  * Category
  * <pre>
- * Describe here
+ * 상품 카테고리 (parent / child 인접 리스트 + 경로 구체화)
+ * - path : 루트부터 자신까지의 id 경로, 예) /1/5/12/
+ *   ㄴ 하위 트리 전체 = path like '/1/5/%' -> 인덱스(idx_category_path) 범위 조회 1번, 트리를 단계별로 지연 로딩하지 않음
+ *   ㄴ addChildCategory 에서 자식(하위 트리 포함) path 갱신, id 가 필요하므로 저장 전이면 CategoryRepository.save 에서 갱신
+ *   ㄴ setParent 로 직접 부모를 바꾸면 path 가 갱신되지 않음 -> addChildCategory 사용
  * </pre>
  *
  * @version 1.0,
@@ -21,17 +29,27 @@ import static javax.persistence.FetchType.*;
 
 @Entity
 @Getter @Setter
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category")
+@Table(indexes = @Index(name = "idx_category_path", columnList = "path"))
 public class Category {
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "category_seq")
+    @GenericGenerator(name = "category_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = "sequence_name", value = "category_seq"))
     @Column(name = "category_id")
     private Long id;
 
     private String name;
 
+    private String path;
+
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category.items")
     @JoinTable(name = "category_item",
             joinColumns = @JoinColumn(name = "category_id"),
-            inverseJoinColumns = @JoinColumn(name = "item_id")
+            inverseJoinColumns = @JoinColumn(name = "item_id"),
+            indexes = @Index(name = "idx_category_item_category", columnList = "category_id, item_id")
     )
     private List<Item> items = new ArrayList<>();
 
@@ -40,12 +58,30 @@ public class Category {
     private Category parent;
 
     @OneToMany(mappedBy = "parent")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category.child")
     private List<Category> child = new ArrayList<>();
 
     // == 연관관계 편의 메서드 == //
     public void addChildCategory(Category child) {
         this.child.add(child);
         child.setParent(this);
+        child.updatePath();
+    }
+
+    /**
+     * path 를 부모 path + 자신의 id 로 갱신, 하위 카테고리도 같이 갱신
+     * - 자신의 id 또는 부모 path 가 아직 없으면(저장 전) 갱신하지 않음
+     */
+    public void updatePath() {
+        if (id == null || (parent != null && parent.getPath() == null)) {
+            return;
+        }
+        String newPath = (parent == null ? "/" : parent.getPath()) + id + "/";
+        if (newPath.equals(path)) {
+            return;
+        }
+        path = newPath;
+        child.forEach(Category::updatePath);
     }
 
 }
@@ -3,6 +3,8 @@ package jpabook.jpashop.domain;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 
@@ -20,7 +22,10 @@ import static javax.persistence.FetchType.LAZY;
 @Entity
 @Getter @Setter
 public class Delivery {
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "delivery_seq")
+    @GenericGenerator(name = "delivery_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = "sequence_name", value = "delivery_seq"))
     @Column(name = "delivery_id")
     private Long id;
 
@@ -0,0 +1,38 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * MemberNameVersion
+ * <pre>
+ * 회원 이름 변경 버전 (row 1개) -> 회원 이름 색인(MemberNameIndex)이 DB 와 같은지 확인
+ * - 회원 insert / 이름 update / delete 와 같은 트랜잭션에서 1씩 증가 (MemberNameIndexSynchronizer)
+ *   ㄴ 모든 인스턴스가 같은 row 를 증가시키므로 다른 인스턴스의 변경도 버전으로 알 수 있음
+ *   ㄴ hibernate 를 거치지 않는 회원 변경(JDBC / 벌크)은 이 버전도 직접 증가시켜야 함
+ * - row 는 기동 시 없으면 생성
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Entity
+@Getter
+@Table(name = "member_name_version")
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class MemberNameVersion {
+
+    public static final long ID = 1L;
+
+    @Id
+    @Column(name = "member_name_version_id")
+    private Long id;
+
+    private long version;
+}
@@ -4,6 +4,8 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -23,10 +25,17 @@ import static javax.persistence.FetchType.LAZY;
 
 @Entity
 @Getter @Setter
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_member_id", columnList = "member_id"),           // 회원 id 검색(MemberNameIndex), 회원별 주문
+        @Index(name = "idx_orders_status", columnList = "status, order_id"),        // 상태 검색 + id keyset / 건수
+        @Index(name = "idx_orders_order_date", columnList = "order_date, order_id") // 주문일 keyset 정렬
+})
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Order {
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "order_seq")
+    @GenericGenerator(name = "order_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = "sequence_name", value = "orders_seq"))
     @Column(name = "order_id")
     private Long id;
 
@@ -41,6 +50,7 @@ public class Order {
     @JoinColumn(name = "delivery_id")
     private Delivery delivery;
 
+    @Column(name = "order_date")
     private LocalDateTime orderDate;
 
     @Enumerated(EnumType.STRING)
@@ -80,14 +90,21 @@ public class Order {
      * 주문 취소
      */
     public void cancel() {
+        markCanceled();
+        for (OrderItem orderItem : orderItems) {
+            orderItem.cancel();
+        }
+    }
+
+    /**
+     * 주문 상태만 취소로 변경 (재고 복구는 호출하는 쪽에서 처리)
+     */
+    public void markCanceled() {
         if (delivery.getStatus() == DeliveryStatus.COMP) {
             throw new IllegalStateException("이미 배송완료된 상품을 취소가 불가능합니다.");
         }
 
         this.setStatus(OrderStatus.CANCEL);
-        for (OrderItem orderItem : orderItems) {
-            orderItem.cancel();
-        }
     }
 
     //==조회 로직==//
@@ -0,0 +1,105 @@
+package jpabook.jpashop.domain;
+
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.Query;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * OrderCursor
+ * <pre>
+ * keyset(seek) 페이징용 커서
+ * - orderDate 가 없으면 o.id 순서, 있으면 (o.orderDate, o.id) 순서로 조회
+ * - 클라이언트에는 "orderId|orderDate" 를 Base64 로 인코딩한 불투명(opaque) 문자열로 전달
+ * - keyset 조건 / 정렬 JPQL 과 파라미터 바인딩도 제공 (주문 별칭 o, OrderRepository / OrderQueryRepository 공용)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Getter
+public class OrderCursor {
+    private static final String DELIMITER = "|";
+
+    private final Long orderId;
+    private final LocalDateTime orderDate;
+
+    public OrderCursor(Long orderId, LocalDateTime orderDate) {
+        this.orderId = orderId;
+        this.orderDate = orderDate;
+    }
+
+    /**
+     * 첫 페이지 조회용 (o.id 순서)
+     */
+    public static OrderCursor first() {
+        return new OrderCursor(null, null);
+    }
+
+    public boolean isDateOrdered() {
+        return orderDate != null;
+    }
+
+    /**
+     * 마지막으로 조회한 주문 기준으로 다음 페이지 커서 생성
+     * - 정렬 기준(id / orderDate)은 현재 커서를 그대로 유지
+     */
+    public OrderCursor next(Order last) {
+        return next(last.getId(), last.getOrderDate());
+    }
+
+    public OrderCursor next(Long lastOrderId, LocalDateTime lastOrderDate) {
+        return new OrderCursor(lastOrderId, isDateOrdered() ? lastOrderDate : null);
+    }
+
+    /**
+     * keyset 조건 JPQL
+     * - orderDate 정렬이면 (o.orderDate, o.id) > (:cursorOrderDate, :cursorOrderId), 아니면 o.id > :cursorOrderId
+     * @return 조건이 없으면 null (첫 페이지)
+     */
+    public String keysetCondition() {
+        if (isDateOrdered()) {
+            return orderId == null
+                    ? "o.orderDate > :cursorOrderDate"
+                    : "(o.orderDate > :cursorOrderDate or (o.orderDate = :cursorOrderDate and o.id > :cursorOrderId))";
+        }
+        return orderId == null ? null : "o.id > :cursorOrderId";
+    }
+
+    public String keysetOrderBy() {
+        return isDateOrdered() ? " order by o.orderDate, o.id" : " order by o.id";
+    }
+
+    /**
+     * keysetCondition() 의 파라미터 바인딩
+     */
+    public void bindKeyset(Query query) {
+        if (isDateOrdered()) {
+            query.setParameter("cursorOrderDate", orderDate);
+        }
+        if (orderId != null) {
+            query.setParameter("cursorOrderId", orderId);
+        }
+    }
+
+    public String encode() {
+        String raw = orderId + DELIMITER + (orderDate == null ? "" : orderDate.toString());
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int idx = raw.indexOf(DELIMITER);
+            Long orderId = Long.valueOf(raw.substring(0, idx));
+            String date = raw.substring(idx + 1);
+            return new OrderCursor(orderId, StringUtils.hasText(date) ? LocalDateTime.parse(date) : null);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("잘못된 커서 값입니다. cursor=" + cursor, e);
+        }
+    }
+}
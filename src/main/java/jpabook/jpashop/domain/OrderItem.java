@@ -6,6 +6,8 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 
@@ -21,9 +23,15 @@ import static javax.persistence.FetchType.*;
  */
 @Entity
 @Getter @Setter
+@Table(name = "order_item", indexes = {
+        @Index(name = "idx_order_item_order_id", columnList = "order_id")  // 주문 id in 절로 주문상품 조회
+})
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class OrderItem {
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "order_item_seq")
+    @GenericGenerator(name = "order_item_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = "sequence_name", value = "order_item_seq"))
     @Column(name = "order_item_id")
     private Long id;
 
@@ -50,6 +58,17 @@ public class OrderItem {
         return orderItem;
     }
 
+    /**
+     * 재고가 이미 차감(예약)된 주문상품 생성
+     */
+    public static OrderItem createReservedOrderItem(Item item, int orderPrice, int count) {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setItem(item);
+        orderItem.setOrderPrice(orderPrice);
+        orderItem.setCount(count);
+        return orderItem;
+    }
+
     //== 비즈니스 로직 ==//
     public void cancel() {
         getItem().addStock(count);
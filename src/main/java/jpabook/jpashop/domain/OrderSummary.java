@@ -0,0 +1,68 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * OrderSummary
+ * <pre>
+ * 주문 목록 조회용 비정규화 테이블 (주문 1건 = 1 row)
+ * - orders / member / delivery / order_item / item 조인 없이 목록 조회
+ * - OrderService 주문 / 취소 시 같은 트랜잭션에서 갱신, OrderSummaryService.rebuild 로 전체 재생성
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Entity
+@Getter
+@Table(name = "order_summary", indexes = {
+        @Index(name = "idx_order_summary_status", columnList = "status, order_id")
+})
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderSummary {
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    private Long memberId;
+    private String memberName;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    private LocalDateTime orderDate;
+
+    @Embedded
+    private Address address;
+
+    private int itemCount;      // 주문상품 종류 수
+    private int totalPrice;     // 주문 전체 가격
+    private String firstItemName;   // 대표 상품명
+
+    //==생성 메서드==//
+    public static OrderSummary createOrderSummary(Order order) {
+        OrderSummary summary = new OrderSummary();
+        summary.orderId = order.getId();
+        summary.memberId = order.getMember().getId();
+        summary.memberName = order.getMember().getName();
+        summary.status = order.getStatus();
+        summary.orderDate = order.getOrderDate();
+        summary.address = order.getDelivery().getAddress();
+        summary.itemCount = order.getOrderItems().size();
+        summary.totalPrice = order.getTotalPrice();
+        summary.firstItemName = order.getOrderItems().isEmpty()
+                ? null
+                : order.getOrderItems().get(0).getItem().getName();
+        return summary;
+    }
+
+    //==비즈니스 로직==//
+    public void changeStatus(OrderStatus status) {
+        this.status = status;
+    }
+}
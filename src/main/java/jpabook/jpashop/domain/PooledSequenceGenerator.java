@@ -0,0 +1,53 @@
+package jpabook.jpashop.domain;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * PooledSequenceGenerator
+ * <pre>
+ * 엔티티별 시퀀스 + pooled-lo 최적화
+ * - 시퀀스를 1번 호출하면 allocation size 만큼 id 를 메모리에서 발급 -> insert 마다 시퀀스 조회 X, JDBC batch 효과 증가
+ * - allocation size 는 설정으로 변경 (시퀀스별 > 전체 > 기본값 50)
+ *   ㄴ spring.jpa.properties.jpashop.id.allocation_size.{sequence_name}
+ *   ㄴ spring.jpa.properties.jpashop.id.allocation_size
+ * - DB 시퀀스의 increment 는 allocation size 와 같아야 함 (기존 DB 는 IdSequenceMigrator 로 맞춤)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String STRATEGY = "jpabook.jpashop.domain.PooledSequenceGenerator";
+    public static final String ALLOCATION_SIZE = "jpashop.id.allocation_size";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        Map<?, ?> settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+        String sequenceName = params.getProperty(SEQUENCE_PARAM);
+
+        params.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize(settings, sequenceName)));
+        params.setProperty(OPT_PARAM, "pooled-lo");
+        super.configure(type, params, serviceRegistry);
+    }
+
+    /**
+     * @param settings hibernate 설정
+     * @param sequenceName 시퀀스 이름
+     * @return 시퀀스별 설정 > 전체 설정 > 기본값
+     */
+    public static int allocationSize(Map<?, ?> settings, String sequenceName) {
+        Object value = settings.get(ALLOCATION_SIZE + "." + sequenceName);
+        if (value == null) {
+            value = settings.get(ALLOCATION_SIZE);
+        }
+        return value == null ? DEFAULT_ALLOCATION_SIZE : Integer.parseInt(value.toString().trim());
+    }
+}
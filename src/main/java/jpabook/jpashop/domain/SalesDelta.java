@@ -0,0 +1,65 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * SalesDelta
+ * <pre>
+ * 매출 집계(sales_rollup) 변경분 (주문상품 1건 = 1 row)
+ * - 주문 / 취소 시 같은 트랜잭션에서 insert 만 함 -> 집계 row 를 주문 트랜잭션에서 update 하지 않으므로 같은 날 주문끼리 락 경합 없음
+ *   ㄴ 취소 : 원래 주문일의 ORDER 에서 빼고 (음수) CANCEL 에 더함 (양수)
+ * - SalesRollupService 가 주기적으로 선점(fold_id) -> sales_rollup 에 합산 -> 삭제 (한 트랜잭션)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Entity
+@Getter
+@Table(name = "sales_delta", indexes = @Index(name = "idx_sales_delta_fold", columnList = "fold_id"))
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class SalesDelta {
+    @Id
+    @GeneratedValue(generator = "sales_delta_seq")
+    @GenericGenerator(name = "sales_delta_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = "sequence_name", value = "sales_delta_seq"))
+    @Column(name = "sales_delta_id")
+    private Long id;
+
+    @Column(name = "fold_id")
+    private Long foldId;
+
+    private LocalDate salesDate;    // 주문일
+    private LocalDate salesMonth;   // 주문월 1일
+
+    private Long itemId;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    private long revenue;       // 주문가격 * 수량
+    private int units;          // 수량
+    private int itemOrders;     // 상품별 주문 건수 증감
+    private int orders;         // 전체 주문 건수 증감 (주문의 첫 번째 주문상품에만 기록)
+
+    //==생성 메서드==//
+    public static SalesDelta createSalesDelta(Order order, OrderItem orderItem, OrderStatus status, int sign) {
+        SalesDelta delta = new SalesDelta();
+        delta.salesDate = order.getOrderDate().toLocalDate();
+        delta.salesMonth = delta.salesDate.withDayOfMonth(1);
+        delta.itemId = orderItem.getItem().getId();
+        delta.status = status;
+        delta.revenue = sign * (long) orderItem.getTotalPrice();
+        delta.units = sign * orderItem.getCount();
+        delta.itemOrders = sign;
+        delta.orders = order.getOrderItems().get(0) == orderItem ? sign : 0;
+        return delta;
+    }
+}
@@ -0,0 +1,69 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * SalesRollup
+ * <pre>
+ * 매출 집계 테이블 : (단위, 상품, 기간 시작일, 주문상태) 별 매출 / 수량 / 주문 건수
+ * - grain DAY : 일별, MONTH : 월별 (periodStart = 1일)
+ * - itemId = 0 : 전체 상품 합계 (orderCount 는 주문 건수), 그 외 : 상품별 (orderCount 는 그 상품의 주문상품 수)
+ * - 1년 조회 시 읽는 row : 일별 전체 합계 365 x 상태 수, 상품별은 월별 row + 앞뒤 남는 일별 row
+ * - SalesRollupService 가 SalesDelta 를 합산해서 갱신, rebuild 로 원본 테이블에서 전체 재생성
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Entity
+@Getter
+@IdClass(SalesRollup.Key.class)
+@Table(name = "sales_rollup", indexes = @Index(name = "idx_sales_rollup_period", columnList = "grain, period_start"))
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class SalesRollup {
+
+    public static final long ALL_ITEMS = 0L;
+
+    public enum Grain {
+        DAY, MONTH
+    }
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 5)
+    private Grain grain;
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Id
+    @Column(name = "period_start")
+    private LocalDate periodStart;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private OrderStatus status;
+
+    private long revenue;
+    private long units;
+    private long orderCount;
+
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private Grain grain;
+        private Long itemId;
+        private LocalDate periodStart;
+        private OrderStatus status;
+    }
+}
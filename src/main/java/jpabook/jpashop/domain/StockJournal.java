@@ -0,0 +1,57 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * StockJournal
+ * <pre>
+ * 메모리 재고(StockLedger) 변경 기록 (write-behind 저널)
+ * - 재고 차감 / 복구 시 주문과 같은 트랜잭션에서 insert -> 주문이 커밋되면 재고 변경도 DB 에 남음
+ * - 주기적으로 상품별로 합산해서 item.stock_quantity 에 반영 후 삭제 (flushId 로 대상 row 선점)
+ * - 서버가 죽어도 남아 있는 row 를 다음 기동 시 반영 -> 재고 유실 없음
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Entity
+@Getter
+@Table(name = "stock_journal", indexes = {
+        @Index(name = "idx_stock_journal_flush", columnList = "flush_id, item_id"),
+        @Index(name = "idx_stock_journal_item", columnList = "item_id")
+})
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class StockJournal {
+    @Id
+    @GeneratedValue(generator = "stock_journal_seq")
+    @GenericGenerator(name = "stock_journal_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = "sequence_name", value = "stock_journal_seq"))
+    @Column(name = "stock_journal_id")
+    private Long id;
+
+    @Column(name = "item_id")
+    private Long itemId;
+
+    private int delta;  // 차감은 음수, 복구는 양수
+
+    @Column(name = "flush_id")
+    private Long flushId;
+
+    private LocalDateTime createdAt;
+
+    //==생성 메서드==//
+    public static StockJournal createStockJournal(Long itemId, int delta) {
+        StockJournal journal = new StockJournal();
+        journal.itemId = itemId;
+        journal.delta = delta;
+        journal.createdAt = LocalDateTime.now();
+        return journal;
+    }
+}
@@ -0,0 +1,128 @@
+package jpabook.jpashop.monitor;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EndpointMetricsTrackerFactory
+ * <pre>
+ * HikariCP 커넥션 풀 메트릭에 API(handler) 태그 추가
+ * - 기본 hikaricp.* 메트릭(MicrometerMetricsTrackerFactory)은 그대로 기록
+ * - 커넥션을 얻는 / 반납하는 스레드에서 호출되므로 RequestEndpoint 로 요청 API 를 알 수 있음
+ *   ㄴ jpashop.datasource.acquire (pool, handler) : 커넥션을 얻을 때까지 기다린 시간
+ *   ㄴ jpashop.datasource.usage (pool, handler) : 커넥션을 얻어서 반납할 때까지 사용한 시간
+ *   ㄴ jpashop.datasource.timeout (pool, handler) : connection-timeout 안에 커넥션을 얻지 못한 횟수
+ * - histogram 은 management.metrics.distribution.percentiles-histogram 으로 설정
+ * - 메트릭은 pool + handler 별로 보관 (커넥션을 얻을 때마다 registry 에서 찾지 않음)
+ * - 풀에는 MeterRegistry 가 생성될 때(MeterBinder) bindTo 로 설정
+ *   ㄴ registry 생성 중 DataSource 메트릭 바인딩이 DataSource 빈을 조회하므로 DataSource 생성 중에는 registry 를 조회하면 안 됨
+ *   ㄴ 이미 시작된 풀에도 한 번은 설정 가능
+ * </pre>
+ *
+ * @version 1.0,
+ */
+public class EndpointMetricsTrackerFactory implements MetricsTrackerFactory {
+
+    private final MeterRegistry meterRegistry;
+    private final MicrometerMetricsTrackerFactory delegate;
+
+    public EndpointMetricsTrackerFactory(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.delegate = new MicrometerMetricsTrackerFactory(meterRegistry);
+    }
+
+    /**
+     * 풀에 API 별 메트릭 설정 (다른 메트릭이 이미 설정된 풀은 그대로 둠)
+     */
+    public static void bindTo(HikariDataSource dataSource, MeterRegistry meterRegistry) {
+        if (dataSource.getMetricRegistry() == null && dataSource.getMetricsTrackerFactory() == null) {
+            dataSource.setMetricsTrackerFactory(new EndpointMetricsTrackerFactory(meterRegistry));
+        }
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return new EndpointMetricsTracker(poolName, delegate.create(poolName, poolStats));
+    }
+
+    private class EndpointMetricsTracker implements IMetricsTracker {
+
+        private final String poolName;
+        private final IMetricsTracker delegate;
+        private final Map<String, HandlerMeters> meters = new ConcurrentHashMap<>();
+
+        EndpointMetricsTracker(String poolName, IMetricsTracker delegate) {
+            this.poolName = poolName;
+            this.delegate = delegate;
+        }
+
+        private HandlerMeters meters() {
+            return meters.computeIfAbsent(RequestEndpoint.current(), handler -> new HandlerMeters(poolName, handler));
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            delegate.recordConnectionCreatedMillis(connectionCreatedMillis);
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            delegate.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+            meters().acquire.record(elapsedAcquiredNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            delegate.recordConnectionUsageMillis(elapsedBorrowedMillis);
+            meters().usage.record(elapsedBorrowedMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            delegate.recordConnectionTimeout();
+            meters().timeout.increment();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    /**
+     * pool + API 별 메트릭
+     */
+    private class HandlerMeters {
+        private final Timer acquire;
+        private final Timer usage;
+        private final Counter timeout;
+
+        HandlerMeters(String poolName, String handler) {
+            acquire = timer("jpashop.datasource.acquire", "time waited to borrow a connection", poolName, handler);
+            usage = timer("jpashop.datasource.usage", "time a borrowed connection was held", poolName, handler);
+            timeout = Counter.builder("jpashop.datasource.timeout")
+                    .description("connection requests that timed out")
+                    .tag("pool", poolName)
+                    .tag("handler", handler)
+                    .register(meterRegistry);
+        }
+
+        private Timer timer(String name, String description, String poolName, String handler) {
+            return Timer.builder(name)
+                    .description(description)
+                    .tag("pool", poolName)
+                    .tag("handler", handler)
+                    .register(meterRegistry);
+        }
+    }
+}
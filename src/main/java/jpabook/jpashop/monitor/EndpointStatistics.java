@@ -0,0 +1,595 @@
+package jpabook.jpashop.monitor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.metamodel.model.domain.NavigableRole;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.CollectionStatistics;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.NaturalIdCacheStatistics;
+import org.hibernate.stat.NaturalIdStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.spi.StatisticsImplementor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EndpointStatistics
+ * <pre>
+ * hibernate Statistics 에 API(handler) 태그 메트릭 추가 (hibernate.stats.factory)
+ * - 전체 통계(hibernate.* 메트릭)는 delegate 에 그대로 위임 (StatisticsImplementor SPI 만 사용, hibernate 내부 구현을 상속하지 않음)
+ * - 세션을 사용하는 스레드에서 호출되므로 RequestEndpoint 로 요청 API 를 알 수 있음
+ *   ㄴ jpashop.hibernate.entities (handler, event=load / fetch) : 엔티티 로딩 수, fetch = 지연 로딩으로 SQL 실행
+ *   ㄴ jpashop.hibernate.collections (handler, event=load / fetch) : 컬렉션 로딩 수
+ *   ㄴ jpashop.hibernate.query (handler) : JPQL / HQL 실행 시간
+ *   ㄴ jpashop.hibernate.cache (handler, kind=entity / collection / query, result=hit / miss) : 2차 캐시 / 쿼리 캐시 조회
+ * </pre>
+ *
+ * @version 1.0,
+ */
+public class EndpointStatistics implements StatisticsImplementor {
+
+    private final StatisticsImplementor delegate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, EndpointMeters> meters = new ConcurrentHashMap<>();
+
+    public EndpointStatistics(StatisticsImplementor delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    private EndpointMeters meters() {
+        return meters.computeIfAbsent(RequestEndpoint.current(), handler -> new EndpointMeters(meterRegistry, handler));
+    }
+
+    //==세션 이벤트 : delegate 집계 + API 별 메트릭==//
+
+    @Override
+    public void openSession() {
+        delegate.openSession();
+    }
+
+    @Override
+    public void closeSession() {
+        delegate.closeSession();
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    @Override
+    public void connect() {
+        delegate.connect();
+    }
+
+    @Override
+    public void prepareStatement() {
+        delegate.prepareStatement();
+    }
+
+    @Override
+    public void closeStatement() {
+        delegate.closeStatement();
+    }
+
+    @Override
+    public void endTransaction(boolean success) {
+        delegate.endTransaction(success);
+    }
+
+    @Override
+    public void loadEntity(String entityName) {
+        delegate.loadEntity(entityName);
+        meters().entityLoad.increment();
+    }
+
+    @Override
+    public void fetchEntity(String entityName) {
+        delegate.fetchEntity(entityName);
+        meters().entityFetch.increment();
+    }
+
+    @Override
+    public void updateEntity(String entityName) {
+        delegate.updateEntity(entityName);
+    }
+
+    @Override
+    public void insertEntity(String entityName) {
+        delegate.insertEntity(entityName);
+    }
+
+    @Override
+    public void deleteEntity(String entityName) {
+        delegate.deleteEntity(entityName);
+    }
+
+    @Override
+    public void optimisticFailure(String entityName) {
+        delegate.optimisticFailure(entityName);
+    }
+
+    @Override
+    public void loadCollection(String role) {
+        delegate.loadCollection(role);
+        meters().collectionLoad.increment();
+    }
+
+    @Override
+    public void fetchCollection(String role) {
+        delegate.fetchCollection(role);
+        meters().collectionFetch.increment();
+    }
+
+    @Override
+    public void updateCollection(String role) {
+        delegate.updateCollection(role);
+    }
+
+    @Override
+    public void recreateCollection(String role) {
+        delegate.recreateCollection(role);
+    }
+
+    @Override
+    public void removeCollection(String role) {
+        delegate.removeCollection(role);
+    }
+
+    @Override
+    public void entityCachePut(NavigableRole entityName, String regionName) {
+        delegate.entityCachePut(entityName, regionName);
+    }
+
+    @Override
+    public void entityCacheHit(NavigableRole entityName, String regionName) {
+        delegate.entityCacheHit(entityName, regionName);
+        meters().entityCacheHit.increment();
+    }
+
+    @Override
+    public void entityCacheMiss(NavigableRole entityName, String regionName) {
+        delegate.entityCacheMiss(entityName, regionName);
+        meters().entityCacheMiss.increment();
+    }
+
+    @Override
+    public void collectionCachePut(NavigableRole collectionRole, String regionName) {
+        delegate.collectionCachePut(collectionRole, regionName);
+    }
+
+    @Override
+    public void collectionCacheHit(NavigableRole collectionRole, String regionName) {
+        delegate.collectionCacheHit(collectionRole, regionName);
+        meters().collectionCacheHit.increment();
+    }
+
+    @Override
+    public void collectionCacheMiss(NavigableRole collectionRole, String regionName) {
+        delegate.collectionCacheMiss(collectionRole, regionName);
+        meters().collectionCacheMiss.increment();
+    }
+
+    @Override
+    public void naturalIdCachePut(NavigableRole rootEntityName, String regionName) {
+        delegate.naturalIdCachePut(rootEntityName, regionName);
+    }
+
+    @Override
+    public void naturalIdCacheHit(NavigableRole rootEntityName, String regionName) {
+        delegate.naturalIdCacheHit(rootEntityName, regionName);
+    }
+
+    @Override
+    public void naturalIdCacheMiss(NavigableRole rootEntityName, String regionName) {
+        delegate.naturalIdCacheMiss(rootEntityName, regionName);
+    }
+
+    @Override
+    public void naturalIdQueryExecuted(String rootEntityName, long executionTime) {
+        delegate.naturalIdQueryExecuted(rootEntityName, executionTime);
+    }
+
+    @Override
+    public void queryCachePut(String hql, String regionName) {
+        delegate.queryCachePut(hql, regionName);
+    }
+
+    @Override
+    public void queryCacheHit(String hql, String regionName) {
+        delegate.queryCacheHit(hql, regionName);
+        meters().queryCacheHit.increment();
+    }
+
+    @Override
+    public void queryCacheMiss(String hql, String regionName) {
+        delegate.queryCacheMiss(hql, regionName);
+        meters().queryCacheMiss.increment();
+    }
+
+    @Override
+    public void queryExecuted(String hql, int rows, long time) {
+        delegate.queryExecuted(hql, rows, time);
+        meters().query.record(time, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void updateTimestampsCacheHit() {
+        delegate.updateTimestampsCacheHit();
+    }
+
+    @Override
+    public void updateTimestampsCacheMiss() {
+        delegate.updateTimestampsCacheMiss();
+    }
+
+    @Override
+    public void updateTimestampsCachePut() {
+        delegate.updateTimestampsCachePut();
+    }
+
+    @Override
+    public void queryPlanCacheHit(String query) {
+        delegate.queryPlanCacheHit(query);
+    }
+
+    @Override
+    public void queryPlanCacheMiss(String query) {
+        delegate.queryPlanCacheMiss(query);
+    }
+
+    @Override
+    public void queryCompiled(String hql, long microseconds) {
+        delegate.queryCompiled(hql, microseconds);
+    }
+
+    //==조회 : delegate 그대로==//
+
+    @Override
+    public boolean isStatisticsEnabled() {
+        return delegate.isStatisticsEnabled();
+    }
+
+    @Override
+    public void setStatisticsEnabled(boolean b) {
+        delegate.setStatisticsEnabled(b);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public void logSummary() {
+        delegate.logSummary();
+    }
+
+    @Override
+    public EntityStatistics getEntityStatistics(String entityName) {
+        return delegate.getEntityStatistics(entityName);
+    }
+
+    @Override
+    public CollectionStatistics getCollectionStatistics(String role) {
+        return delegate.getCollectionStatistics(role);
+    }
+
+    @Override
+    public NaturalIdStatistics getNaturalIdStatistics(String entityName) {
+        return delegate.getNaturalIdStatistics(entityName);
+    }
+
+    @Override
+    public QueryStatistics getQueryStatistics(String queryString) {
+        return delegate.getQueryStatistics(queryString);
+    }
+
+    @Override
+    public CacheRegionStatistics getDomainDataRegionStatistics(String regionName) {
+        return delegate.getDomainDataRegionStatistics(regionName);
+    }
+
+    @Override
+    public CacheRegionStatistics getQueryRegionStatistics(String regionName) {
+        return delegate.getQueryRegionStatistics(regionName);
+    }
+
+    @Override
+    public CacheRegionStatistics getCacheRegionStatistics(String regionName) {
+        return delegate.getCacheRegionStatistics(regionName);
+    }
+
+    @Override
+    public long getEntityDeleteCount() {
+        return delegate.getEntityDeleteCount();
+    }
+
+    @Override
+    public long getEntityInsertCount() {
+        return delegate.getEntityInsertCount();
+    }
+
+    @Override
+    public long getEntityLoadCount() {
+        return delegate.getEntityLoadCount();
+    }
+
+    @Override
+    public long getEntityFetchCount() {
+        return delegate.getEntityFetchCount();
+    }
+
+    @Override
+    public long getEntityUpdateCount() {
+        return delegate.getEntityUpdateCount();
+    }
+
+    @Override
+    public long getQueryExecutionCount() {
+        return delegate.getQueryExecutionCount();
+    }
+
+    @Override
+    public long getQueryExecutionMaxTime() {
+        return delegate.getQueryExecutionMaxTime();
+    }
+
+    @Override
+    public String getQueryExecutionMaxTimeQueryString() {
+        return delegate.getQueryExecutionMaxTimeQueryString();
+    }
+
+    @Override
+    public long getQueryCacheHitCount() {
+        return delegate.getQueryCacheHitCount();
+    }
+
+    @Override
+    public long getQueryCacheMissCount() {
+        return delegate.getQueryCacheMissCount();
+    }
+
+    @Override
+    public long getQueryCachePutCount() {
+        return delegate.getQueryCachePutCount();
+    }
+
+    @Override
+    public long getNaturalIdQueryExecutionCount() {
+        return delegate.getNaturalIdQueryExecutionCount();
+    }
+
+    @Override
+    public long getNaturalIdQueryExecutionMaxTime() {
+        return delegate.getNaturalIdQueryExecutionMaxTime();
+    }
+
+    @Override
+    public String getNaturalIdQueryExecutionMaxTimeRegion() {
+        return delegate.getNaturalIdQueryExecutionMaxTimeRegion();
+    }
+
+    @Override
+    public String getNaturalIdQueryExecutionMaxTimeEntity() {
+        return delegate.getNaturalIdQueryExecutionMaxTimeEntity();
+    }
+
+    @Override
+    public long getNaturalIdCacheHitCount() {
+        return delegate.getNaturalIdCacheHitCount();
+    }
+
+    @Override
+    public long getNaturalIdCacheMissCount() {
+        return delegate.getNaturalIdCacheMissCount();
+    }
+
+    @Override
+    public long getNaturalIdCachePutCount() {
+        return delegate.getNaturalIdCachePutCount();
+    }
+
+    @Override
+    public long getUpdateTimestampsCacheHitCount() {
+        return delegate.getUpdateTimestampsCacheHitCount();
+    }
+
+    @Override
+    public long getUpdateTimestampsCacheMissCount() {
+        return delegate.getUpdateTimestampsCacheMissCount();
+    }
+
+    @Override
+    public long getUpdateTimestampsCachePutCount() {
+        return delegate.getUpdateTimestampsCachePutCount();
+    }
+
+    @Override
+    public long getFlushCount() {
+        return delegate.getFlushCount();
+    }
+
+    @Override
+    public long getConnectCount() {
+        return delegate.getConnectCount();
+    }
+
+    @Override
+    public long getSecondLevelCacheHitCount() {
+        return delegate.getSecondLevelCacheHitCount();
+    }
+
+    @Override
+    public long getSecondLevelCacheMissCount() {
+        return delegate.getSecondLevelCacheMissCount();
+    }
+
+    @Override
+    public long getSecondLevelCachePutCount() {
+        return delegate.getSecondLevelCachePutCount();
+    }
+
+    @Override
+    public long getSessionCloseCount() {
+        return delegate.getSessionCloseCount();
+    }
+
+    @Override
+    public long getSessionOpenCount() {
+        return delegate.getSessionOpenCount();
+    }
+
+    @Override
+    public long getCollectionLoadCount() {
+        return delegate.getCollectionLoadCount();
+    }
+
+    @Override
+    public long getCollectionFetchCount() {
+        return delegate.getCollectionFetchCount();
+    }
+
+    @Override
+    public long getCollectionUpdateCount() {
+        return delegate.getCollectionUpdateCount();
+    }
+
+    @Override
+    public long getCollectionRemoveCount() {
+        return delegate.getCollectionRemoveCount();
+    }
+
+    @Override
+    public long getCollectionRecreateCount() {
+        return delegate.getCollectionRecreateCount();
+    }
+
+    @Override
+    public long getStartTime() {
+        return delegate.getStartTime();
+    }
+
+    @Override
+    public String[] getQueries() {
+        return delegate.getQueries();
+    }
+
+    @Override
+    public String[] getEntityNames() {
+        return delegate.getEntityNames();
+    }
+
+    @Override
+    public String[] getCollectionRoleNames() {
+        return delegate.getCollectionRoleNames();
+    }
+
+    @Override
+    public String[] getSecondLevelCacheRegionNames() {
+        return delegate.getSecondLevelCacheRegionNames();
+    }
+
+    @Override
+    public long getSuccessfulTransactionCount() {
+        return delegate.getSuccessfulTransactionCount();
+    }
+
+    @Override
+    public long getTransactionCount() {
+        return delegate.getTransactionCount();
+    }
+
+    @Override
+    public long getPrepareStatementCount() {
+        return delegate.getPrepareStatementCount();
+    }
+
+    @Override
+    public long getCloseStatementCount() {
+        return delegate.getCloseStatementCount();
+    }
+
+    @Override
+    public long getOptimisticFailureCount() {
+        return delegate.getOptimisticFailureCount();
+    }
+
+    @Override
+    @Deprecated
+    public SecondLevelCacheStatistics getSecondLevelCacheStatistics(String regionName) {
+        return delegate.getSecondLevelCacheStatistics(regionName);
+    }
+
+    @Override
+    @Deprecated
+    public NaturalIdCacheStatistics getNaturalIdCacheStatistics(String regionName) {
+        return delegate.getNaturalIdCacheStatistics(regionName);
+    }
+
+    @Override
+    public long getQueryPlanCacheHitCount() {
+        return delegate.getQueryPlanCacheHitCount();
+    }
+
+    @Override
+    public long getQueryPlanCacheMissCount() {
+        return delegate.getQueryPlanCacheMissCount();
+    }
+
+    /**
+     * API 별 메트릭 (매번 registry 에서 찾지 않도록 보관)
+     */
+    private static class EndpointMeters {
+        private final Counter entityLoad;
+        private final Counter entityFetch;
+        private final Counter collectionLoad;
+        private final Counter collectionFetch;
+        private final Timer query;
+        private final Counter entityCacheHit;
+        private final Counter entityCacheMiss;
+        private final Counter collectionCacheHit;
+        private final Counter collectionCacheMiss;
+        private final Counter queryCacheHit;
+        private final Counter queryCacheMiss;
+
+        EndpointMeters(MeterRegistry meterRegistry, String handler) {
+            entityLoad = load(meterRegistry, "jpashop.hibernate.entities", handler, "load");
+            entityFetch = load(meterRegistry, "jpashop.hibernate.entities", handler, "fetch");
+            collectionLoad = load(meterRegistry, "jpashop.hibernate.collections", handler, "load");
+            collectionFetch = load(meterRegistry, "jpashop.hibernate.collections", handler, "fetch");
+            query = Timer.builder("jpashop.hibernate.query")
+                    .description("JPQL / HQL execution time")
+                    .tag("handler", handler)
+                    .register(meterRegistry);
+            entityCacheHit = cache(meterRegistry, handler, "entity", "hit");
+            entityCacheMiss = cache(meterRegistry, handler, "entity", "miss");
+            collectionCacheHit = cache(meterRegistry, handler, "collection", "hit");
+            collectionCacheMiss = cache(meterRegistry, handler, "collection", "miss");
+            queryCacheHit = cache(meterRegistry, handler, "query", "hit");
+            queryCacheMiss = cache(meterRegistry, handler, "query", "miss");
+        }
+
+        private static Counter load(MeterRegistry meterRegistry, String name, String handler, String event) {
+            return Counter.builder(name)
+                    .tag("handler", handler)
+                    .tag("event", event)
+                    .register(meterRegistry);
+        }
+
+        private static Counter cache(MeterRegistry meterRegistry, String handler, String kind, String result) {
+            return Counter.builder("jpashop.hibernate.cache")
+                    .description("second-level / query cache lookups")
+                    .tag("handler", handler)
+                    .tag("kind", kind)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package jpabook.jpashop.monitor;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * QueryCountConfig
+ * <pre>
+ * hibernate StatementInspector 등록 (SQL 실행 수 집계)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Configuration
+public class QueryCountConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCountCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCountInspector());
+    }
+}
@@ -0,0 +1,83 @@
+package jpabook.jpashop.monitor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * QueryCountFilter
+ * <pre>
+ * HTTP 요청 단위 SQL 실행 수 집계
+ * - 요청 시작 시 QueryCounter 시작, 종료 시 handler(URI 패턴) 태그로 메트릭 기록
+ *   ㄴ jpashop.query.count : 요청당 SQL 수
+ *   ㄴ jpashop.query.repeated : 바인딩 값만 다른 SQL 이 repeat-threshold 번 이상 실행된 요청 수 (N+1 의심)
+ * - 응답 헤더(X-Query-Count)는 응답이 커밋 되기 전에 써야 하므로 QueryCountResponseAdvice 에서 처리
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Slf4j
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final int repeatThreshold;
+
+    public QueryCountFilter(MeterRegistry meterRegistry,
+                            @Value("${jpashop.query-count.repeat-threshold:3}") int repeatThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    public int getRepeatThreshold() {
+        return repeatThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCounter counter = QueryCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryCounter.clear();
+            record(handler(request), counter);
+        }
+    }
+
+    private void record(String handler, QueryCounter counter) {
+        DistributionSummary.builder("jpashop.query.count")
+                .description("SQL statements per request")
+                .tag("handler", handler)
+                .register(meterRegistry)
+                .record(counter.getCount());
+
+        Map<String, Integer> repeated = counter.getRepeatedStatements(repeatThreshold);
+        if (!repeated.isEmpty()) {
+            Counter.builder("jpashop.query.repeated")
+                    .description("requests that repeated a statement with different bind values")
+                    .tag("handler", handler)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("N+1 의심 handler={}, total={}, repeated={}", handler, counter.getCount(), repeated);
+        }
+    }
+
+    private String handler(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? "UNKNOWN" : pattern.toString();
+    }
+}
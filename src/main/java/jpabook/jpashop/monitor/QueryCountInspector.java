@@ -0,0 +1,24 @@
+package jpabook.jpashop.monitor;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * QueryCountInspector
+ * <pre>
+ * hibernate 가 SQL 을 준비할 때마다 호출 -> 현재 요청의 QueryCounter 에 기록
+ * - SQL 은 변경하지 않고 그대로 반환
+ * </pre>
+ *
+ * @version 1.0,
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryCounter counter = QueryCounter.current();
+        if (counter != null) {
+            counter.record(sql);
+        }
+        return sql;
+    }
+}
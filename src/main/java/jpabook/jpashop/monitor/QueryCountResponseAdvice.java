@@ -0,0 +1,49 @@
+package jpabook.jpashop.monitor;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * QueryCountResponseAdvice
+ * <pre>
+ * API 응답 바디를 쓰기 직전에 지금까지 실행된 SQL 수를 헤더에 추가
+ * - X-Query-Count : SQL 실행 수
+ * - X-Query-Repeated : 바인딩 값만 다르고 반복 실행된 SQL 종류 수 (0 이 아니면 N+1 의심)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@RestControllerAdvice
+@RequiredArgsConstructor
+public class QueryCountResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String QUERY_REPEATED_HEADER = "X-Query-Repeated";
+
+    private final QueryCountFilter queryCountFilter;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        QueryCounter counter = QueryCounter.current();
+        if (counter != null) {
+            response.getHeaders().set(QUERY_COUNT_HEADER, String.valueOf(counter.getCount()));
+            response.getHeaders().set(QUERY_REPEATED_HEADER,
+                    String.valueOf(counter.getRepeatedStatements(queryCountFilter.getRepeatThreshold()).size()));
+        }
+        return body;
+    }
+}
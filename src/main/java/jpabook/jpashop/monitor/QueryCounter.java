@@ -0,0 +1,99 @@
+package jpabook.jpashop.monitor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * QueryCounter
+ * <pre>
+ * 현재 스레드(= HTTP 요청)에서 실행된 SQL 집계
+ * - 바인딩 값만 다른 SQL 은 같은 문장으로 보고 횟수를 합산 -> threshold 이상 반복되면 N+1 의심
+ * - QueryCountInspector 가 SQL 실행 직전에 record 호출
+ * </pre>
+ *
+ * @version 1.0,
+ */
+public class QueryCounter {
+
+    private static final ThreadLocal<QueryCounter> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Map<String, Integer> statements = new LinkedHashMap<>();
+    private final List<String> executed = new ArrayList<>();
+    private int count;
+
+    /**
+     * 현재 스레드 집계 시작 (이전 집계는 버림)
+     */
+    public static QueryCounter start() {
+        QueryCounter counter = new QueryCounter();
+        CURRENT.set(counter);
+        return counter;
+    }
+
+    /**
+     * @return 집계 중이 아니면 null
+     */
+    public static QueryCounter current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    void record(String sql) {
+        count++;
+        executed.add(sql);
+        statements.merge(normalize(sql), 1, Integer::sum);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return 실행된 SQL (정규화, 실행 순서)
+     */
+    public Set<String> getStatements() {
+        return Collections.unmodifiableSet(statements.keySet());
+    }
+
+    /**
+     * @return 실행된 SQL 원문 (hibernate 가 준비한 그대로, ? 바인딩 포함, 실행 순서, 반복 포함)
+     */
+    public List<String> getExecutedStatements() {
+        return Collections.unmodifiableList(executed);
+    }
+
+    /**
+     * @param threshold 반복 횟수 기준
+     * @return 바인딩 값만 다르고 threshold 번 이상 실행된 SQL, 실행 횟수
+     */
+    public Map<String, Integer> getRepeatedStatements(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        statements.forEach((sql, times) -> {
+            if (times >= threshold) {
+                repeated.put(sql, times);
+            }
+        });
+        return Collections.unmodifiableMap(repeated);
+    }
+
+    /**
+     * PreparedStatement 는 이미 ? 로 바인딩 되므로, 리터럴로 들어간 값과 공백 차이만 정리
+     */
+    static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,33 @@
+package jpabook.jpashop.monitor;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * RequestEndpoint
+ * <pre>
+ * 현재 스레드가 처리 중인 API (handler URI 패턴) -> 메트릭 handler 태그
+ * - 요청 스레드 : 예) /api/v5/orders, 핸들러 매핑 전이면 UNKNOWN (QueryCountFilter 와 같은 값)
+ * - 요청 밖 (스케줄러, 비동기 조회 executor 등) : none
+ * </pre>
+ *
+ * @version 1.0,
+ */
+public final class RequestEndpoint {
+
+    public static final String NONE = "none";
+    public static final String UNKNOWN = "UNKNOWN";
+
+    private RequestEndpoint() {
+    }
+
+    public static String current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return NONE;
+        }
+        Object pattern = attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return pattern == null ? UNKNOWN : pattern.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package jpabook.jpashop.monitor;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.internal.StatisticsInitiator;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.Objects;
+
+/**
+ * TimingMetricsConfig
+ * <pre>
+ * 커넥션 대기 / 트랜잭션 / hibernate 통계 메트릭을 API(handler) 태그로 기록
+ * - HikariCP : EndpointMetricsTrackerFactory (HikariDataSource 빈, 복제 DB 풀은 ReplicaDataSourceConfig 에서 설정)
+ * - @Transactional 메서드 : TransactionTimingInterceptor (트랜잭션 advisor 보다 바깥)
+ * - hibernate Statistics : EndpointStatistics (hibernate.stats.factory)
+ * - 한 요청의 시간을 커넥션 대기(jpashop.datasource.acquire) / 트랜잭션(jpashop.transaction) / SQL(jpashop.hibernate.query) 로 나눠서 비교
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Configuration
+public class TimingMetricsConfig {
+
+    /**
+     * MeterRegistry 가 생성될 때 HikariDataSource 빈에 EndpointMetricsTrackerFactory 설정
+     * - 기본 hikaricp 메트릭 바인딩(DataSourcePoolMetricsAutoConfiguration)보다 먼저 실행해야 함
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public MeterBinder hikariEndpointMetrics(ObjectProvider<DataSource> dataSources) {
+        return registry -> dataSources.orderedStream()
+                .map(dataSource -> DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class, HikariDataSource.class))
+                .filter(Objects::nonNull)
+                .forEach(dataSource -> EndpointMetricsTrackerFactory.bindTo(dataSource, registry));
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor transactionTimingAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+        ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(Transactional.class, true))
+                .union(new AnnotationMatchingPointcut(null, Transactional.class, true));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, new TransactionTimingInterceptor(meterRegistry));
+        // 트랜잭션 advisor(LOWEST_PRECEDENCE) 보다 먼저 -> 트랜잭션 시작 / 커밋 시간 포함
+        advisor.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return advisor;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer endpointStatisticsCustomizer(MeterRegistry meterRegistry) {
+        // 기본 통계(hibernate 가 직접 생성하는 구현)를 감싸서 사용
+        StatisticsFactory statisticsFactory = sessionFactory ->
+                new EndpointStatistics(new StatisticsImpl(sessionFactory), meterRegistry);
+        return properties -> properties.put(StatisticsInitiator.STATS_BUILDER, statisticsFactory);
+    }
+}
@@ -0,0 +1,72 @@
+package jpabook.jpashop.monitor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TransactionTimingInterceptor
+ * <pre>
+ * @Transactional 메서드 실행 시간 (트랜잭션 시작 / 커밋 포함, TransactionInterceptor 바깥에서 측정)
+ * - jpashop.transaction 타이머 태그
+ *   ㄴ class, method : 예) OrderService, order
+ *   ㄴ handler : 호출한 API (RequestEndpoint)
+ *   ㄴ readOnly : @Transactional(readOnly)
+ *   ㄴ nested : 이미 진행 중인 트랜잭션 안에서 호출 (바깥 트랜잭션 시간에 포함됨)
+ *   ㄴ exception : 던진 예외 클래스, 정상이면 none
+ * </pre>
+ *
+ * @version 1.0,
+ */
+public class TransactionTimingInterceptor implements MethodInterceptor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final TransactionAttributeSource transactionAttributeSource = new AnnotationTransactionAttributeSource();
+
+    public TransactionTimingInterceptor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        boolean nested = TransactionSynchronizationManager.isActualTransactionActive();
+        long start = System.nanoTime();
+        String exception = "none";
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            record(invocation, nested, exception, System.nanoTime() - start);
+        }
+    }
+
+    private void record(MethodInvocation invocation, boolean nested, String exception, long elapsedNanos) {
+        Class<?> targetClass = invocation.getThis() == null
+                ? invocation.getMethod().getDeclaringClass()
+                : ClassUtils.getUserClass(AopUtils.getTargetClass(invocation.getThis()));
+        TransactionAttribute attribute = transactionAttributeSource.getTransactionAttribute(invocation.getMethod(), targetClass);
+
+        Timer.builder("jpashop.transaction")
+                .description("@Transactional method duration including begin and commit")
+                .tag("class", targetClass.getSimpleName())
+                .tag("method", invocation.getMethod().getName())
+                .tag("handler", RequestEndpoint.current())
+                .tag("readOnly", String.valueOf(attribute != null && attribute.isReadOnly()))
+                .tag("nested", String.valueOf(nested))
+                .tag("exception", exception)
+                .register(meterRegistry.getObject())
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+}
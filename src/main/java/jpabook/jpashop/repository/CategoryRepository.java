@@ -0,0 +1,68 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Item;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * CategoryRepository
+ * <pre>
+ * 카테고리 저장 / 하위 트리 상품 조회
+ * - 하위 트리 조건은 category.path 접두 일치 (idx_category_path 범위 조회) + category_item 인덱스 조인
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Repository
+@RequiredArgsConstructor
+public class CategoryRepository {
+
+    private final EntityManager em;
+
+    /**
+     * 저장 후 id 가 생기면 path 갱신 (저장 전에 addChildCategory 한 경우 포함)
+     */
+    public void save(Category category) {
+        em.persist(category);
+        category.updatePath();
+    }
+
+    public Category findOne(Long id) {
+        return em.find(Category.class, id);
+    }
+
+    /**
+     * 하위 트리(자신 포함) 전체 카테고리의 상품, item_id 순 keyset 페이지
+     * - 여러 카테고리에 속한 상품은 1번만
+     * @param afterItemId 이전 페이지 마지막 상품 id (null 이면 처음부터)
+     */
+    public List<Item> findSubtreeItems(Category category, Long afterItemId, int limit) {
+        return em.createQuery(
+                "select distinct i from Category c" +
+                        " join c.items i" +
+                        " where c.path like :path" +
+                        " and i.id > :afterItemId" +
+                        " order by i.id", Item.class)
+                .setParameter("path", category.getPath() + "%")
+                .setParameter("afterItemId", afterItemId == null ? 0L : afterItemId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 하위 트리(자신 포함) 전체 카테고리의 상품 수 (중복 제외)
+     */
+    public long countSubtreeItems(Category category) {
+        return em.createQuery(
+                "select count(distinct i.id) from Category c" +
+                        " join c.items i" +
+                        " where c.path like :path", Long.class)
+                .setParameter("path", category.getPath() + "%")
+                .getSingleResult();
+    }
+}
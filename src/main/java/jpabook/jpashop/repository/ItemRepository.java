@@ -2,7 +2,11 @@ package jpabook.jpashop.repository;
 
 import jpabook.jpashop.domain.item.Item;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.QueryHints;
+import org.hibernate.query.NativeQuery;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.persistence.EntityManager;
 import java.util.List;
@@ -19,6 +23,8 @@ import java.util.List;
 @Repository
 @RequiredArgsConstructor
 public class ItemRepository {
+    private static final String STOCK_QUERY_SPACE = "item_stock";
+
     private final EntityManager em;
 
     public void save(Item item) {
@@ -33,8 +39,97 @@ public class ItemRepository {
         return em.find(Item.class, id);
     }
 
+    /**
+     * 재고 감소 (조건부 UPDATE 1번, 재고가 부족하면 0 row)
+     * - 읽고 -> 빼고 -> dirty checking 하는 방식과 달리 동시 주문에서도 재고가 음수가 되지 않음
+     * @return 변경된 row 수 (0 이면 재고 부족)
+     */
+    public int decreaseStock(Item item, int quantity) {
+        return updateStock(item,
+                "update item set stock_quantity = stock_quantity - :quantity" +
+                        " where item_id = :itemId and stock_quantity >= :quantity", quantity);
+    }
+
+    /**
+     * 재고 증가 (UPDATE 1번)
+     */
+    public int increaseStock(Item item, int quantity) {
+        return updateStock(item,
+                "update item set stock_quantity = stock_quantity + :quantity" +
+                        " where item_id = :itemId", quantity);
+    }
+
+    /**
+     * 재고 증감 반영 (StockLedger write-behind flush 용, 상품 엔티티를 읽지 않음)
+     */
+    public int applyStockDelta(Long itemId, long delta) {
+        int count = em.createNativeQuery("update item set stock_quantity = stock_quantity + :delta where item_id = :itemId")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(STOCK_QUERY_SPACE)
+                .setParameter("delta", delta)
+                .setParameter("itemId", itemId)
+                .executeUpdate();
+
+        evictAfterCommit(itemId);
+        return count;
+    }
+
+    /**
+     * - 동기화 대상을 지정하지 않으면 native update 시 2차 캐시 전체가 비워지므로,
+     *   item 과 겹치지 않는 query space 를 지정하고 해당 상품만 직접 evict (커밋 후 재 evict)
+     * - 지정한 query space 가 item 과 겹치지 않아 자동 flush 가 안 되므로 직접 flush (아직 insert 안 된 상품 대비)
+     * - 영속성 컨텍스트의 item 은 refresh 해서 DB 값과 맞춤
+     */
+    private int updateStock(Item item, String sql, int quantity) {
+        em.flush();
+        int count = em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(STOCK_QUERY_SPACE)
+                .setParameter("quantity", quantity)
+                .setParameter("itemId", item.getId())
+                .executeUpdate();
+
+        evictAfterCommit(item.getId());
+        if (count > 0 && em.contains(item)) {
+            em.refresh(item);
+        }
+        return count;
+    }
+
+    /**
+     * 상품 2차 캐시 evict
+     * - 트랜잭션 진행 중 evict 하면 커밋 전에 다른 트랜잭션이 이전 재고를 다시 캐시에 올릴 수 있으므로,
+     *   지금 한 번 + 커밋(또는 롤백) 후 한 번 더 evict
+     */
+    private void evictAfterCommit(Long itemId) {
+        em.getEntityManagerFactory().getCache().evict(Item.class, itemId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                em.getEntityManagerFactory().getCache().evict(Item.class, itemId);
+            }
+        });
+    }
+
+    /**
+     * 상품 여러 건 in 쿼리 1번 조회
+     */
+    public List<Item> findAllById(List<Long> ids) {
+        return em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * 상품 목록 (쿼리 캐시 사용, item 테이블이 변경되면 자동 무효화)
+     */
     public List<Item> findAll() {
         return em.createQuery("select i from Item i", Item.class)
+                .setHint(QueryHints.HINT_CACHEABLE, true)
+                .setHint(QueryHints.HINT_CACHE_REGION, "query.items")
                 .getResultList();
     }
 }
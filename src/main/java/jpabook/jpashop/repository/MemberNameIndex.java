@@ -0,0 +1,287 @@
+package jpabook.jpashop.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * MemberNameIndex
+ * <pre>
+ * 회원 이름 n-gram 역색인 (메모리)
+ * - 이름의 1글자 / 2글자 조각(gram) 별로 회원 id 목록(정렬된 long 배열)을 유지
+ * - like 패턴을 회원 id 목록으로 변환 -> 주문 조회는 member.name like '%x%' 대신 member_id in (...) 로 조회
+ *   ㄴ 검색어 gram 들의 id 목록 교집합 -> 실제 이름과 패턴 비교로 후보 확정 (LIKE 와 같은 결과, 대소문자 구분)
+ *   ㄴ 지원 패턴 : 'x' (일치), 'x%' (접두), '%x' (접미), '%x%' (포함)
+ * - 인덱스로 답할 수 없으면 null -> 호출하는 쪽에서 기존 like 조건 사용
+ *   ㄴ 비활성화 / 아직 색인 전 / 지원하지 않는 패턴 / 결과가 max-ids 건 초과(선택도 낮음)
+ * - version : 색인에 반영된 회원 이름 버전 (MemberNameVersion)
+ *   ㄴ DB 버전과 같을 때만 색인 결과(일치 없음 포함)를 사용 -> 확인은 MemberNameIndexSynchronizer.resolveLike
+ * - 색인 / 동기화는 MemberNameIndexSynchronizer 에서 처리 (기동 시 전체 색인, 커밋 후 변경분 반영)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Component
+public class MemberNameIndex {
+
+    private final boolean enabled;
+    private final int maxIds;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> names = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private volatile boolean ready;
+    private volatile long version = -1;
+
+    public MemberNameIndex(@Value("${jpashop.member-name-index.enabled:true}") boolean enabled,
+                           @Value("${jpashop.member-name-index.max-ids:1000}") int maxIds) {
+        this.enabled = enabled;
+        this.maxIds = maxIds;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * @return 색인에 반영된 회원 이름 버전, 색인 전이면 -1
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 전체 색인이 끝난 뒤 호출, 이후부터 조회에 사용
+     * @param version 색인 시작 전에 읽은 회원 이름 버전
+     */
+    public void markReady(long version) {
+        this.version = version;
+        ready = true;
+    }
+
+    /**
+     * 커밋된 변경분(put / remove) 반영 후 버전 갱신
+     * - 색인 버전이 expected 일 때만 (중간 버전을 놓쳤으면 그대로 두고 다시 색인)
+     */
+    public void advance(long expected, long version) {
+        lock.writeLock().lock();
+        try {
+            if (this.version == expected) {
+                this.version = version;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            version = -1;
+            names.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 회원 추가 / 이름 변경
+     */
+    public void put(Long memberId, String name) {
+        lock.writeLock().lock();
+        try {
+            String old = name == null ? names.remove(memberId) : names.put(memberId, name);
+            if (old != null) {
+                for (String gram : grams(old)) {
+                    Postings ids = postings.get(gram);
+                    if (ids != null && ids.remove(memberId) && ids.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+            if (name != null) {
+                for (String gram : grams(name)) {
+                    postings.computeIfAbsent(gram, g -> new Postings()).add(memberId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long memberId) {
+        put(memberId, null);
+    }
+
+    /**
+     * @param pattern like 패턴 ('%' 만 지원)
+     * @return 패턴과 일치하는 회원 id (id 순, 없으면 빈 목록), 인덱스로 답할 수 없으면 null
+     */
+    public List<Long> resolveLike(String pattern) {
+        if (!isReady() || pattern == null || pattern.indexOf('_') >= 0) {
+            return null;
+        }
+
+        boolean anyPrefix = pattern.startsWith("%");
+        boolean anySuffix = pattern.length() > 1 && pattern.endsWith("%");
+        String term = pattern.substring(anyPrefix ? 1 : 0, pattern.length() - (anySuffix ? 1 : 0));
+        if (term.isEmpty() || term.indexOf('%') >= 0) {
+            return null;
+        }
+
+        Predicate<String> matcher;
+        if (anyPrefix && anySuffix) {
+            matcher = name -> name.contains(term);
+        } else if (anyPrefix) {
+            matcher = name -> name.endsWith(term);
+        } else if (anySuffix) {
+            matcher = name -> name.startsWith(term);
+        } else {
+            matcher = name -> name.equals(term);
+        }
+        return find(term, matcher);
+    }
+
+    private List<Long> find(String term, Predicate<String> matcher) {
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>();
+            for (String gram : queryGrams(term)) {
+                Postings ids = postings.get(gram);
+                if (ids == null) {
+                    return new ArrayList<>();
+                }
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(Postings::size));
+
+            // 가장 짧은 목록을 기준으로 나머지 목록에 모두 있는 id 만 이름 확인
+            Postings smallest = lists.get(0);
+            List<Long> result = new ArrayList<>();
+            for (int i = 0; i < smallest.size(); i++) {
+                long id = smallest.get(i);
+                if (containsAll(lists, id) && matcher.test(names.get(id))) {
+                    result.add(id);
+                    if (result.size() > maxIds) {
+                        return null;
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean containsAll(List<Postings> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 색인용 : 1글자 + 2글자 조각
+     */
+    static Set<String> grams(String name) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i < name.length(); i++) {
+            grams.add(name.substring(i, i + 1));
+            if (i + 1 < name.length()) {
+                grams.add(name.substring(i, i + 2));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * 검색용 : 1글자면 그대로, 2글자 이상이면 2글자 조각
+     */
+    static Set<String> queryGrams(String term) {
+        if (term.length() == 1) {
+            return Set.of(term);
+        }
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 1 < term.length(); i++) {
+            grams.add(term.substring(i, i + 2));
+        }
+        return grams;
+    }
+
+    /**
+     * 정렬된 회원 id 목록 (대부분 새 id 가 가장 크므로 뒤에 추가)
+     */
+    private static class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        long get(int index) {
+            return ids[index];
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(long id) {
+            int index = size > 0 && ids[size - 1] < id ? -(size + 1) : Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -(index + 1);
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.MemberNameVersion;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PreDeleteEvent;
+import org.hibernate.event.spi.PreDeleteEventListener;
+import org.hibernate.event.spi.PreInsertEvent;
+import org.hibernate.event.spi.PreInsertEventListener;
+import org.hibernate.event.spi.PreUpdateEvent;
+import org.hibernate.event.spi.PreUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * MemberNameIndexSynchronizer
+ * <pre>
+ * MemberNameIndex 색인 / 동기화
+ * - 기동 완료 후(DataSeeder 등 ApplicationRunner 이후) member 테이블 전체 색인
+ * - Member insert / update / delete 는 hibernate post-commit 이벤트로 반영 -> 롤백된 변경은 색인에 들어가지 않음
+ *   ㄴ MemberService.join / update 뿐 아니라 EntityManager 로 직접 저장한 경우도 포함
+ * - 회원 이름 버전(MemberNameVersion) : Member insert / 이름 update / delete 시 같은 트랜잭션에서 증가 (pre 이벤트)
+ *   ㄴ 커밋 후 색인 버전도 같이 올림, 다른 인스턴스의 변경이나 놓친 변경이 있으면 색인 버전이 DB 보다 낮게 남음
+ *   ㄴ 버전 row 가 트랜잭션 끝까지 잠기므로 회원 변경 트랜잭션끼리는 순서대로 커밋됨
+ *   ㄴ JPQL / native / JDBC 로 회원을 바꾸면 버전도 직접 올려야 함
+ * - resolveLike : 현재 트랜잭션에서 읽은 DB 버전이 색인 버전과 같을 때만 색인 사용 (일치 없음도 그대로 믿음)
+ *   ㄴ 다르면 null (like 조회) + 백그라운드 전체 재색인 요청
+ *   ㄴ 이 트랜잭션에서 회원을 바꿨으면 (아직 색인에 없음) null
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Slf4j
+@Component
+public class MemberNameIndexSynchronizer implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener,
+        PreInsertEventListener, PreUpdateEventListener, PreDeleteEventListener {
+
+    private static final String VERSION_QUERY =
+            "select version from member_name_version where member_name_version_id = " + MemberNameVersion.ID;
+    private static final String BUMP_VERSION =
+            "update member_name_version set version = version + 1 where member_name_version_id = " + MemberNameVersion.ID;
+
+    private final transient MemberNameIndex memberNameIndex;
+    private final transient EntityManagerFactory emf;
+    private final transient EntityManager em;
+    private final transient JdbcTemplate jdbcTemplate;
+    private final transient TransactionTemplate withoutTransaction;
+    private final transient AtomicBoolean rebuildRequested = new AtomicBoolean();
+    private transient ExecutorService rebuildExecutor;
+
+    public MemberNameIndexSynchronizer(MemberNameIndex memberNameIndex,
+                                       EntityManagerFactory emf,
+                                       EntityManager em,
+                                       JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager) {
+        this.memberNameIndex = memberNameIndex;
+        this.emf = emf;
+        this.em = em;
+        this.jdbcTemplate = jdbcTemplate;
+        this.withoutTransaction = new TransactionTemplate(transactionManager);
+        this.withoutTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+    }
+
+    @PostConstruct
+    public void register() {
+        if (!memberNameIndex.isEnabled()) {
+            return;
+        }
+        createVersionRow();
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.PRE_INSERT, this);
+        registry.appendListeners(EventType.PRE_UPDATE, this);
+        registry.appendListeners(EventType.PRE_DELETE, this);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        rebuildExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("member-name-index-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (rebuildExecutor != null) {
+            rebuildExecutor.shutdownNow();
+        }
+    }
+
+    private void createVersionRow() {
+        Integer rows = jdbcTemplate.queryForObject("select count(*) from member_name_version", Integer.class);
+        if (rows != null && rows > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("insert into member_name_version (member_name_version_id, version) values (?, 0)",
+                    MemberNameVersion.ID);
+        } catch (DataIntegrityViolationException e) {
+            // 다른 인스턴스가 먼저 생성
+        }
+    }
+
+    /**
+     * 회원명 like 패턴 -> 회원 id (MemberNameIndex.resolveLike)
+     * @return 색인이 DB 와 같지 않거나 색인으로 답할 수 없으면 null (like 조회)
+     */
+    public List<Long> resolveLike(String pattern) {
+        if (!memberNameIndex.isReady()) {
+            return null;
+        }
+        // native 쿼리는 실행 전에 영속성 컨텍스트 전체를 flush -> 이 트랜잭션의 회원 변경도 버전에 반영됨
+        long version = ((Number) em.createNativeQuery(VERSION_QUERY).getSingleResult()).longValue();
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return null;
+        }
+        if (version != memberNameIndex.getVersion()) {
+            requestRebuild();
+            return null;
+        }
+        return memberNameIndex.resolveLike(pattern);
+    }
+
+    /**
+     * member 테이블 전체 다시 색인
+     * - 트랜잭션 밖(별도 커넥션)에서 커밋된 데이터만 읽음, 버전을 먼저 읽으므로 색인 내용은 버전보다 같거나 새로움
+     * - 색인하는 동안은 like 조회
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        if (!memberNameIndex.isEnabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        withoutTransaction.executeWithoutResult(status -> {
+            memberNameIndex.clear();
+            long version = committedVersion();
+            jdbcTemplate.query("select member_id, name from member",
+                    (RowCallbackHandler) rs -> memberNameIndex.put(rs.getLong(1), rs.getString(2)));
+            memberNameIndex.markReady(version);
+        });
+        log.info("member name index rebuild count={}, version={}, elapsed={}ms",
+                memberNameIndex.size(), memberNameIndex.getVersion(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 색인 버전이 커밋된 DB 버전과 다를 때만 전체 다시 색인
+     */
+    public synchronized void rebuildIfStale() {
+        if (!memberNameIndex.isEnabled()) {
+            return;
+        }
+        Long version = withoutTransaction.execute(status -> committedVersion());
+        if (memberNameIndex.isReady() && version != null && version == memberNameIndex.getVersion()) {
+            return;
+        }
+        rebuild();
+    }
+
+    private void requestRebuild() {
+        if (rebuildExecutor == null || !rebuildRequested.compareAndSet(false, true)) {
+            return;
+        }
+        rebuildExecutor.execute(() -> {
+            rebuildRequested.set(false);
+            try {
+                rebuildIfStale();
+            } catch (Exception e) {
+                log.warn("member name index rebuild failed", e);
+            }
+        });
+    }
+
+    private long committedVersion() {
+        return jdbcTemplate.queryForObject(VERSION_QUERY, Long.class);
+    }
+
+    @Override
+    public boolean onPreInsert(PreInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            bumpVersion(event.getSession());
+        }
+        return false;
+    }
+
+    @Override
+    public boolean onPreUpdate(PreUpdateEvent event) {
+        if (event.getEntity() instanceof Member) {
+            int name = event.getPersister().getEntityMetamodel().getPropertyIndex("name");
+            if (event.getOldState() == null || !Objects.equals(event.getOldState()[name], event.getState()[name])) {
+                bumpVersion(event.getSession());
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean onPreDelete(PreDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            bumpVersion(event.getSession());
+        }
+        return false;
+    }
+
+    /**
+     * 같은 트랜잭션(커넥션)에서 버전 증가, 커밋 후 색인 버전도 증가
+     * - 버전 row 잠금으로 한 트랜잭션에서 올린 버전은 연속됨 (first ~ last)
+     */
+    private void bumpVersion(EventSource session) {
+        long version = session.doReturningWork(connection -> {
+            try (PreparedStatement update = connection.prepareStatement(BUMP_VERSION)) {
+                update.executeUpdate();
+            }
+            try (PreparedStatement select = connection.prepareStatement(VERSION_QUERY);
+                 ResultSet rs = select.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        });
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        PendingVersion pending = (PendingVersion) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            pending.last = version;
+            return;
+        }
+        PendingVersion created = new PendingVersion(version);
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // post-commit 이벤트(색인 반영)는 hibernate 커밋 안에서 먼저 실행됨
+                memberNameIndex.advance(created.first - 1, created.last);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(MemberNameIndexSynchronizer.this);
+            }
+        });
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            Member member = (Member) event.getEntity();
+            memberNameIndex.put(member.getId(), member.getName());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Member) {
+            Member member = (Member) event.getEntity();
+            memberNameIndex.put(member.getId(), member.getName());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            memberNameIndex.remove((Long) event.getId());
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return Member.class.equals(persister.getMappedClass());
+    }
+
+    /**
+     * hibernate 5 의 추상 메서드 (이름 오타, deprecated) -> requiresPostCommitHandling 과 같음
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+
+    /**
+     * 현재 트랜잭션에서 올린 회원 이름 버전
+     */
+    private static class PendingVersion {
+        private final long first;
+        private long last;
+
+        PendingVersion(long first) {
+            this.first = first;
+            this.last = first;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderCursor;
 import jpabook.jpashop.domain.OrderSearch;
 import jpabook.jpashop.domain.OrderStatus;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
@@ -33,10 +34,12 @@ public class OrderRepository {
 
     private final EntityManager em;
     private final JPAQueryFactory query;
+    private final MemberNameIndexSynchronizer memberNameIndexSynchronizer;
 
-    public OrderRepository(EntityManager em) {
+    public OrderRepository(EntityManager em, MemberNameIndexSynchronizer memberNameIndexSynchronizer) {
         this.em = em;
         this.query = new JPAQueryFactory(em);
+        this.memberNameIndexSynchronizer = memberNameIndexSynchronizer;
     }
 
     public void save(Order order) {
@@ -61,12 +64,17 @@ public class OrderRepository {
             criteria.add(status);
         }
 
-        //회원 이름 검색
+        //회원 이름 검색 (이름 색인으로 회원 id 를 먼저 찾고, 색인으로 안 되면 like)
         if (StringUtils.hasText(orderSearch.getMemberName())) {
-            Predicate name =
-                    cb.like(m.<String>get("name"), "%" +
-                            orderSearch.getMemberName() + "%");
-            criteria.add(name);
+            String pattern = "%" + orderSearch.getMemberName() + "%";
+            List<Long> memberIds = memberNameIndexSynchronizer.resolveLike(pattern);
+            if (memberIds == null) {
+                criteria.add(cb.like(m.<String>get("name"), pattern));
+            } else if (memberIds.isEmpty()) {
+                return new ArrayList<>();
+            } else {
+                criteria.add(o.get("member").get("id").in(memberIds));
+            }
         }
         cq.where(cb.and(criteria.toArray(new Predicate[criteria.size()])));
         TypedQuery<Order> nativeQuery = em.createQuery(cq).setMaxResults(1000); //최대 1000건
@@ -104,6 +112,28 @@ public class OrderRepository {
                 .getResultList();
     }
 
+    /**
+     * fetch join + keyset(seek) paging
+     * - offset 방식은 앞 페이지 row 를 모두 읽고 버리기 때문에 뒤 페이지로 갈수록 느려짐
+     * - 마지막으로 조회한 (orderDate, id) 이후 row 부터 인덱스를 타고 바로 조회
+     * - 컬렉션(orderItems)은 offset 방식과 동일하게 default_batch_fetch_size 로 최적화
+     * @param cursor 이전 페이지 마지막 주문 위치
+     * @param limit
+     * @return List<Order>
+     */
+    public List<Order> findAllWithMemberDelivery(OrderCursor cursor, int limit) {
+        String predicate = cursor.keysetCondition();
+        TypedQuery<Order> typedQuery = em.createQuery(
+                "select o from Order o" +
+                        " join fetch o.member m" +
+                        " join fetch o.delivery d" +
+                        (predicate == null ? "" : " where " + predicate) +
+                        cursor.keysetOrderBy(), Order.class);
+        cursor.bindKeyset(typedQuery);
+        return typedQuery.setMaxResults(limit)
+                .getResultList();
+    }
+
     /**
      * V4 : JPA DTO 바로 조회
      * - 물리적으로는 계층이 나눠져 있지만, 논리적으로 깨져 있음
@@ -135,12 +165,19 @@ public class OrderRepository {
      * @return List<Order>
      */
     public List<Order> findAll(OrderSearch orderSearch) {
+        List<Long> memberIds = StringUtils.hasText(orderSearch.getMemberName())
+                ? memberNameIndexSynchronizer.resolveLike(orderSearch.getMemberName())
+                : null;
+        if (memberIds != null && memberIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
         return query
                 .select(order)
                 .from(order)
                 .join(order.member, member)
                 .where(statusEq(orderSearch.getOrderStatus()),
-                        nameLike(orderSearch.getMemberName()))
+                        memberIds != null ? order.member.id.in(memberIds) : nameLike(orderSearch.getMemberName()))
                 .limit(1000)
                 .fetch();
     }
@@ -0,0 +1,90 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.OrderSummary;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+/**
+ * OrderSummaryRepository
+ * <pre>
+ * Describe here
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Repository
+@RequiredArgsConstructor
+public class OrderSummaryRepository {
+
+    /**
+     * 원본 테이블로부터 order_summary 전체 생성 (주문상품 집계는 상관 서브쿼리)
+     */
+    private static final String REBUILD_SQL =
+            "insert into order_summary" +
+                    " (order_id, member_id, member_name, status, order_date, city, street, zipcode, item_count, total_price, first_item_name)" +
+                    " select o.order_id, m.member_id, m.name, o.status, o.order_date, d.city, d.street, d.zipcode," +
+                    " (select count(*) from order_item oi where oi.order_id = o.order_id)," +
+                    " (select coalesce(sum(oi.order_price * oi.count), 0) from order_item oi where oi.order_id = o.order_id)," +
+                    " (select i.name from order_item oi join item i on i.item_id = oi.item_id" +
+                    "   where oi.order_id = o.order_id order by oi.order_item_id limit 1)" +
+                    " from orders o" +
+                    " join member m on m.member_id = o.member_id" +
+                    " join delivery d on d.delivery_id = o.delivery_id";
+
+    private final EntityManager em;
+
+    public void save(OrderSummary orderSummary) {
+        em.persist(orderSummary);
+    }
+
+    public OrderSummary findOne(Long orderId) {
+        return em.find(OrderSummary.class, orderId);
+    }
+
+    /**
+     * order_id 순 목록 (PK / (status, order_id) 인덱스 범위 스캔 1번)
+     * @param status 주문 상태 (null 이면 전체)
+     * @param afterOrderId 이전 페이지 마지막 주문 id (null 이면 처음부터)
+     * @param limit
+     * @return List<OrderSummary>
+     */
+    public List<OrderSummary> findAll(OrderStatus status, Long afterOrderId, int limit) {
+        String jpql = "select s from OrderSummary s where 1 = 1" +
+                (status == null ? "" : " and s.status = :status") +
+                (afterOrderId == null ? "" : " and s.orderId > :afterOrderId") +
+                " order by s.orderId";
+
+        TypedQuery<OrderSummary> query = em.createQuery(jpql, OrderSummary.class);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (afterOrderId != null) {
+            query.setParameter("afterOrderId", afterOrderId);
+        }
+        return query.setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * order_summary 전체 재생성
+     * @return 생성된 row 수
+     */
+    public int rebuild() {
+        em.flush();
+        em.createQuery("delete from OrderSummary").executeUpdate();
+        // 동기화 대상을 지정하지 않으면 native update 시 2차 캐시 전체가 비워짐
+        int count = em.createNativeQuery(REBUILD_SQL)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(OrderSummary.class)
+                .executeUpdate();
+        em.clear();
+        return count;
+    }
+}
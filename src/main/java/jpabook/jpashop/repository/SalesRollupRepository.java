@@ -0,0 +1,173 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.SalesDelta;
+import jpabook.jpashop.domain.SalesRollup;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * SalesRollupRepository
+ * <pre>
+ * 매출 변경분(sales_delta) 저장 / 집계(sales_rollup) 반영, 재생성, 리포트 조회
+ * - 변경분 반영과 재생성은 같은 집계 SQL 사용 (원본 row 만 다름)
+ *   ㄴ 원본 row : sales_date, sales_month, item_id, status, revenue, units, item_orders, orders
+ * - native 쿼리는 sales_rollup / sales_delta 만 동기화 대상으로 지정 (2차 캐시 전체 무효화 방지)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Repository
+@RequiredArgsConstructor
+public class SalesRollupRepository {
+
+    private static final String DELTA_SOURCE =
+            "select sales_date, sales_month, item_id, status, revenue, units, item_orders, orders" +
+                    " from sales_delta where fold_id = :foldId";
+
+    /**
+     * 주문상품 1건 = 1 row, 주문의 첫 번째(가장 작은 id) 주문상품에만 orders = 1
+     */
+    private static final String ORDER_SOURCE =
+            "select cast(o.order_date as date) sales_date, cast(date_trunc(month, o.order_date) as date) sales_month," +
+                    " oi.item_id, o.status, cast(oi.order_price as bigint) * oi.count revenue, oi.count units, 1 item_orders," +
+                    " case when oi.order_item_id = (select min(x.order_item_id) from order_item x where x.order_id = o.order_id)" +
+                    " then 1 else 0 end orders" +
+                    " from orders o join order_item oi on oi.order_id = o.order_id";
+
+    private final EntityManager em;
+
+    public void save(SalesDelta delta) {
+        em.persist(delta);
+    }
+
+    /**
+     * 아직 반영되지 않은 변경분을 foldId 로 선점
+     * @return 선점한 row 수
+     */
+    public int claimDeltas(long foldId) {
+        return em.createNativeQuery("update sales_delta set fold_id = :foldId where fold_id is null")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(SalesDelta.class)
+                .setParameter("foldId", foldId)
+                .executeUpdate();
+    }
+
+    /**
+     * 선점한 변경분을 집계에 더함 (없는 집계 row 는 생성)
+     */
+    public int foldDeltas(long foldId) {
+        String sql = "merge into sales_rollup t using (" + groupings(DELTA_SOURCE) + ") s" +
+                " on (t.grain = s.grain and t.item_id = s.item_id and t.period_start = s.period_start and t.status = s.status)" +
+                " when matched then update set revenue = t.revenue + s.revenue, units = t.units + s.units," +
+                " order_count = t.order_count + s.order_count" +
+                " when not matched then insert (grain, item_id, period_start, status, revenue, units, order_count)" +
+                " values (s.grain, s.item_id, s.period_start, s.status, s.revenue, s.units, s.order_count)";
+        return em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(SalesRollup.class)
+                .setParameter("foldId", foldId)
+                .executeUpdate();
+    }
+
+    public int deleteDeltas(long foldId) {
+        return em.createQuery("delete from SalesDelta d where d.foldId = :foldId")
+                .setParameter("foldId", foldId)
+                .executeUpdate();
+    }
+
+    /**
+     * 집계 전체를 orders / order_item 에서 다시 생성
+     * @return 생성된 집계 row 수
+     */
+    public int rebuild() {
+        em.flush();
+        em.createQuery("delete from SalesRollup").executeUpdate();
+        int count = em.createNativeQuery("insert into sales_rollup (grain, item_id, period_start, status, revenue, units, order_count) " +
+                        groupings(ORDER_SOURCE))
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(SalesRollup.class)
+                .executeUpdate();
+        em.clear();
+        return count;
+    }
+
+    /**
+     * 원본 row 를 (일, 상품) / (월, 상품) / (일, 전체) / (월, 전체) 별로 합산
+     */
+    private static String groupings(String source) {
+        return "select 'DAY' grain, item_id, sales_date period_start, status," +
+                " sum(revenue) revenue, sum(units) units, sum(item_orders) order_count" +
+                " from (" + source + ") b group by item_id, sales_date, status" +
+                " union all select 'MONTH', item_id, sales_month, status, sum(revenue), sum(units), sum(item_orders)" +
+                " from (" + source + ") b group by item_id, sales_month, status" +
+                " union all select 'DAY', " + SalesRollup.ALL_ITEMS + ", sales_date, status, sum(revenue), sum(units), sum(orders)" +
+                " from (" + source + ") b group by sales_date, status" +
+                " union all select 'MONTH', " + SalesRollup.ALL_ITEMS + ", sales_month, status, sum(revenue), sum(units), sum(orders)" +
+                " from (" + source + ") b group by sales_month, status";
+    }
+
+    /**
+     * 기간별 전체 상품 합계 (PK (grain, item_id, period_start, status) 범위 조회)
+     * @param status null 이면 상태별로 각각
+     */
+    public List<SalesTotalDto> findPeriodTotals(SalesRollup.Grain grain, LocalDate from, LocalDate to, OrderStatus status) {
+        TypedQuery<SalesTotalDto> query = em.createQuery(
+                "select new jpabook.jpashop.repository.SalesTotalDto(r.periodStart, r.status, r.revenue, r.units, r.orderCount)" +
+                        " from SalesRollup r" +
+                        " where r.grain = :grain and r.itemId = :allItems" +
+                        " and r.periodStart between :from and :to" +
+                        (status == null ? "" : " and r.status = :status") +
+                        " order by r.periodStart, r.status", SalesTotalDto.class);
+        bindPeriod(query, grain, from, to, status);
+        return query.getResultList();
+    }
+
+    /**
+     * 기간 내 상품별 합계 ((grain, period_start) 인덱스 범위 조회)
+     */
+    public List<SalesTotalDto> sumByItem(SalesRollup.Grain grain, LocalDate from, LocalDate to, OrderStatus status) {
+        TypedQuery<SalesTotalDto> query = em.createQuery(
+                "select new jpabook.jpashop.repository.SalesTotalDto(r.itemId, r.status, sum(r.revenue), sum(r.units), sum(r.orderCount))" +
+                        " from SalesRollup r" +
+                        " where r.grain = :grain and r.itemId <> :allItems" +
+                        " and r.periodStart between :from and :to" +
+                        " and r.status = :status" +
+                        " group by r.itemId, r.status", SalesTotalDto.class);
+        bindPeriod(query, grain, from, to, status);
+        return query.getResultList();
+    }
+
+    /**
+     * 기간 내 상태별 합계 (일별 전체 합계 row 사용)
+     */
+    public List<SalesTotalDto> sumByStatus(LocalDate from, LocalDate to) {
+        TypedQuery<SalesTotalDto> query = em.createQuery(
+                "select new jpabook.jpashop.repository.SalesTotalDto(r.status, sum(r.revenue), sum(r.units), sum(r.orderCount))" +
+                        " from SalesRollup r" +
+                        " where r.grain = :grain and r.itemId = :allItems" +
+                        " and r.periodStart between :from and :to" +
+                        " group by r.status" +
+                        " order by r.status", SalesTotalDto.class);
+        bindPeriod(query, SalesRollup.Grain.DAY, from, to, null);
+        return query.getResultList();
+    }
+
+    private static void bindPeriod(TypedQuery<SalesTotalDto> query, SalesRollup.Grain grain,
+                                   LocalDate from, LocalDate to, OrderStatus status) {
+        query.setParameter("grain", grain)
+                .setParameter("allItems", SalesRollup.ALL_ITEMS)
+                .setParameter("from", from)
+                .setParameter("to", to);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+    }
+}
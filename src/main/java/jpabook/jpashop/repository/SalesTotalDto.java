@@ -0,0 +1,59 @@
+package jpabook.jpashop.repository;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * SalesTotalDto
+ * <pre>
+ * 매출 리포트 1행 (기간별 / 상품별 / 상태별), 해당하지 않는 기준 필드는 null
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SalesTotalDto {
+    private LocalDate periodStart;
+    private Long itemId;
+    @Setter
+    private String itemName;
+    private OrderStatus status;
+    private long revenue;
+    private long units;
+    private long orderCount;
+
+    // 기간별
+    public SalesTotalDto(LocalDate periodStart, OrderStatus status, Long revenue, Long units, Long orderCount) {
+        this(status, revenue, units, orderCount);
+        this.periodStart = periodStart;
+    }
+
+    // 상품별
+    public SalesTotalDto(Long itemId, OrderStatus status, Long revenue, Long units, Long orderCount) {
+        this(status, revenue, units, orderCount);
+        this.itemId = itemId;
+    }
+
+    // 상태별
+    public SalesTotalDto(OrderStatus status, Long revenue, Long units, Long orderCount) {
+        this.status = status;
+        this.revenue = revenue;
+        this.units = units;
+        this.orderCount = orderCount;
+    }
+
+    /**
+     * 같은 기준의 다른 구간 합계를 더함
+     */
+    public void add(SalesTotalDto other) {
+        revenue += other.revenue;
+        units += other.units;
+        orderCount += other.orderCount;
+    }
+}
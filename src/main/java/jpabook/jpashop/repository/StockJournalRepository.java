@@ -0,0 +1,82 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.StockJournal;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StockJournalRepository
+ * <pre>
+ * 재고 저널 저장 / flush 용 조회
+ * - native 쿼리는 stock_journal 만 동기화 대상으로 지정 (2차 캐시 전체 무효화 방지)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Repository
+@RequiredArgsConstructor
+public class StockJournalRepository {
+
+    private final EntityManager em;
+
+    public void save(StockJournal journal) {
+        em.persist(journal);
+    }
+
+    /**
+     * 아직 반영되지 않은 저널을 flushId 로 선점
+     * @return 선점한 row 수
+     */
+    public int claim(long flushId) {
+        return em.createNativeQuery("update stock_journal set flush_id = :flushId where flush_id is null")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(StockJournal.class)
+                .setParameter("flushId", flushId)
+                .executeUpdate();
+    }
+
+    /**
+     * @return 상품 id 별 선점한 저널의 재고 증감 합계
+     */
+    public Map<Long, Long> sumDeltaByItem(long flushId) {
+        List<Object[]> rows = em.createQuery(
+                "select j.itemId, sum(j.delta) from StockJournal j" +
+                        " where j.flushId = :flushId" +
+                        " group by j.itemId", Object[].class)
+                .setParameter("flushId", flushId)
+                .getResultList();
+
+        Map<Long, Long> deltas = new LinkedHashMap<>();
+        rows.forEach(row -> deltas.put((Long) row[0], ((Number) row[1]).longValue()));
+        return deltas;
+    }
+
+    public int deleteClaimed(long flushId) {
+        return em.createQuery("delete from StockJournal j where j.flushId = :flushId")
+                .setParameter("flushId", flushId)
+                .executeUpdate();
+    }
+
+    /**
+     * 현재 재고 = item.stock_quantity + 아직 반영되지 않은 저널 합계 (커밋된 것만)
+     * - 쿼리 1번이라 flush 와 동시에 실행되어도 반영 전 / 후 중 한 시점의 값
+     * @return 상품이 없으면 null
+     */
+    public Long findAvailableStock(Long itemId) {
+        List<?> result = em.createNativeQuery(
+                "select i.stock_quantity + coalesce((select sum(j.delta) from stock_journal j where j.item_id = i.item_id), 0)" +
+                        " from item i where i.item_id = :itemId")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(StockJournal.class)
+                .setParameter("itemId", itemId)
+                .getResultList();
+        return result.isEmpty() ? null : ((Number) result.get(0)).longValue();
+    }
+}
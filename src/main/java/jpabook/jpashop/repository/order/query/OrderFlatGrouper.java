@@ -0,0 +1,101 @@
+package jpabook.jpashop.repository.order.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+
+/**
+ * OrderFlatGrouper
+ * <pre>
+ * o.id 순으로 정렬된 OrderFlatDto row 를 한 번만 훑으면서 주문 단위로 묶음
+ * - 연속된 row 의 orderId 가 같으면 같은 주문 -> HashMap / equals, hashCode 불필요
+ * - 주문 1건당 OrderQueryDto 1개만 생성, 정렬 순서 유지
+ * - accept / finish 로 커서(ScrollableResults)에서 읽으면서 바로 넘길 수도 있고,
+ *   toOrderQueryDtos() Collector 로 List 에 모을 수도 있음
+ * </pre>
+ *
+ * @version 1.0,
+ */
+public class OrderFlatGrouper implements Consumer<OrderFlatDto> {
+
+    private final Consumer<OrderQueryDto> downstream;
+    private OrderQueryDto current;
+
+    /**
+     * @param downstream 주문 1건이 완성될 때마다 호출
+     */
+    public OrderFlatGrouper(Consumer<OrderQueryDto> downstream) {
+        this.downstream = downstream;
+    }
+
+    @Override
+    public void accept(OrderFlatDto flat) {
+        if (current != null && !current.getOrderId().equals(flat.getOrderId())) {
+            downstream.accept(current);
+            current = null;
+        }
+        if (current == null) {
+            current = newOrder(flat);
+        }
+        current.getOrderItems().add(newOrderItem(flat));
+    }
+
+    /**
+     * 마지막 주문 전달 (row 를 모두 읽은 후 호출)
+     */
+    public void finish() {
+        if (current != null) {
+            downstream.accept(current);
+            current = null;
+        }
+    }
+
+    /**
+     * o.id 순으로 정렬된 stream 을 주문 순서대로 묶는 Collector
+     */
+    public static Collector<OrderFlatDto, ?, List<OrderQueryDto>> toOrderQueryDtos() {
+        return Collector.of(
+                ArrayList::new,
+                OrderFlatGrouper::fold,
+                OrderFlatGrouper::combine);
+    }
+
+    private static void fold(List<OrderQueryDto> orders, OrderFlatDto flat) {
+        OrderQueryDto last = orders.isEmpty() ? null : orders.get(orders.size() - 1);
+        if (last == null || !last.getOrderId().equals(flat.getOrderId())) {
+            last = newOrder(flat);
+            orders.add(last);
+        }
+        last.getOrderItems().add(newOrderItem(flat));
+    }
+
+    /**
+     * 병렬 stream 에서 경계에 걸친 주문은 하나로 합침
+     */
+    private static List<OrderQueryDto> combine(List<OrderQueryDto> left, List<OrderQueryDto> right) {
+        if (left.isEmpty()) {
+            return right;
+        }
+        if (right.isEmpty()) {
+            return left;
+        }
+        OrderQueryDto leftLast = left.get(left.size() - 1);
+        OrderQueryDto rightFirst = right.get(0);
+        if (leftLast.getOrderId().equals(rightFirst.getOrderId())) {
+            leftLast.getOrderItems().addAll(rightFirst.getOrderItems());
+            left.addAll(right.subList(1, right.size()));
+        } else {
+            left.addAll(right);
+        }
+        return left;
+    }
+
+    private static OrderQueryDto newOrder(OrderFlatDto flat) {
+        return new OrderQueryDto(flat.getOrderId(), flat.getName(), flat.getOrderDate(), flat.getOrderStatus(), flat.getAddress(), new ArrayList<>());
+    }
+
+    private static OrderItemQueryDto newOrderItem(OrderFlatDto flat) {
+        return new OrderItemQueryDto(flat.getOrderId(), flat.getItemName(), flat.getOrderPrice(), flat.getCount());
+    }
+}
@@ -2,6 +2,7 @@ package jpabook.jpashop.repository.order.query;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * OrderItemQueryDto
@@ -13,6 +14,7 @@ import lombok.Data;
  */
 
 @Data
+@NoArgsConstructor
 public class OrderItemQueryDto {
 
     @JsonIgnore
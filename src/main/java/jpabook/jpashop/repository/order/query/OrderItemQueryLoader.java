@@ -0,0 +1,157 @@
+package jpabook.jpashop.repository.order.query;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * OrderItemQueryLoader
+ * <pre>
+ * orderId 목록으로 orderItem 을 in 절 조회
+ * - chunk-size 단위로 나눠서 조회 -> SQL 길이 / 드라이버 파라미터 수 제한 회피
+ * - 각 chunk 를 2의 제곱 크기로 패딩(마지막 id 반복) -> in 절 길이가 몇 가지로 고정되어 쿼리 플랜 캐시 재사용
+ *   ㄴ 패딩해도 chunk-size 를 넘지 않음 (chunk-size 가 2의 제곱이 아니면 가득 찬 chunk 는 chunk-size 그대로)
+ * - parallel 설정 시 chunk 별로 별도 EntityManager(커넥션)에서 동시에 조회
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Component
+public class OrderItemQueryLoader {
+
+    private static final String ORDER_ITEM_QUERY =
+            "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
+                    " from OrderItem oi" +
+                    " join oi.item i" +
+                    " where oi.order.id in :orderIds";
+
+    private final EntityManager em;
+    private final EntityManagerFactory emf;
+    private final int chunkSize;
+    private final boolean parallel;
+    private final ExecutorService executor;
+
+    public OrderItemQueryLoader(EntityManager em,
+                                EntityManagerFactory emf,
+                                @Value("${jpashop.order-item-loader.chunk-size:1000}") int chunkSize,
+                                @Value("${jpashop.order-item-loader.parallel:false}") boolean parallel,
+                                @Value("${jpashop.order-item-loader.threads:4}") int threads) {
+        this.em = em;
+        this.emf = emf;
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunk-size 는 1 이상이어야 합니다. chunk-size=" + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        this.parallel = parallel;
+        this.executor = parallel ? Executors.newFixedThreadPool(threads) : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * @param orderIds 주문 id 목록
+     * @return orderId 별 주문상품 목록
+     */
+    public Map<Long, List<OrderItemQueryDto>> load(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<List<Long>> chunks = chunk(orderIds, chunkSize);
+        List<OrderItemQueryDto> orderItems = parallel && chunks.size() > 1
+                ? loadParallel(chunks)
+                : loadSerial(chunks);
+
+        return orderItems.stream()
+                .collect(Collectors.groupingBy(OrderItemQueryDto::getOrderId));
+    }
+
+    /**
+     * 현재 트랜잭션(영속성 컨텍스트)에서 순서대로 조회
+     */
+    private List<OrderItemQueryDto> loadSerial(List<List<Long>> chunks) {
+        List<OrderItemQueryDto> result = new ArrayList<>();
+        for (List<Long> chunk : chunks) {
+            result.addAll(query(em, chunk));
+        }
+        return result;
+    }
+
+    /**
+     * chunk 마다 새 EntityManager(커넥션)를 열어서 동시에 조회 (DTO 조회라 영속성 컨텍스트 공유 필요 없음)
+     */
+    private List<OrderItemQueryDto> loadParallel(List<List<Long>> chunks) {
+        List<CompletableFuture<List<OrderItemQueryDto>>> futures = chunks.stream()
+                .map(chunk -> CompletableFuture.supplyAsync(() -> {
+                    EntityManager chunkEm = emf.createEntityManager();
+                    try {
+                        return query(chunkEm, chunk);
+                    } finally {
+                        chunkEm.close();
+                    }
+                }, executor))
+                .collect(Collectors.toList());
+
+        try {
+            List<OrderItemQueryDto> result = new ArrayList<>();
+            futures.forEach(f -> result.addAll(f.join()));
+            return result;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private List<OrderItemQueryDto> query(EntityManager em, List<Long> orderIds) {
+        return em.createQuery(ORDER_ITEM_QUERY, OrderItemQueryDto.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+    }
+
+    /**
+     * chunkSize 단위로 나누고 각 chunk 를 2의 제곱 크기로 패딩 (최대 chunkSize)
+     */
+    static List<List<Long>> chunk(List<Long> ids, int chunkSize) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            chunks.add(pad(ids.subList(from, Math.min(ids.size(), from + chunkSize)), chunkSize));
+        }
+        return chunks;
+    }
+
+    static List<Long> pad(List<Long> ids, int maxSize) {
+        int size = ids.size();
+        int paddedSize = Integer.highestOneBit(size);
+        if (paddedSize < size) {
+            paddedSize = Math.min(paddedSize << 1, Math.max(size, maxSize));
+        }
+
+        List<Long> padded = new ArrayList<>(paddedSize);
+        padded.addAll(ids);
+        Long last = ids.get(size - 1);
+        while (padded.size() < paddedSize) {
+            padded.add(last);
+        }
+        return padded;
+    }
+}
@@ -1,9 +1,14 @@
 package jpabook.jpashop.repository.order.query;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import jpabook.jpashop.config.ColumnarListDeserializer;
+import jpabook.jpashop.config.ColumnarListSerializer;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.OrderStatus;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -17,6 +22,7 @@ import java.util.List;
  * @version 1.0,
  */
 @Data
+@NoArgsConstructor  // Smile / CBOR 클라이언트 역직렬화용
 @EqualsAndHashCode(of = "orderId")
 public class OrderQueryDto {
     private Long orderId;
@@ -24,6 +30,8 @@ public class OrderQueryDto {
     private LocalDateTime orderDate;
     private OrderStatus orderStatus;
     private Address address;
+    @JsonSerialize(using = ColumnarListSerializer.class)
+    @JsonDeserialize(using = ColumnarListDeserializer.class)
     private List<OrderItemQueryDto> orderItems;
 
     public OrderQueryDto(Long orderId, String name, LocalDateTime orderDate, OrderStatus orderStatus, Address address) {
@@ -1,11 +1,21 @@
 package jpabook.jpashop.repository.order.query;
 
+import jpabook.jpashop.domain.OrderCursor;
+import jpabook.jpashop.domain.OrderSearch;
+import jpabook.jpashop.repository.MemberNameIndexSynchronizer;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -21,7 +31,31 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class OrderQueryRepository {
 
+    private static final String FLAT_QUERY =
+            "select new jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
+                    " from Order o" +
+                    " join o.member m" +
+                    " join o.delivery d" +
+                    " join o.orderItems oi" +
+                    " join oi.item i" +
+                    " order by o.id, oi.id";
+
+    /**
+     * FLAT_QUERY 와 같은 조인 / 정렬, DTO 대신 컬럼 배열
+     * [orderId, name, orderDate, orderStatus, address, itemName, orderPrice, count]
+     */
+    private static final String FLAT_ROW_QUERY =
+            "select o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count" +
+                    " from Order o" +
+                    " join o.member m" +
+                    " join o.delivery d" +
+                    " join o.orderItems oi" +
+                    " join oi.item i" +
+                    " order by o.id, oi.id";
+
     private final EntityManager em;
+    private final OrderItemQueryLoader orderItemQueryLoader;
+    private final MemberNameIndexSynchronizer memberNameIndexSynchronizer;
 
 
     /**
@@ -89,17 +123,113 @@ public class OrderQueryRepository {
         return result;
     }
 
-    private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
-        List<OrderItemQueryDto> orderItems = em.createQuery(
-                        "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
-                                " from OrderItem oi" +
-                                " join oi.item i" +
-                                " where oi.order.id in :orderIds", OrderItemQueryDto.class)
-                .setParameter("orderIds", orderIds)
+    /**
+     * V5 + 검색 조건 + keyset(cursor) paging
+     * - 상태 / 회원명 조건과 페이징을 루트 쿼리에 적용한 뒤, 해당 페이지 주문의 orderItem 만 in 으로 1번 조회
+     * - 전체 건수가 필요한 경우에만 countOrders 별도 호출
+     * Query: 루트 1번, 컬렉션 1번
+     * @param orderSearch 검색 조건
+     * @param cursor 이전 페이지 마지막 주문 위치
+     * @param limit
+     * @return List<OrderQueryDto>
+     */
+    public List<OrderQueryDto> findAllByDto_optimization(OrderSearch orderSearch, OrderCursor cursor, int limit) {
+        List<OrderQueryDto> result = findOrderPage(orderSearch, cursor, limit);
+
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(toOrderIds(result));
+        result.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+
+        return result;
+    }
+
+    /**
+     * 검색 조건 + keyset 페이지의 루트(주문 + toOne)만 조회, orderItems 는 채우지 않음
+     */
+    public List<OrderQueryDto> findOrderPage(OrderSearch orderSearch, OrderCursor cursor, int limit) {
+        List<Long> memberIds = resolveMemberIds(orderSearch);
+        if (memberIds != null && memberIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<String> conditions = searchConditions(orderSearch, memberIds);
+        String keyset = cursor.keysetCondition();
+        if (keyset != null) {
+            conditions.add(keyset);
+        }
+
+        TypedQuery<OrderQueryDto> query = em.createQuery(
+                "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                        " from Order o" +
+                        " join o.member m" +
+                        " join o.delivery d" +
+                        where(conditions) +
+                        cursor.keysetOrderBy(), OrderQueryDto.class);
+        bindSearch(query, orderSearch, memberIds);
+        cursor.bindKeyset(query);
+        return query.setMaxResults(limit)
                 .getResultList();
+    }
 
-        return orderItems.stream()
-                .collect(Collectors.groupingBy(orderItemQueryDto -> orderItemQueryDto.getOrderId()));
+    /**
+     * 검색 조건에 맞는 주문 전체 건수
+     */
+    public long countOrders(OrderSearch orderSearch) {
+        List<Long> memberIds = resolveMemberIds(orderSearch);
+        if (memberIds != null && memberIds.isEmpty()) {
+            return 0;
+        }
+
+        TypedQuery<Long> query = em.createQuery(
+                "select count(o) from Order o" +
+                        " join o.member m" +
+                        where(searchConditions(orderSearch, memberIds)), Long.class);
+        bindSearch(query, orderSearch, memberIds);
+        return query.getSingleResult();
+    }
+
+    /**
+     * 회원명 검색어 -> 회원 id (MemberNameIndexSynchronizer), 색인으로 답할 수 없거나 검색어가 없으면 null
+     */
+    private List<Long> resolveMemberIds(OrderSearch orderSearch) {
+        if (!StringUtils.hasText(orderSearch.getMemberName())) {
+            return null;
+        }
+        return memberNameIndexSynchronizer.resolveLike("%" + orderSearch.getMemberName() + "%");
+    }
+
+    private List<String> searchConditions(OrderSearch orderSearch, List<Long> memberIds) {
+        List<String> conditions = new ArrayList<>();
+        if (orderSearch.getOrderStatus() != null) {
+            conditions.add("o.status = :status");
+        }
+        if (memberIds != null) {
+            conditions.add("o.member.id in :memberIds");
+        } else if (StringUtils.hasText(orderSearch.getMemberName())) {
+            conditions.add("m.name like :memberName");
+        }
+        return conditions;
+    }
+
+    private void bindSearch(javax.persistence.Query query, OrderSearch orderSearch, List<Long> memberIds) {
+        if (orderSearch.getOrderStatus() != null) {
+            query.setParameter("status", orderSearch.getOrderStatus());
+        }
+        if (memberIds != null) {
+            query.setParameter("memberIds", memberIds);
+        } else if (StringUtils.hasText(orderSearch.getMemberName())) {
+            query.setParameter("memberName", "%" + orderSearch.getMemberName() + "%");
+        }
+    }
+
+    private String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+    }
+
+    /**
+     * in 절 chunk 분할 / 패딩 / (설정 시) 병렬 조회는 OrderItemQueryLoader 에서 처리
+     */
+    public Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
+        return orderItemQueryLoader.load(orderIds);
     }
 
     private List<Long> toOrderIds(List<OrderQueryDto> result) {
@@ -108,15 +238,65 @@ public class OrderQueryRepository {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 주문 * 주문상품 조인 1번 (o.id 순 정렬 -> OrderFlatGrouper 로 연속된 row 를 묶을 수 있음)
+     */
     public List<OrderFlatDto> findAllByDto_flat() {
-        return em.createQuery(
-                "select new jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
-                        " from Order o" +
-                        " join o.member m" +
-                        " join o.delivery d" +
-                        " join o.orderItems oi" +
-                        " join oi.item i", OrderFlatDto.class)
+        return em.createQuery(FLAT_QUERY, OrderFlatDto.class)
                 .getResultList();
 
     }
+
+    /**
+     * 전체 주문 스트리밍 조회 (export 용)
+     * - getResultList 로 전체를 메모리에 올리지 않고 forward-only 커서로 한 row 씩 읽음
+     * - OrderFlatGrouper 로 연속된 row 를 주문 1건으로 묶은 뒤 consumer 로 바로 넘김
+     * - 주문 1건 분량만 메모리에 유지, chunkSize 건 마다 영속성 컨텍스트 초기화
+     * @param chunkSize JDBC fetch size 겸 영속성 컨텍스트 clear 주기
+     * @param consumer 주문 1건씩 전달 받음
+     */
+    @SuppressWarnings("unchecked")
+    public void streamAllByDto_flat(int chunkSize, Consumer<OrderQueryDto> consumer) {
+        Query<OrderFlatDto> query = em.createQuery(FLAT_QUERY, OrderFlatDto.class)
+                .unwrap(Query.class);
+
+        int[] count = {0};
+        OrderFlatGrouper grouper = new OrderFlatGrouper(order -> {
+            consumer.accept(order);
+            if (++count[0] % chunkSize == 0) {
+                em.clear();
+            }
+        });
+
+        try (ScrollableResults results = query
+                .setFetchSize(chunkSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                grouper.accept((OrderFlatDto) results.get(0));
+            }
+            grouper.finish();
+        }
+    }
+
+    /**
+     * 전체 주문 * 주문상품 row 스트리밍 조회 (DTO / List 없이 row 그대로 전달)
+     * - forward-only 커서, 스칼라 조회라 영속성 컨텍스트에 쌓이지 않음
+     * @param fetchSize JDBC fetch size
+     * @param consumer row 1개씩 전달 받음 (FLAT_ROW_QUERY 컬럼 순서, o.id, oi.id 순), 배열은 재사용하지 않음
+     */
+    @SuppressWarnings("unchecked")
+    public void scrollAllOrderRows(int fetchSize, Consumer<Object[]> consumer) {
+        Query<Object[]> query = em.createQuery(FLAT_ROW_QUERY)
+                .unwrap(Query.class);
+
+        try (ScrollableResults results = query
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                consumer.accept(results.get());
+            }
+        }
+    }
 }
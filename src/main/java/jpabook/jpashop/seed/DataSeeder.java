@@ -0,0 +1,378 @@
+package jpabook.jpashop.seed;
+
+import jpabook.jpashop.config.IdSequenceMigrator;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.service.DataVersionTracker;
+import jpabook.jpashop.service.OrderSummaryService;
+import jpabook.jpashop.service.SalesRollupService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * DataSeeder
+ * <pre>
+ * 부하 테스트용 대량 데이터 생성 (기존 InitDb 대체)
+ * - jpashop.seed.enabled=true 또는 seed 프로필(application-seed.yml) 일 때만 동작, 그 외에는 빈 자체가 없음
+ * - 회원 / 카테고리(트리) / 상품(Book, Album, Movie) / 주문(배송, 주문상품) 순서로 생성
+ *   ㄴ 주문상품의 상품은 zipf 분포 -> 일부 인기 상품에 주문이 몰림 (id 가 작을수록 인기)
+ * - 테이블별로 id 범위를 스레드 수만큼 나눠서 스레드별 커넥션에서 JDBC batch insert
+ *   ㄴ id 는 현재 max(id) 다음부터 직접 부여 -> 기존 데이터에 추가 가능
+ *   ㄴ 끝나면 엔티티 시퀀스를 맞추고(IdSequenceMigrator) order_summary / sales_rollup 재생성
+ * - 테이블별 / 전체 rows/s 를 로그로 남김
+ * - 같은 random-seed 면 같은 데이터 생성
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "jpashop.seed.enabled", havingValue = "true")
+public class DataSeeder implements ApplicationRunner {
+
+    private static final double CANCEL_RATE = 0.1;
+    private static final int STOCK_QUANTITY = 1_000_000;
+    private static final int ORDER_DAYS = 365;
+
+    private final DataSource dataSource;
+    private final EntityManagerFactory emf;
+    private final IdSequenceMigrator idSequenceMigrator;
+    private final OrderSummaryService orderSummaryService;
+    private final SalesRollupService salesRollupService;
+    private final DataVersionTracker dataVersionTracker;
+
+    private final int members;
+    private final int categories;
+    private final int items;
+    private final int orders;
+    private final int maxItemsPerOrder;
+    private final double skew;
+    private final int threads;
+    private final int batchSize;
+    private final long randomSeed;
+
+    public DataSeeder(DataSource dataSource,
+                      EntityManagerFactory emf,
+                      IdSequenceMigrator idSequenceMigrator,
+                      OrderSummaryService orderSummaryService,
+                      SalesRollupService salesRollupService,
+                      DataVersionTracker dataVersionTracker,
+                      @Value("${jpashop.seed.members:100000}") int members,
+                      @Value("${jpashop.seed.categories:100}") int categories,
+                      @Value("${jpashop.seed.items:10000}") int items,
+                      @Value("${jpashop.seed.orders:100000}") int orders,
+                      @Value("${jpashop.seed.max-items-per-order:3}") int maxItemsPerOrder,
+                      @Value("${jpashop.seed.skew:1.0}") double skew,
+                      @Value("${jpashop.seed.threads:4}") int threads,
+                      @Value("${jpashop.seed.batch-size:1000}") int batchSize,
+                      @Value("${jpashop.seed.random-seed:42}") long randomSeed) {
+        this.dataSource = dataSource;
+        this.emf = emf;
+        this.idSequenceMigrator = idSequenceMigrator;
+        this.orderSummaryService = orderSummaryService;
+        this.salesRollupService = salesRollupService;
+        this.dataVersionTracker = dataVersionTracker;
+        this.members = members;
+        this.categories = categories;
+        this.items = items;
+        this.orders = orders;
+        this.maxItemsPerOrder = Math.max(1, maxItemsPerOrder);
+        this.skew = skew;
+        this.threads = Math.max(1, threads);
+        this.batchSize = Math.max(1, batchSize);
+        this.randomSeed = randomSeed;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        long memberBase = maxId("member", "member_id");
+        long categoryBase = maxId("category", "category_id");
+        long itemBase = maxId("item", "item_id");
+        long deliveryBase = maxId("delivery", "delivery_id");
+        long orderBase = maxId("orders", "order_id");
+        long orderItemBase = maxId("order_item", "order_item_id");
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long rows = 0;
+        try {
+            rows += seed(executor, "member", members, threads,
+                    (connection, from, to) -> insertMembers(connection, memberBase, from, to));
+            // 부모 카테고리를 먼저 넣어야 하므로 단일 스레드
+            rows += seed(executor, "category", categories, 1,
+                    (connection, from, to) -> insertCategories(connection, categoryBase, from, to));
+            rows += seed(executor, "item", items, threads,
+                    (connection, from, to) -> insertItems(connection, itemBase, categoryBase, from, to));
+
+            if (members > 0 && items > 0) {
+                ZipfSampler popularity = new ZipfSampler(items, skew);
+                rows += seed(executor, "orders", orders, threads,
+                        (connection, from, to) -> insertOrders(connection, popularity,
+                                memberBase, itemBase, deliveryBase, orderBase, orderItemBase, from, to));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        idSequenceMigrator.syncSequences();
+        orderSummaryService.rebuild();
+        salesRollupService.rebuild();
+        emf.getCache().evictAll();  // JDBC 로 직접 넣었으므로 2차 캐시 / 쿼리 캐시 비움
+        dataVersionTracker.bump(DataVersionTracker.Resource.values());
+
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        log.info("seed done. rows={}, elapsed={}ms, {} rows/s", rows, elapsed, rows * 1000 / elapsed);
+    }
+
+    private long seed(ExecutorService executor, String table, int count, int parallelism, RangeWriter writer) {
+        if (count <= 0) {
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        int rangeSize = (count + parallelism - 1) / parallelism;
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int from = 0; from < count; from += rangeSize) {
+            int rangeFrom = from;
+            int rangeTo = Math.min(count, from + rangeSize);
+            futures.add(executor.submit(() -> writeRange(writer, rangeFrom, rangeTo)));
+        }
+
+        long rows = 0;
+        try {
+            for (Future<Long> future : futures) {
+                rows += future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("seed interrupted. table=" + table, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("seed failed. table=" + table, e.getCause());
+        }
+
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        log.info("seed {} rows={}, threads={}, elapsed={}ms, {} rows/s",
+                table, rows, futures.size(), elapsed, rows * 1000 / elapsed);
+        return rows;
+    }
+
+    private long writeRange(RangeWriter writer, int from, int to) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                long rows = writer.write(connection, from, to);
+                connection.commit();
+                return rows;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private long insertMembers(Connection connection, long base, int from, int to) throws SQLException {
+        String sql = "insert into member (member_id, name, city, street, zipcode) values (?, ?, ?, ?, ?)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = from; i < to; i++) {
+                long id = base + i + 1;
+                ps.setLong(1, id);
+                ps.setString(2, "member" + id);
+                ps.setString(3, "city" + (id % 100));
+                ps.setString(4, "street" + (id % 10_000));
+                ps.setString(5, String.valueOf(10000 + id % 90000));
+                addBatch(ps, i - from + 1);
+            }
+            ps.executeBatch();
+        }
+        return to - from;
+    }
+
+    private long insertCategories(Connection connection, long base, int from, int to) throws SQLException {
+        Random random = new Random(randomSeed + base + from);
+        int roots = Math.max(1, categories / 10);
+        // 부모는 항상 앞 번호 -> 같은 구간(단일 스레드)에서 먼저 만든 path 를 이어 붙임
+        String[] paths = new String[to - from];
+        String sql = "insert into category (category_id, name, parent_id, path) values (?, ?, ?, ?)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = from; i < to; i++) {
+                long id = base + i + 1;
+                ps.setLong(1, id);
+                ps.setString(2, "category" + id);
+                if (i < roots) {
+                    ps.setNull(3, Types.BIGINT);
+                    paths[i - from] = "/" + id + "/";
+                } else {
+                    int parent = random.nextInt(i);
+                    ps.setLong(3, base + parent + 1);
+                    paths[i - from] = paths[parent - from] + id + "/";
+                }
+                ps.setString(4, paths[i - from]);
+                addBatch(ps, i - from + 1);
+            }
+            ps.executeBatch();
+        }
+        return to - from;
+    }
+
+    private long insertItems(Connection connection, long base, long categoryBase, int from, int to) throws SQLException {
+        Random random = new Random(randomSeed + base + from);
+        String itemSql = "insert into item (item_id, dtype, name, price, stock_quantity," +
+                " author, isbn, artist, ect, director, actor) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String categoryItemSql = "insert into category_item (category_id, item_id) values (?, ?)";
+        long rows = 0;
+        try (PreparedStatement itemPs = connection.prepareStatement(itemSql);
+             PreparedStatement categoryItemPs = connection.prepareStatement(categoryItemSql)) {
+            for (int i = from; i < to; i++) {
+                long id = base + i + 1;
+                String dtype = dtype(i);
+                itemPs.setLong(1, id);
+                itemPs.setString(2, dtype);
+                itemPs.setString(3, dtype + "-item" + id);
+                itemPs.setInt(4, price(id));
+                itemPs.setInt(5, STOCK_QUANTITY);
+                itemPs.setString(6, "B".equals(dtype) ? "author" + id % 1000 : null);
+                itemPs.setString(7, "B".equals(dtype) ? "isbn" + id : null);
+                itemPs.setString(8, "A".equals(dtype) ? "artist" + id % 1000 : null);
+                itemPs.setString(9, "A".equals(dtype) ? "etc" + id : null);
+                itemPs.setString(10, "M".equals(dtype) ? "director" + id % 1000 : null);
+                itemPs.setString(11, "M".equals(dtype) ? "actor" + id % 1000 : null);
+                itemPs.addBatch();
+                rows++;
+
+                if (categories > 0) {
+                    categoryItemPs.setLong(1, categoryBase + random.nextInt(categories) + 1);
+                    categoryItemPs.setLong(2, id);
+                    categoryItemPs.addBatch();
+                    rows++;
+                }
+
+                if ((i - from + 1) % batchSize == 0) {
+                    itemPs.executeBatch();
+                    categoryItemPs.executeBatch();
+                }
+            }
+            itemPs.executeBatch();
+            categoryItemPs.executeBatch();
+        }
+        return rows;
+    }
+
+    private long insertOrders(Connection connection, ZipfSampler popularity,
+                              long memberBase, long itemBase, long deliveryBase, long orderBase, long orderItemBase,
+                              int from, int to) throws SQLException {
+        Random random = new Random(randomSeed + orderBase + from);
+        LocalDateTime now = LocalDateTime.now();
+        String deliverySql = "insert into delivery (delivery_id, city, street, zipcode, status) values (?, ?, ?, ?, ?)";
+        String orderSql = "insert into orders (order_id, member_id, delivery_id, order_date, status) values (?, ?, ?, ?, ?)";
+        String orderItemSql = "insert into order_item (order_item_id, order_id, item_id, order_price, count) values (?, ?, ?, ?, ?)";
+        long rows = 0;
+        try (PreparedStatement deliveryPs = connection.prepareStatement(deliverySql);
+             PreparedStatement orderPs = connection.prepareStatement(orderSql);
+             PreparedStatement orderItemPs = connection.prepareStatement(orderItemSql)) {
+            for (int i = from; i < to; i++) {
+                long orderId = orderBase + i + 1;
+                long deliveryId = deliveryBase + i + 1;
+                long memberId = memberBase + random.nextInt(members) + 1;
+                LocalDateTime orderDate = now.minusMinutes(random.nextInt(ORDER_DAYS * 24 * 60));
+
+                deliveryPs.setLong(1, deliveryId);
+                deliveryPs.setString(2, "city" + (memberId % 100));
+                deliveryPs.setString(3, "street" + (memberId % 10_000));
+                deliveryPs.setString(4, String.valueOf(10000 + memberId % 90000));
+                deliveryPs.setString(5, (random.nextBoolean() ? DeliveryStatus.READY : DeliveryStatus.COMP).name());
+                deliveryPs.addBatch();
+
+                orderPs.setLong(1, orderId);
+                orderPs.setLong(2, memberId);
+                orderPs.setLong(3, deliveryId);
+                orderPs.setTimestamp(4, Timestamp.valueOf(orderDate));
+                orderPs.setString(5, (random.nextDouble() < CANCEL_RATE ? OrderStatus.CANCEL : OrderStatus.ORDER).name());
+                orderPs.addBatch();
+                rows += 2;
+
+                // 주문상품 id 는 주문마다 maxItemsPerOrder 칸씩 예약 (중간 빈 값 허용)
+                int itemCount = 1 + random.nextInt(maxItemsPerOrder);
+                for (int j = 0; j < itemCount; j++) {
+                    long itemId = itemBase + popularity.sample(random) + 1;
+                    orderItemPs.setLong(1, orderItemBase + (long) i * maxItemsPerOrder + j + 1);
+                    orderItemPs.setLong(2, orderId);
+                    orderItemPs.setLong(3, itemId);
+                    orderItemPs.setInt(4, price(itemId));
+                    orderItemPs.setInt(5, 1 + random.nextInt(3));
+                    orderItemPs.addBatch();
+                    rows++;
+                }
+
+                if ((i - from + 1) % batchSize == 0) {
+                    deliveryPs.executeBatch();
+                    orderPs.executeBatch();
+                    orderItemPs.executeBatch();
+                }
+            }
+            deliveryPs.executeBatch();
+            orderPs.executeBatch();
+            orderItemPs.executeBatch();
+        }
+        return rows;
+    }
+
+    private void addBatch(PreparedStatement ps, int pending) throws SQLException {
+        ps.addBatch();
+        if (pending % batchSize == 0) {
+            ps.executeBatch();
+        }
+    }
+
+    private long maxId(String table, String idColumn) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select coalesce(max(" + idColumn + "), 0) from " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw new IllegalStateException("max id lookup failed. table=" + table, e);
+        }
+    }
+
+    private static String dtype(int index) {
+        switch (index % 3) {
+            case 0: return "B";
+            case 1: return "A";
+            default: return "M";
+        }
+    }
+
+    private static int price(long itemId) {
+        return 1000 + (int) (itemId % 100) * 100;
+    }
+
+    @FunctionalInterface
+    private interface RangeWriter {
+        long write(Connection connection, int from, int to) throws SQLException;
+    }
+}
@@ -0,0 +1,40 @@
+package jpabook.jpashop.seed;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * ZipfSampler
+ * <pre>
+ * 0 ~ n-1 순위를 zipf 분포로 추출 (순위가 낮을수록 자주 나옴)
+ * - P(rank) ∝ 1 / (rank + 1)^exponent
+ * - 누적 분포를 미리 계산해두고 이진 탐색 -> 추출 O(log n), 스레드 간 공유 가능 (Random 은 호출자가 전달)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+class ZipfSampler {
+
+    private final double[] cumulative;
+
+    ZipfSampler(int n, double exponent) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be positive. n=" + n);
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= sum;
+        }
+    }
+
+    int sample(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,36 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * BulkOrder
+ * <pre>
+ * 대량 주문 1건 (회원 1명 + 주문상품 여러 개)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Getter
+public class BulkOrder {
+    private final Long memberId;
+    private final List<Line> lines;
+
+    public BulkOrder(Long memberId, List<Line> lines) {
+        this.memberId = memberId;
+        this.lines = lines;
+    }
+
+    @Getter
+    public static class Line {
+        private final Long itemId;
+        private final int count;
+
+        public Line(Long itemId, int count) {
+            this.itemId = itemId;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * CategoryService
+ * <pre>
+ * 카테고리 등록 / 하위 트리 상품 조회
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class CategoryService {
+
+    private final CategoryRepository categoryRepository;
+
+    /**
+     * 카테고리 등록
+     * @param parentId 상위 카테고리 id (null 이면 최상위)
+     * @return 등록한 카테고리 id
+     */
+    @Transactional
+    public Long saveCategory(String name, Long parentId) {
+        Category category = new Category();
+        category.setName(name);
+        categoryRepository.save(category);
+        if (parentId != null) {
+            findOne(parentId).addChildCategory(category);
+        }
+        return category.getId();
+    }
+
+    public Category findOne(Long categoryId) {
+        Category category = categoryRepository.findOne(categoryId);
+        if (category == null) {
+            throw new IllegalArgumentException("카테고리가 없습니다. categoryId=" + categoryId);
+        }
+        return category;
+    }
+
+    public List<Item> findSubtreeItems(Long categoryId, Long afterItemId, int limit) {
+        return categoryRepository.findSubtreeItems(findOne(categoryId), afterItemId, limit);
+    }
+
+    public long countSubtreeItems(Long categoryId) {
+        return categoryRepository.countSubtreeItems(findOne(categoryId));
+    }
+}
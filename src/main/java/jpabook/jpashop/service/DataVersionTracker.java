@@ -0,0 +1,117 @@
+package jpabook.jpashop.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DataVersionTracker
+ * <pre>
+ * 목록 API 응답의 ETag 용 데이터 버전
+ * - 데이터를 바꾸는 서비스 메서드가 bump -> 버전이 같으면 응답도 같다고 보고 304 응답 (VersionedETagInterceptor)
+ *   ㄴ ORDERS : 주문 / 취소 / 대량 주문
+ *   ㄴ ITEMS : 상품 등록 / 수정, 주문 / 취소(재고 변경)
+ *   ㄴ MEMBERS : 회원 정보 수정 (주문 목록에 회원명 포함)
+ * - 트랜잭션 안에서 bump 하면 커밋 후에 버전 증가 -> 커밋 전 데이터가 새 버전으로 캐시되지 않음, 롤백 시 증가 안 함
+ *   ㄴ 커밋 직전부터 트랜잭션 종료까지는 커밋 중(isCommitting) -> DB 커밋과 버전 증가 사이에도 변경 여부를 알 수 있음
+ * - 버전은 프로세스 메모리에만 있음 -> 기동마다 다른 instanceId 를 ETag 에 포함
+ *   ㄴ 여러 인스턴스로 운영하면 다른 인스턴스의 변경을 모르므로 공유 저장소(redis 등) 버전으로 바꿔야 함
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Component
+public class DataVersionTracker {
+
+    public enum Resource {
+        ORDERS, ITEMS, MEMBERS
+    }
+
+    private final String instanceId = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Resource, AtomicLong> versions = new EnumMap<>(Resource.class);
+    private final Map<Resource, AtomicLong> committing = new EnumMap<>(Resource.class);
+
+    public DataVersionTracker() {
+        for (Resource resource : Resource.values()) {
+            versions.put(resource, new AtomicLong());
+            committing.put(resource, new AtomicLong());
+        }
+    }
+
+    public long version(Resource resource) {
+        return versions.get(resource).get();
+    }
+
+    /**
+     * 트랜잭션 안이면 커밋 후, 아니면 바로 버전 증가
+     */
+    public void bump(Resource... resources) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(resources);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean beforeCommit;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                add(committing, 1, resources);
+                beforeCommit = true;
+            }
+
+            @Override
+            public void afterCommit() {
+                increment(resources);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (beforeCommit) {
+                    add(committing, -1, resources);
+                }
+            }
+        });
+    }
+
+    /**
+     * bump 한 트랜잭션이 커밋 중인지 (커밋 직전 ~ 버전 증가 후 트랜잭션 종료)
+     * - false 를 확인한 뒤 읽은 버전은 그 전에 커밋된 변경을 모두 포함
+     */
+    public boolean isCommitting(Resource... resources) {
+        for (Resource resource : resources) {
+            if (committing.get(resource).get() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void increment(Resource... resources) {
+        add(versions, 1, resources);
+    }
+
+    private static void add(Map<Resource, AtomicLong> counters, long delta, Resource... resources) {
+        for (Resource resource : resources) {
+            counters.get(resource).addAndGet(delta);
+        }
+    }
+
+    /**
+     * @return 강한 ETag (따옴표 포함), 예) "kx3f9a-orders.12-members.3"
+     */
+    public String etag(Resource... resources) {
+        StringBuilder etag = new StringBuilder("\"").append(instanceId);
+        for (Resource resource : resources) {
+            etag.append('-')
+                    .append(resource.name().toLowerCase())
+                    .append('.')
+                    .append(version(resource));
+        }
+        return etag.append('"').toString();
+    }
+}
@@ -15,10 +15,13 @@ import java.util.List;
 public class ItemService {
 
     private final ItemRepository itemRepository;
+    private final StockService stockService;
+    private final DataVersionTracker dataVersionTracker;
 
     @Transactional
     public void saveItem(Item item) {
         itemRepository.save(item);
+        dataVersionTracker.bump(DataVersionTracker.Resource.ITEMS);
     }
 
     @Transactional
@@ -28,7 +31,8 @@ public class ItemService {
         // TODO 리팩토링 : set 보다는 의미있는 메서드를 엔티티에 change 로 추가하여 하는게 맞음(유지보수를 위해)
         findItem.setName(name);
         findItem.setPrice(price);
-        findItem.setStockQuantity(stockQuantity);
+        stockService.changeStock(findItem, stockQuantity);
+        dataVersionTracker.bump(DataVersionTracker.Resource.ITEMS);
     }
 
     public List<Item> findItems() {
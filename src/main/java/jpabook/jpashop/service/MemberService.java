@@ -23,6 +23,7 @@ import java.util.List;
 public class MemberService {
 
     private final MemberRepository memberRepository;
+    private final DataVersionTracker dataVersionTracker;
 
     /**
      * 회원 가입
@@ -59,5 +60,6 @@ public class MemberService {
     public void update(Long id, String name) {
         Member member = memberRepository.findById(id).orElseThrow();
         member.setName(name);
+        dataVersionTracker.bump(DataVersionTracker.Resource.MEMBERS);
     }
 }
@@ -0,0 +1,89 @@
+package jpabook.jpashop.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * OrderExportService
+ * <pre>
+ * 주문 전체 NDJSON export
+ * - 주문 1건(주문상품 포함)을 JSON 한 줄로 바로 출력 -> 주문 수와 관계 없이 힙 사용량 일정
+ * - writeJson : 전체 주문 JSON 배열을 DTO 없이 row 에서 바로 출력 (OrderJsonWriter)
+ * - StreamingResponseBody 는 별도 스레드에서 실행되므로 (OSIV 영향 X) 여기서 트랜잭션을 직접 염
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderExportService {
+
+    private static final byte NEW_LINE = '\n';
+
+    private final OrderQueryRepository orderQueryRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 주문 NDJSON 출력
+     * @param out 응답 스트림
+     * @param chunkSize fetch size / 영속성 컨텍스트 clear 주기 / flush 주기 (1 이상)
+     */
+    public void exportNdjson(OutputStream out, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize 는 1 이상이어야 합니다. chunkSize=" + chunkSize);
+        }
+        ObjectWriter writer = objectMapper.writerFor(OrderQueryDto.class);
+        int[] count = {0};
+
+        orderQueryRepository.streamAllByDto_flat(chunkSize, order -> {
+            try {
+                out.write(writer.writeValueAsBytes(order));
+                out.write(NEW_LINE);
+                if (++count[0] % chunkSize == 0) {
+                    out.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * 전체 주문 JSON 배열 출력 (/api/v5/orders, /api/v6.1/orders 와 같은 형식, o.id 순)
+     * @param out 응답 스트림
+     * @param fetchSize JDBC fetch size (1 이상)
+     * @return 출력한 주문 수
+     */
+    public long writeJson(OutputStream out, int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("fetchSize 는 1 이상이어야 합니다. fetchSize=" + fetchSize);
+        }
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            OrderJsonWriter writer = new OrderJsonWriter(generator);
+            writer.writeStart();
+            orderQueryRepository.scrollAllOrderRows(fetchSize, row -> {
+                try {
+                    writer.writeRow(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return writer.writeEnd();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package jpabook.jpashop.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * OrderJsonWriter
+ * <pre>
+ * o.id 순으로 정렬된 주문 * 주문상품 row 를 JsonGenerator 에 바로 씀 (OrderQueryDto 목록과 같은 JSON)
+ * - OrderQueryDto / OrderItemQueryDto / List 를 만들지 않고, Jackson 리플렉션(BeanSerializer)도 거치지 않음
+ * - 필드명은 미리 인코딩해둔 SerializedString 사용 (요청마다 이름 문자열 인코딩 / 이스케이프 없음)
+ * - 연속된 row 의 orderId 가 같으면 같은 주문 -> 주문이 바뀔 때 이전 주문의 orderItems 배열 / 객체를 닫음
+ * - 출력 형식 : [{"orderId", "name", "orderDate", "orderStatus", "address": {...}, "orderItems": [{"itemName", "orderPrice", "count"}]}]
+ *   ㄴ orderDate 는 스프링 부트 기본 ObjectMapper 와 같은 ISO-8601 문자열
+ * </pre>
+ *
+ * @version 1.0,
+ */
+public class OrderJsonWriter {
+
+    private static final SerializedString ORDER_ID = new SerializedString("orderId");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString ORDER_DATE = new SerializedString("orderDate");
+    private static final SerializedString ORDER_STATUS = new SerializedString("orderStatus");
+    private static final SerializedString ADDRESS = new SerializedString("address");
+    private static final SerializedString CITY = new SerializedString("city");
+    private static final SerializedString STREET = new SerializedString("street");
+    private static final SerializedString ZIPCODE = new SerializedString("zipcode");
+    private static final SerializedString ORDER_ITEMS = new SerializedString("orderItems");
+    private static final SerializedString ITEM_NAME = new SerializedString("itemName");
+    private static final SerializedString ORDER_PRICE = new SerializedString("orderPrice");
+    private static final SerializedString COUNT = new SerializedString("count");
+
+    private final JsonGenerator generator;
+    private Long currentOrderId;
+    private long orderCount;
+
+    public OrderJsonWriter(JsonGenerator generator) {
+        this.generator = generator;
+    }
+
+    public void writeStart() throws IOException {
+        generator.writeStartArray();
+    }
+
+    /**
+     * @param row [orderId, name, orderDate, orderStatus, address, itemName, orderPrice, count]
+     */
+    public void writeRow(Object[] row) throws IOException {
+        Long orderId = (Long) row[0];
+        if (!orderId.equals(currentOrderId)) {
+            if (currentOrderId != null) {
+                endOrder();
+            }
+            startOrder(orderId, (String) row[1], (LocalDateTime) row[2], (OrderStatus) row[3], (Address) row[4]);
+        }
+
+        generator.writeStartObject();
+        generator.writeFieldName(ITEM_NAME);
+        generator.writeString((String) row[5]);
+        generator.writeFieldName(ORDER_PRICE);
+        generator.writeNumber((Integer) row[6]);
+        generator.writeFieldName(COUNT);
+        generator.writeNumber((Integer) row[7]);
+        generator.writeEndObject();
+    }
+
+    /**
+     * 마지막 주문과 배열을 닫고 flush
+     * @return 쓴 주문 수
+     */
+    public long writeEnd() throws IOException {
+        if (currentOrderId != null) {
+            endOrder();
+        }
+        generator.writeEndArray();
+        generator.flush();
+        return orderCount;
+    }
+
+    private void startOrder(Long orderId, String name, LocalDateTime orderDate, OrderStatus orderStatus, Address address) throws IOException {
+        currentOrderId = orderId;
+        orderCount++;
+
+        generator.writeStartObject();
+        generator.writeFieldName(ORDER_ID);
+        generator.writeNumber(orderId);
+        generator.writeFieldName(NAME);
+        generator.writeString(name);
+        generator.writeFieldName(ORDER_DATE);
+        generator.writeString(orderDate == null ? null : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(orderDate));
+        generator.writeFieldName(ORDER_STATUS);
+        generator.writeString(orderStatus == null ? null : orderStatus.name());
+        generator.writeFieldName(ADDRESS);
+        if (address == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartObject();
+            generator.writeFieldName(CITY);
+            generator.writeString(address.getCity());
+            generator.writeFieldName(STREET);
+            generator.writeString(address.getStreet());
+            generator.writeFieldName(ZIPCODE);
+            generator.writeString(address.getZipcode());
+            generator.writeEndObject();
+        }
+        generator.writeFieldName(ORDER_ITEMS);
+        generator.writeStartArray();
+    }
+
+    private void endOrder() throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,173 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.OrderCursor;
+import jpabook.jpashop.domain.OrderSearch;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * OrderQueryAsyncService
+ * <pre>
+ * V5 DTO 조회(루트 + orderItem in 조회)를 별도 스레드에서 비동기로 실행
+ * - 각 쿼리는 전용 executor 스레드의 읽기 전용 트랜잭션(커넥션)에서 실행
+ *   ㄴ executor 는 스레드 수 / 큐 크기 고정, 큐가 차면 호출 스레드에서 직접 실행 (CallerRunsPolicy)
+ * - orderItem 조회는 주문 id 를 정렬 후 연속된 id 구간으로 나눠서 동시에 조회한 뒤 합침
+ *   ㄴ 구간당 min-partition-size 건 미만이면 나누지 않음
+ * - 건수 조회는 루트 조회와 동시에 실행 가능 (countOrdersAsync)
+ * - forEachPage : 페이지 N 의 orderItem 조회와 페이지 N+1 의 루트 조회를 겹쳐서 실행
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Service
+public class OrderQueryAsyncService {
+
+    private final OrderQueryRepository orderQueryRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ThreadPoolExecutor executor;
+    private final int partitions;
+    private final int minPartitionSize;
+
+    public OrderQueryAsyncService(OrderQueryRepository orderQueryRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${jpashop.order-query-async.threads:4}") int threads,
+                                  @Value("${jpashop.order-query-async.queue-capacity:100}") int queueCapacity,
+                                  @Value("${jpashop.order-query-async.partitions:4}") int partitions,
+                                  @Value("${jpashop.order-query-async.min-partition-size:100}") int minPartitionSize) {
+        this.orderQueryRepository = orderQueryRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("order-query-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.partitions = Math.max(1, partitions);
+        this.minPartitionSize = Math.max(1, minPartitionSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * OrderQueryRepository.findAllByDto_optimization(orderSearch, cursor, limit) 의 비동기 버전
+     */
+    public List<OrderQueryDto> findAllByDto_optimization(OrderSearch orderSearch, OrderCursor cursor, int limit) {
+        return join(findPageAsync(orderSearch, cursor, limit));
+    }
+
+    public CompletableFuture<List<OrderQueryDto>> findPageAsync(OrderSearch orderSearch, OrderCursor cursor, int limit) {
+        return supplyAsync(() -> orderQueryRepository.findOrderPage(orderSearch, cursor, limit))
+                .thenCompose(this::attachOrderItems);
+    }
+
+    public CompletableFuture<Long> countOrdersAsync(OrderSearch orderSearch) {
+        return supplyAsync(() -> orderQueryRepository.countOrders(orderSearch));
+    }
+
+    /**
+     * 검색 조건의 전체 주문을 limit 건씩 keyset 페이지로 읽음
+     * - 현재 페이지의 orderItem 을 조회하는 동안 다음 페이지 루트 조회를 미리 시작
+     * @param consumer orderItems 까지 채워진 페이지를 순서대로 전달 받음
+     * @return 전체 주문 수
+     */
+    public long forEachPage(OrderSearch orderSearch, int limit, Consumer<List<OrderQueryDto>> consumer) {
+        OrderCursor cursor = OrderCursor.first();
+        CompletableFuture<List<OrderQueryDto>> roots = supplyAsync(() -> orderQueryRepository.findOrderPage(orderSearch, OrderCursor.first(), limit));
+        long count = 0;
+        while (roots != null) {
+            List<OrderQueryDto> page = join(roots);
+            if (page.isEmpty()) {
+                break;
+            }
+
+            CompletableFuture<List<OrderQueryDto>> orders = attachOrderItems(page);
+            roots = null;
+            if (page.size() >= limit) {
+                OrderQueryDto last = page.get(page.size() - 1);
+                OrderCursor next = cursor.next(last.getOrderId(), last.getOrderDate());
+                roots = supplyAsync(() -> orderQueryRepository.findOrderPage(orderSearch, next, limit));
+                cursor = next;
+            }
+
+            consumer.accept(join(orders));
+            count += page.size();
+        }
+        return count;
+    }
+
+    private CompletableFuture<List<OrderQueryDto>> attachOrderItems(List<OrderQueryDto> orders) {
+        List<Long> orderIds = orders.stream()
+                .map(OrderQueryDto::getOrderId)
+                .collect(Collectors.toList());
+        List<CompletableFuture<Map<Long, List<OrderItemQueryDto>>>> futures = partition(orderIds, partitions, minPartitionSize).stream()
+                .map(ids -> supplyAsync(() -> orderQueryRepository.findOrderItemMap(ids)))
+                .collect(Collectors.toList());
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(v -> {
+                    Map<Long, List<OrderItemQueryDto>> orderItemMap = new HashMap<>();
+                    futures.forEach(f -> orderItemMap.putAll(f.join()));
+                    orders.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+                    return orders;
+                });
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> readOnlyTransaction.execute(status -> query.get()), executor);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * id 를 정렬 후 연속된 구간으로 분할 (최대 partitions 개, 구간당 최소 minPartitionSize 건)
+     */
+    static List<List<Long>> partition(List<Long> ids, int partitions, int minPartitionSize) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> sorted = new ArrayList<>(ids);
+        Collections.sort(sorted);
+        int count = Math.max(1, Math.min(partitions, sorted.size() / minPartitionSize));
+        int size = (sorted.size() + count - 1) / count;
+
+        List<List<Long>> result = new ArrayList<>(count);
+        for (int from = 0; from < sorted.size(); from += size) {
+            result.add(sorted.subList(from, Math.min(sorted.size(), from + size)));
+        }
+        return result;
+    }
+}
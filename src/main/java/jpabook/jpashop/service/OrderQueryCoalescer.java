@@ -0,0 +1,127 @@
+package jpabook.jpashop.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jpabook.jpashop.domain.OrderCursor;
+import jpabook.jpashop.domain.OrderSearch;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
+import jpabook.jpashop.service.DataVersionTracker.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * OrderQueryCoalescer
+ * <pre>
+ * 주문 목록 DTO 조회 앞단의 요청 합치기 (SingleFlight)
+ * - 대시보드 새로고침처럼 같은 조회가 동시에 몰리면 DB 조회는 1번만 하고 결과를 공유
+ *   ㄴ /api/v5/orders, /api/v5.1/orders (페이지, 건수), /api/v4/simple-orders
+ * - key = 조회 조건 + 결과에 영향을 주는 데이터 버전 (DataVersionTracker)
+ *   ㄴ 버전은 커밋 후(afterCommit)에 증가 -> DB 커밋과 버전 증가 사이에 들어온 호출은 이전 버전 key 를 봄
+ *   ㄴ 그래서 관련 데이터가 커밋 중(DataVersionTracker.isCommitting)이면 합치지 않고 직접 조회
+ *   ㄴ 커밋 중이 아님을 확인한 뒤 버전을 읽으므로, 커밋이 끝난 뒤 들어온 호출은 이전 실행 / 재사용 결과에 합류하지 않음
+ * - 트랜잭션 안에서의 호출은 합치지 않음 (자기 트랜잭션의 변경을 봐야 함)
+ * - 결과 목록은 변경 불가 (여러 요청이 같은 목록 / DTO 를 공유)
+ * - DTO 조회만 대상, 엔티티는 영속성 컨텍스트마다 달라야 하므로 공유하지 않음
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Service
+public class OrderQueryCoalescer {
+
+    private static final Resource[] ORDER_RESOURCES = {Resource.ORDERS, Resource.ITEMS, Resource.MEMBERS};
+    private static final Resource[] SIMPLE_ORDER_RESOURCES = {Resource.ORDERS, Resource.MEMBERS};
+
+    private final OrderQueryRepository orderQueryRepository;
+    private final OrderRepository orderRepository;
+    private final DataVersionTracker dataVersionTracker;
+    private final boolean enabled;
+
+    private final SingleFlight allOrders;
+    private final SingleFlight orderPages;
+    private final SingleFlight orderCounts;
+    private final SingleFlight simpleOrders;
+
+    public OrderQueryCoalescer(OrderQueryRepository orderQueryRepository,
+                               OrderRepository orderRepository,
+                               DataVersionTracker dataVersionTracker,
+                               MeterRegistry meterRegistry,
+                               @Value("${jpashop.order-query-coalesce.enabled:true}") boolean enabled,
+                               @Value("${jpashop.order-query-coalesce.reuse-ms:0}") long reuseMillis) {
+        this.orderQueryRepository = orderQueryRepository;
+        this.orderRepository = orderRepository;
+        this.dataVersionTracker = dataVersionTracker;
+        this.enabled = enabled;
+        this.allOrders = new SingleFlight("orders", reuseMillis, meterRegistry);
+        this.orderPages = new SingleFlight("orderPage", reuseMillis, meterRegistry);
+        this.orderCounts = new SingleFlight("orderCount", reuseMillis, meterRegistry);
+        this.simpleOrders = new SingleFlight("simpleOrders", reuseMillis, meterRegistry);
+    }
+
+    /**
+     * OrderQueryRepository.findAllByDto_optimization()
+     */
+    public List<OrderQueryDto> findAllByDto_optimization() {
+        return execute(allOrders, key(ORDER_RESOURCES),
+                () -> Collections.unmodifiableList(orderQueryRepository.findAllByDto_optimization()));
+    }
+
+    /**
+     * OrderQueryRepository.findAllByDto_optimization(orderSearch, cursor, limit)
+     */
+    public List<OrderQueryDto> findAllByDto_optimization(OrderSearch orderSearch, OrderCursor cursor, int limit) {
+        return execute(orderPages,
+                key(ORDER_RESOURCES, orderSearch.getMemberName(), orderSearch.getOrderStatus(),
+                        cursor.getOrderId(), cursor.getOrderDate(), limit),
+                () -> Collections.unmodifiableList(orderQueryRepository.findAllByDto_optimization(orderSearch, cursor, limit)));
+    }
+
+    /**
+     * OrderQueryRepository.countOrders(orderSearch)
+     */
+    public long countOrders(OrderSearch orderSearch) {
+        return execute(orderCounts,
+                key(SIMPLE_ORDER_RESOURCES, orderSearch.getMemberName(), orderSearch.getOrderStatus()),
+                () -> orderQueryRepository.countOrders(orderSearch));
+    }
+
+    /**
+     * OrderRepository.findOrderDtos()
+     */
+    public List<OrderSimpleQueryDto> findOrderDtos() {
+        return execute(simpleOrders, key(SIMPLE_ORDER_RESOURCES),
+                () -> Collections.unmodifiableList(orderRepository.findOrderDtos()));
+    }
+
+    private <T> T execute(SingleFlight singleFlight, Object key, Supplier<T> query) {
+        if (!enabled || key == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return query.get();
+        }
+        return singleFlight.execute(key, query);
+    }
+
+    /**
+     * 데이터 버전 + 조회 조건
+     * @return 관련 데이터가 커밋 중이면 null (합치지 않음)
+     */
+    private List<Object> key(Resource[] resources, Object... parameters) {
+        if (dataVersionTracker.isCommitting(resources)) {
+            return null;
+        }
+        Object[] key = new Object[resources.length + parameters.length];
+        for (int i = 0; i < resources.length; i++) {
+            key[i] = dataVersionTracker.version(resources[i]);
+        }
+        System.arraycopy(parameters, 0, key, resources.length, parameters.length);
+        return Arrays.asList(key);
+    }
+}
@@ -5,11 +5,18 @@ import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.repository.ItemRepository;
 import jpabook.jpashop.repository.MemberRepository;
 import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSummaryRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * OrderService
@@ -28,6 +35,10 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final MemberRepository memberRepository;
     private final ItemRepository itemRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final StockService stockService;
+    private final SalesRollupService salesRollupService;
+    private final DataVersionTracker dataVersionTracker;
 
     /**
      * 주문
@@ -42,8 +53,9 @@ public class OrderService {
         Delivery delivery = new Delivery();
         delivery.setAddress(member.getAddress());
 
-        // 주문 상품 생성
-        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        // 재고 차감 후 주문 상품 생성
+        stockService.removeStock(item, count);
+        OrderItem orderItem = OrderItem.createReservedOrderItem(item, item.getPrice(), count);
 
         // 주문 생성
         Order order = Order.createOrder(member, delivery, orderItem);
@@ -51,9 +63,86 @@ public class OrderService {
         // 주문 저장
         orderRepository.save(order);
 
+        // 조회용 요약 저장 (같은 트랜잭션)
+        orderSummaryRepository.save(OrderSummary.createOrderSummary(order));
+        salesRollupService.recordOrder(order);
+
+        dataVersionTracker.bump(DataVersionTracker.Resource.ORDERS, DataVersionTracker.Resource.ITEMS);
         return order.getId();
     }
 
+    /**
+     * 대량 주문 (한 트랜잭션)
+     * - 회원, 상품은 각각 in 쿼리 1번으로 조회, 없는 회원 / 상품이 있으면 재고 차감 전에 실패
+     * - 재고는 상품별 총 수량으로 상품당 1번 차감, 동시 대량 주문끼리 교착(deadlock) 되지 않도록 상품 id 순서로 차감
+     * - 주문 / 주문상품 / 배송 / 주문요약 insert 는 hibernate.jdbc.batch_size 단위로 JDBC batch 실행
+     * @return 생성된 주문 id (요청 순서)
+     */
+    @Transactional
+    public List<Long> orderBulk(List<BulkOrder> bulkOrders) {
+        // 엔티티 조회 (in 쿼리)
+        Map<Long, Member> members = memberRepository.findAllById(bulkOrders.stream()
+                        .map(BulkOrder::getMemberId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Member::getId, Function.identity()));
+
+        Map<Long, Integer> quantities = new TreeMap<>();
+        bulkOrders.forEach(bulkOrder -> bulkOrder.getLines()
+                .forEach(line -> quantities.merge(line.getItemId(), line.getCount(), Integer::sum)));
+        Map<Long, Item> items = itemRepository.findAllById(new ArrayList<>(quantities.keySet())).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        // 검증 (재고 UPDATE 전)
+        bulkOrders.forEach(bulkOrder -> getMember(members, bulkOrder.getMemberId()));
+        quantities.keySet().forEach(itemId -> getItem(items, itemId));
+
+        // 재고 차감 (상품당 1번, 상품 id 순서)
+        quantities.forEach((itemId, quantity) -> stockService.removeStock(items.get(itemId), quantity));
+
+        List<Long> orderIds = new ArrayList<>();
+        for (BulkOrder bulkOrder : bulkOrders) {
+            Member member = members.get(bulkOrder.getMemberId());
+
+            // 배송 정보 생성
+            Delivery delivery = new Delivery();
+            delivery.setAddress(member.getAddress());
+
+            // 주문 상품 생성 (재고는 위에서 차감)
+            OrderItem[] orderItems = bulkOrder.getLines().stream()
+                    .map(line -> {
+                        Item item = items.get(line.getItemId());
+                        return OrderItem.createReservedOrderItem(item, item.getPrice(), line.getCount());
+                    })
+                    .toArray(OrderItem[]::new);
+
+            // 주문 생성, 저장
+            Order order = Order.createOrder(member, delivery, orderItems);
+            orderRepository.save(order);
+            orderSummaryRepository.save(OrderSummary.createOrderSummary(order));
+            salesRollupService.recordOrder(order);
+            orderIds.add(order.getId());
+        }
+
+        dataVersionTracker.bump(DataVersionTracker.Resource.ORDERS, DataVersionTracker.Resource.ITEMS);
+        return orderIds;
+    }
+
+    private Member getMember(Map<Long, Member> members, Long memberId) {
+        Member member = members.get(memberId);
+        if (member == null) {
+            throw new NoSuchElementException("존재하지 않는 회원입니다. memberId=" + memberId);
+        }
+        return member;
+    }
+
+    private Item getItem(Map<Long, Item> items, Long itemId) {
+        Item item = items.get(itemId);
+        if (item == null) {
+            throw new NoSuchElementException("존재하지 않는 상품입니다. itemId=" + itemId);
+        }
+        return item;
+    }
+
     /**
      * 주문 취소
      */
@@ -62,8 +151,24 @@ public class OrderService {
         // 주문 엔티티 조회
         Order order = orderRepository.findOne(orderId);
 
-        // 주문 취소
-        order.cancel();
+        // 주문 취소 후 재고 복구
+        order.markCanceled();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            stockService.addStock(orderItem.getItem(), orderItem.getCount());
+        }
+
+        // 조회용 요약 상태 변경 (요약이 없던 주문이면 새로 생성)
+        OrderSummary summary = orderSummaryRepository.findOne(orderId);
+        if (summary == null) {
+            orderSummaryRepository.save(OrderSummary.createOrderSummary(order));
+        } else {
+            summary.changeStatus(order.getStatus());
+        }
+
+        // 매출 집계 : 주문 시 더한 값을 취소로 옮김
+        salesRollupService.recordCancel(order);
+
+        dataVersionTracker.bump(DataVersionTracker.Resource.ORDERS, DataVersionTracker.Resource.ITEMS);
     }
 
     /**
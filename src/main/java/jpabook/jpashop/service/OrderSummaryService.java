@@ -0,0 +1,50 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.OrderSummary;
+import jpabook.jpashop.repository.OrderSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * OrderSummaryService
+ * <pre>
+ * 주문 요약(order_summary) 조회 / 재생성
+ * - 주문 / 취소 시 갱신은 OrderService 에서 처리
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderSummaryService {
+
+    private final OrderSummaryRepository orderSummaryRepository;
+
+    /**
+     * 주문 요약 목록
+     */
+    public List<OrderSummary> findSummaries(OrderStatus status, Long afterOrderId, int limit) {
+        return orderSummaryRepository.findAll(status, afterOrderId, limit);
+    }
+
+    /**
+     * 원본 테이블 기준으로 주문 요약 전체 재생성
+     * - 주문 / 취소가 없을 때 실행 (기동 시 DataSeeder, 관리 API)
+     * @return 생성된 요약 수
+     */
+    @Transactional
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        int count = orderSummaryRepository.rebuild();
+        log.info("order_summary rebuild count={}, elapsed={}ms", count, System.currentTimeMillis() - start);
+        return count;
+    }
+}
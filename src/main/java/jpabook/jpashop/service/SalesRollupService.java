@@ -0,0 +1,271 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.SalesDelta;
+import jpabook.jpashop.domain.SalesRollup;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.SalesRollupRepository;
+import jpabook.jpashop.repository.SalesTotalDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * SalesRollupService
+ * <pre>
+ * 매출 집계(sales_rollup) 갱신 / 재생성 / 리포트 조회
+ * - 주문 / 취소 : OrderService 트랜잭션에서 변경분(SalesDelta) insert 만 함
+ *   ㄴ 취소는 주문 시 더한 값을 ORDER 에서 빼고 CANCEL 로 옮김
+ * - fold : fold-interval-ms 마다 별도 스레드 1개에서 한 트랜잭션으로 변경분 선점 -> 집계에 합산 -> 삭제
+ *   ㄴ 집계 row 를 갱신하는 곳이 이 스레드뿐이라 집계 row 생성 경합 / 같은 날 주문끼리 row 락 대기가 없음
+ *   ㄴ 커밋 전에 죽으면 변경분이 그대로 남아 다음 fold (기동 시 포함) 에서 반영
+ *   ㄴ 리포트에는 최대 fold 주기만큼 늦게 반영됨
+ * - rebuild : orders / order_item 에서 전체 재생성 (반영 전 변경분은 삭제)
+ *   ㄴ SERIALIZABLE 트랜잭션 -> 변경분 선점 / 삭제와 재생성 INSERT ... SELECT 가 같은 스냅샷을 봄
+ *      -> 삭제한 변경분의 주문은 재생성에 포함, 이후 커밋된 주문의 변경분은 남아서 다음 fold 에서 반영 (누락 / 중복 없음)
+ *   ㄴ 같은 인스턴스의 fold 와는 같은 락으로 직렬화 (rebuild 커밋 전에 fold 가 집계를 갱신하지 않음)
+ *   ㄴ 다른 인스턴스의 fold 와는 변경분 row 락으로 경합 -> 교착 / 락 대기 실패로 롤백되면 재시도 (바깥 트랜잭션이 없을 때)
+ *   ㄴ 따라서 주문 / 취소를 멈추지 않고 실행 가능 (SalesRollupServiceTest.주문_중_재생성)
+ * - fold / rebuild 는 직접 쓰기 트랜잭션을 시작 (클래스의 readOnly 트랜잭션으로 시작하면 복제 DB 로 라우팅됨)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class SalesRollupService {
+
+    private static final int REBUILD_ATTEMPTS = 3;
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate rebuildTemplate;
+    private final long foldIntervalMs;
+    private final AtomicLong foldSequence = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final ReentrantLock foldLock = new ReentrantLock();
+    private ScheduledExecutorService scheduler;
+
+    public SalesRollupService(SalesRollupRepository salesRollupRepository,
+                              ItemRepository itemRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${jpashop.sales-rollup.fold-interval-ms:1000}") long foldIntervalMs) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.itemRepository = itemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+        this.foldIntervalMs = foldIntervalMs;
+    }
+
+    /**
+     * 이전 실행에서 반영하지 못한 변경분 반영 후 주기적 fold 시작
+     */
+    @PostConstruct
+    public void start() {
+        int recovered = fold();
+        if (recovered > 0) {
+            log.info("sales rollup recovered delta rows={}", recovered);
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("sales-rollup-fold-"));
+        scheduler.scheduleWithFixedDelay(this::foldQuietly, foldIntervalMs, foldIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        foldQuietly();
+    }
+
+    /**
+     * 주문 매출 기록 (주문 트랜잭션에서 호출)
+     */
+    @Transactional
+    public void recordOrder(Order order) {
+        for (OrderItem orderItem : order.getOrderItems()) {
+            salesRollupRepository.save(SalesDelta.createSalesDelta(order, orderItem, OrderStatus.ORDER, 1));
+        }
+    }
+
+    /**
+     * 주문 취소 기록 : ORDER 에서 빼고 CANCEL 에 더함 (원래 주문일 기준)
+     */
+    @Transactional
+    public void recordCancel(Order order) {
+        for (OrderItem orderItem : order.getOrderItems()) {
+            salesRollupRepository.save(SalesDelta.createSalesDelta(order, orderItem, OrderStatus.ORDER, -1));
+            salesRollupRepository.save(SalesDelta.createSalesDelta(order, orderItem, OrderStatus.CANCEL, 1));
+        }
+    }
+
+    /**
+     * 반영 전 변경분을 집계에 합산
+     * @return 반영한 변경분 row 수
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public int fold() {
+        foldLock.lock();
+        try {
+            long foldId = foldSequence.incrementAndGet();
+            Integer folded = transactionTemplate.execute(status -> {
+                int claimed = salesRollupRepository.claimDeltas(foldId);
+                if (claimed == 0) {
+                    return 0;
+                }
+                salesRollupRepository.foldDeltas(foldId);
+                salesRollupRepository.deleteDeltas(foldId);
+                return claimed;
+            });
+            return folded == null ? 0 : folded;
+        } finally {
+            foldLock.unlock();
+        }
+    }
+
+    private void foldQuietly() {
+        try {
+            fold();
+        } catch (RuntimeException e) {
+            // 변경분은 그대로 남아 있으므로 다음 주기에 다시 시도
+            log.warn("sales rollup fold failed", e);
+        }
+    }
+
+    /**
+     * 원본 테이블 기준으로 집계 전체 재생성
+     * - 바깥 트랜잭션이 있으면 그 트랜잭션에서 1번만 실행 (롤백되면 바깥 트랜잭션도 롤백)
+     * @return 생성된 집계 row 수
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public int rebuild() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return rebuildInTransaction();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Integer count = rebuildTemplate.execute(status -> rebuildInTransaction());
+                return count == null ? 0 : count;
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= REBUILD_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("sales rollup rebuild retry attempt={}, cause={}", attempt, e.getMessage());
+            }
+        }
+    }
+
+    private int rebuildInTransaction() {
+        lockFoldUntilCompletion();
+        long start = System.currentTimeMillis();
+        long foldId = foldSequence.incrementAndGet();
+        salesRollupRepository.claimDeltas(foldId);
+        salesRollupRepository.deleteDeltas(foldId);
+        int count = salesRollupRepository.rebuild();
+        log.info("sales rollup rebuild count={}, elapsed={}ms", count, System.currentTimeMillis() - start);
+        return count;
+    }
+
+    /**
+     * rebuild 트랜잭션이 끝날 때까지 fold 대기
+     */
+    private void lockFoldUntilCompletion() {
+        foldLock.lock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            foldLock.unlock();
+            throw new IllegalStateException("rebuild 는 트랜잭션 안에서 실행해야 합니다.");
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                foldLock.unlock();
+            }
+        });
+    }
+
+    /**
+     * 일별 / 월별 전체 상품 합계
+     * @param status null 이면 상태별로 각각
+     */
+    public List<SalesTotalDto> findPeriodTotals(SalesRollup.Grain grain, LocalDate from, LocalDate to, OrderStatus status) {
+        return salesRollupRepository.findPeriodTotals(grain, from, to, status);
+    }
+
+    public List<SalesTotalDto> findStatusTotals(LocalDate from, LocalDate to) {
+        return salesRollupRepository.sumByStatus(from, to);
+    }
+
+    /**
+     * 기간 내 상품별 합계, 매출 순 상위 limit 개
+     * - 온전히 포함된 달은 월별 row, 앞뒤로 남는 날은 일별 row 로 합산
+     */
+    public List<SalesTotalDto> findItemTotals(LocalDate from, LocalDate to, OrderStatus status, int limit) {
+        Map<Long, SalesTotalDto> totals = new LinkedHashMap<>();
+
+        LocalDate fullMonthStart = from.getDayOfMonth() == 1 ? from : from.plusMonths(1).withDayOfMonth(1);
+        LocalDate fullMonthEnd = to.plusDays(1).withDayOfMonth(1);  // 이 날 이전까지가 온전한 달
+        if (fullMonthStart.isBefore(fullMonthEnd)) {
+            merge(totals, salesRollupRepository.sumByItem(SalesRollup.Grain.MONTH, fullMonthStart, fullMonthEnd.minusMonths(1), status));
+            if (from.isBefore(fullMonthStart)) {
+                merge(totals, salesRollupRepository.sumByItem(SalesRollup.Grain.DAY, from, fullMonthStart.minusDays(1), status));
+            }
+            if (!to.isBefore(fullMonthEnd)) {
+                merge(totals, salesRollupRepository.sumByItem(SalesRollup.Grain.DAY, fullMonthEnd, to, status));
+            }
+        } else {
+            merge(totals, salesRollupRepository.sumByItem(SalesRollup.Grain.DAY, from, to, status));
+        }
+
+        List<SalesTotalDto> result = totals.values().stream()
+                .sorted(Comparator.comparingLong(SalesTotalDto::getRevenue).reversed()
+                        .thenComparing(SalesTotalDto::getItemId))
+                .limit(limit)
+                .collect(Collectors.toList());
+        if (result.isEmpty()) {
+            return result;
+        }
+
+        // 상품명은 결과 상품만 in 쿼리 1번
+        Map<Long, String> names = itemRepository.findAllById(result.stream()
+                        .map(SalesTotalDto::getItemId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(Item::getId, Item::getName));
+        result.forEach(row -> row.setItemName(names.get(row.getItemId())));
+        return result;
+    }
+
+    private static void merge(Map<Long, SalesTotalDto> totals, List<SalesTotalDto> rows) {
+        rows.forEach(row -> totals.merge(row.getItemId(), row, (a, b) -> {
+            a.add(b);
+            return a;
+        }));
+    }
+}
@@ -0,0 +1,124 @@
+package jpabook.jpashop.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * SingleFlight
+ * <pre>
+ * 같은 key 의 동시 호출을 1번 실행으로 합침
+ * - 처음 호출한 스레드(leader)가 직접 실행, 실행 중에 들어온 호출은 leader 결과(또는 예외)를 기다려서 그대로 받음
+ * - reuseMillis > 0 : 실행이 끝난 뒤에도 그 시간 동안은 같은 key 호출에 결과 재사용, 0 이면 실행 중인 호출만 합침
+ *   ㄴ 예외는 재사용하지 않음 (실패하면 바로 제거, 다음 호출은 다시 실행)
+ * - 결과 객체를 여러 호출이 공유하므로 호출하는 쪽에서 변경하면 안 됨
+ * - 메트릭 jpashop.query.coalesce (query, result 태그)
+ *   ㄴ result=executed : 직접 실행, coalesced : 실행 중인 호출에 합류, reused : 끝난 결과 재사용
+ * </pre>
+ *
+ * @version 1.0,
+ */
+class SingleFlight {
+
+    private final long reuseMillis;
+    private final ConcurrentMap<Object, Flight> flights = new ConcurrentHashMap<>();
+
+    private final Counter executed;
+    private final Counter coalesced;
+    private final Counter reused;
+
+    SingleFlight(String query, long reuseMillis, MeterRegistry meterRegistry) {
+        this.reuseMillis = Math.max(0, reuseMillis);
+        this.executed = counter(meterRegistry, query, "executed");
+        this.coalesced = counter(meterRegistry, query, "coalesced");
+        this.reused = counter(meterRegistry, query, "reused");
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String query, String result) {
+        return Counter.builder("jpashop.query.coalesce")
+                .description("calls that ran a query or shared another call's result")
+                .tag("query", query)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T execute(Object key, Supplier<T> query) {
+        while (true) {
+            Flight flight = flights.get(key);
+            if (flight != null) {
+                if (!flight.isDone()) {
+                    coalesced.increment();
+                    return (T) join(flight);
+                }
+                if (!flight.isExpired(System.currentTimeMillis())) {
+                    reused.increment();
+                    return (T) join(flight);
+                }
+                flights.remove(key, flight);
+                continue;
+            }
+
+            Flight mine = new Flight();
+            if (flights.putIfAbsent(key, mine) != null) {
+                continue;
+            }
+            executed.increment();
+            return lead(key, mine, query);
+        }
+    }
+
+    private <T> T lead(Object key, Flight flight, Supplier<T> query) {
+        T result;
+        try {
+            result = query.get();
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+
+        if (reuseMillis == 0) {
+            flights.remove(key, flight);
+            flight.complete(result);
+        } else {
+            long now = System.currentTimeMillis();
+            flight.expiresAt = now + reuseMillis;
+            flight.complete(result);
+            // 다시 조회되지 않는 key 가 남지 않도록 만료된 결과 정리
+            flights.values().removeIf(f -> f.isDone() && f.isExpired(now));
+        }
+        return result;
+    }
+
+    int size() {
+        return flights.size();
+    }
+
+    private static Object join(Flight flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static class Flight extends CompletableFuture<Object> {
+        private volatile long expiresAt;
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.StockJournal;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.StockJournalRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StockLedger
+ * <pre>
+ * 인기(hot) 상품 재고를 메모리에서 차감 / 복구하고 DB 에는 모아서 반영 (write-behind)
+ * - 대상 : jpashop.stock.ledger.hot-item-ids 에 지정한 상품 (또는 markHot)
+ *   ㄴ 그 외 상품은 기존 StockService 방식 그대로
+ * - 차감 : StripedStock 에서 메모리로 차감 + 같은 트랜잭션에서 stock_journal 에 -수량 insert
+ *   ㄴ item row 를 update 하지 않으므로 같은 상품 주문끼리 row 락 대기가 없음
+ *   ㄴ 트랜잭션이 롤백되면 메모리 차감도 되돌림 (저널 insert 도 같이 롤백)
+ * - 복구 / 재고 증가 : 저널에 +수량 insert, 커밋 후 메모리에 반영
+ * - 재고 감소 (관리자 변경) : 차감과 같이 메모리에 바로 반영 (롤백 시 되돌림) -> 낮춘 재고를 넘는 판매 없음
+ * - flush : flush-interval-ms 마다 별도 스레드에서 한 트랜잭션으로
+ *   미반영 저널 선점(flush_id) -> 상품별 합계를 item.stock_quantity 에 반영 -> 선점한 저널 삭제
+ *   ㄴ 커밋 전에 죽으면 저널이 그대로 남아 다음 flush (기동 시 포함) 에서 반영 -> 커밋된 주문의 재고 변경은 유실 / 중복 없음
+ *   ㄴ 반영 후 ITEMS 버전 증가 (상품 목록 ETag)
+ * - 메모리 재고는 처음 사용할 때 (stock_quantity + 미반영 저널 합계) 로 읽음
+ * - 제약
+ *   ㄴ 메모리 재고가 기준이므로 인스턴스 1개에서만 사용 (여러 인스턴스면 상품별로 담당 인스턴스를 나눠야 함)
+ *   ㄴ hot 상품의 item.stock_quantity (엔티티 / 상품 목록) 는 최대 flush 주기만큼 늦게 반영됨
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Slf4j
+@Component
+public class StockLedger {
+
+    private final ItemRepository itemRepository;
+    private final StockJournalRepository stockJournalRepository;
+    private final DataVersionTracker dataVersionTracker;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<Long> hotItemIds = ConcurrentHashMap.newKeySet();
+    private final Map<Long, StripedStock> stocks = new ConcurrentHashMap<>();
+    private final int stripes;
+    private final long flushIntervalMs;
+    private final AtomicLong flushSequence = new AtomicLong(System.currentTimeMillis() * 1000);
+    private ScheduledExecutorService scheduler;
+
+    public StockLedger(ItemRepository itemRepository,
+                       StockJournalRepository stockJournalRepository,
+                       DataVersionTracker dataVersionTracker,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${jpashop.stock.ledger.hot-item-ids:}") List<Long> hotItemIds,
+                       @Value("${jpashop.stock.ledger.stripes:16}") int stripes,
+                       @Value("${jpashop.stock.ledger.flush-interval-ms:200}") long flushIntervalMs) {
+        this.itemRepository = itemRepository;
+        this.stockJournalRepository = stockJournalRepository;
+        this.dataVersionTracker = dataVersionTracker;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hotItemIds.addAll(hotItemIds);
+        this.stripes = stripes;
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    /**
+     * 이전 실행에서 반영하지 못한 저널 복구 후 주기적 flush 시작
+     */
+    @PostConstruct
+    public void start() {
+        int recovered = flush();
+        if (recovered > 0) {
+            log.info("stock ledger recovered journal rows={}", recovered);
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("stock-ledger-flush-"));
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 종료 시 남은 저널 반영
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        flushQuietly();
+    }
+
+    public boolean isHot(Long itemId) {
+        return itemId != null && hotItemIds.contains(itemId);
+    }
+
+    public void markHot(Long itemId) {
+        hotItemIds.add(itemId);
+    }
+
+    /**
+     * @return 메모리 재고 (flush 전 변경 포함)
+     */
+    public long available(Long itemId) {
+        return stock(itemId).available();
+    }
+
+    /**
+     * 재고 차감, 트랜잭션 안에서 호출
+     * @throws NotEnoughStockException 재고 부족
+     */
+    public void reserve(Long itemId, int quantity) {
+        StripedStock stock = stock(itemId);
+        if (!stock.tryReserve(quantity)) {
+            throw new NotEnoughStockException("need more stock");
+        }
+        journalTaken(stock, itemId, quantity);
+    }
+
+    /**
+     * 재고 복구, 트랜잭션 안에서 호출 (커밋 후 메모리 반영)
+     */
+    public void release(Long itemId, int quantity) {
+        StripedStock stock = stock(itemId);
+        stockJournalRepository.save(StockJournal.createStockJournal(itemId, quantity));
+        addAfterCommit(stock, quantity);
+    }
+
+    /**
+     * 재고를 지정한 값으로 변경 (관리자 수정), 현재 메모리 재고와의 차이를 저널로 남김
+     * - 차이는 메모리 재고의 락 안에서 계산 (동시 차감과 섞여 잘못 계산되지 않음)
+     * - 감소는 바로 반영 후 롤백 시 되돌림, 증가는 커밋 후 반영 (차감 / 복구와 같은 방식)
+     *   ㄴ 계산 이후 커밋 전까지의 주문 차감은 변경한 재고에서 빠짐
+     */
+    public void changeTo(Long itemId, int stockQuantity) {
+        StripedStock stock = stock(itemId);
+        long delta = stock.changeTo(stockQuantity);
+        if (delta == 0) {
+            return;
+        }
+        if (delta < 0) {
+            journalTaken(stock, itemId, -delta);
+            return;
+        }
+        stockJournalRepository.save(StockJournal.createStockJournal(itemId, Math.toIntExact(delta)));
+        addAfterCommit(stock, delta);
+    }
+
+    /**
+     * 이미 메모리에서 뺀 수량을 저널에 -수량으로 남김
+     * - 트랜잭션 안이면 롤백 시, 밖이면 저널 저장이 실패하면 메모리 차감을 되돌림
+     */
+    private void journalTaken(StripedStock stock, Long itemId, long quantity) {
+        StockJournal journal = StockJournal.createStockJournal(itemId, Math.toIntExact(-quantity));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                stockJournalRepository.save(journal);
+            } catch (RuntimeException e) {
+                stock.add(quantity);
+                throw e;
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    stock.add(quantity);
+                }
+            }
+        });
+        stockJournalRepository.save(journal);
+    }
+
+    /**
+     * 트랜잭션 안이면 커밋 후, 아니면 바로 메모리 반영
+     */
+    private void addAfterCommit(StripedStock stock, long delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            stock.add(delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stock.add(delta);
+            }
+        });
+    }
+
+    /**
+     * 메모리 재고 (처음 사용할 때 DB 에서 읽음)
+     * - DB 조회는 map 밖에서 (computeIfAbsent 안에서 조회하면 조회가 끝날 때까지 같은 칸의 다른 상품도 대기)
+     *   ㄴ 동시에 처음 읽은 경우 먼저 등록된 값을 사용
+     */
+    private StripedStock stock(Long itemId) {
+        StripedStock stock = stocks.get(itemId);
+        if (stock != null) {
+            return stock;
+        }
+        Long available = transactionTemplate.execute(status -> stockJournalRepository.findAvailableStock(itemId));
+        if (available == null) {
+            throw new IllegalArgumentException("item not found. itemId=" + itemId);
+        }
+        StripedStock loaded = new StripedStock(available, stripes);
+        StripedStock existing = stocks.putIfAbsent(itemId, loaded);
+        return existing == null ? loaded : existing;
+    }
+
+    /**
+     * 미반영 저널을 item.stock_quantity 에 반영
+     * @return 반영한 저널 row 수
+     */
+    public int flush() {
+        long flushId = flushSequence.incrementAndGet();
+        Integer flushed = transactionTemplate.execute(status -> {
+            int claimed = stockJournalRepository.claim(flushId);
+            if (claimed == 0) {
+                return 0;
+            }
+            stockJournalRepository.sumDeltaByItem(flushId).forEach((itemId, delta) -> {
+                if (delta != 0) {
+                    itemRepository.applyStockDelta(itemId, delta);
+                }
+            });
+            stockJournalRepository.deleteClaimed(flushId);
+            // 상품 목록 (item.stock_quantity) 이 바뀌었으므로 커밋 후 ETag 버전 증가
+            dataVersionTracker.bump(DataVersionTracker.Resource.ITEMS);
+            return claimed;
+        });
+        return flushed == null ? 0 : flushed;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // 저널은 그대로 남아 있으므로 다음 주기에 다시 시도
+            log.warn("stock ledger flush failed", e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * StockService
+ * <pre>
+ * 재고 차감(예약) / 복구
+ * - atomic-update=true : 조건부 UPDATE (stock_quantity >= 수량) 로 DB 에서 한번에 차감 -> 동시 주문에도 초과 판매 없음
+ * - atomic-update=false : 엔티티 값을 읽고 빼는 기존 방식 (Item.removeStock, dirty checking)
+ * - hot 상품 (StockLedger 대상) 은 설정과 관계없이 메모리 재고 + write-behind 저널로 처리
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@Service
+@Transactional(readOnly = true)
+public class StockService {
+
+    private final ItemRepository itemRepository;
+    private final StockLedger stockLedger;
+    private final boolean atomicUpdate;
+
+    public StockService(ItemRepository itemRepository,
+                        StockLedger stockLedger,
+                        @Value("${jpashop.stock.atomic-update:true}") boolean atomicUpdate) {
+        this.itemRepository = itemRepository;
+        this.stockLedger = stockLedger;
+        this.atomicUpdate = atomicUpdate;
+    }
+
+    public boolean isAtomicUpdate() {
+        return atomicUpdate;
+    }
+
+    /**
+     * 재고 차감
+     * @throws NotEnoughStockException 재고 부족
+     */
+    @Transactional
+    public void removeStock(Item item, int quantity) {
+        if (stockLedger.isHot(item.getId())) {
+            stockLedger.reserve(item.getId(), quantity);
+            return;
+        }
+        if (!atomicUpdate) {
+            item.removeStock(quantity);
+            return;
+        }
+
+        if (itemRepository.decreaseStock(item, quantity) == 0) {
+            throw new NotEnoughStockException("need more stock");
+        }
+    }
+
+    /**
+     * 재고 복구
+     */
+    @Transactional
+    public void addStock(Item item, int quantity) {
+        if (stockLedger.isHot(item.getId())) {
+            stockLedger.release(item.getId(), quantity);
+            return;
+        }
+        if (!atomicUpdate) {
+            item.addStock(quantity);
+            return;
+        }
+
+        itemRepository.increaseStock(item, quantity);
+    }
+
+    /**
+     * 재고 수량 변경 (상품 수정)
+     */
+    @Transactional
+    public void changeStock(Item item, int stockQuantity) {
+        if (stockLedger.isHot(item.getId())) {
+            stockLedger.changeTo(item.getId(), stockQuantity);
+            return;
+        }
+        item.setStockQuantity(stockQuantity);
+    }
+}
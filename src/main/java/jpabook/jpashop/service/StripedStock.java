@@ -0,0 +1,132 @@
+package jpabook.jpashop.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * StripedStock
+ * <pre>
+ * 상품 1개의 메모리 재고를 여러 칸(stripe)에 나눠 담은 카운터
+ * - 스레드마다 정해진 칸에서 CAS 로 차감 -> 같은 상품을 동시에 주문해도 한 값에 경합이 몰리지 않음
+ *   ㄴ 칸의 값이 수량보다 적으면 다른 칸 순서대로 시도, 모두 부족하면 락을 잡고 전체를 모아서 차감 후 다시 나눠 담음
+ *   ㄴ 차감은 항상 (칸의 값 >= 수량) 일 때만 성공 -> 전체 재고가 음수가 되지 않음 (초과 판매 없음)
+ * - 음수 증감(재고 감소)은 한 칸에만 빼면 다른 칸으로 계속 팔리므로, 락을 잡고 전체를 모아서 반영
+ *   ㄴ 전체가 음수가 되면(판매 후 관리자가 더 낮게 변경 등) 칸 0 에 음수로 두고 deficit 표시
+ *      -> deficit 동안은 차감 / 복구 모두 락 경로에서 전체 합계로 처리, 합계가 0 이상이 되면 다시 나눠 담음
+ * - 칸 사이는 64 byte 간격으로 띄움 (false sharing 방지)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+final class StripedStock {
+
+    private static final int PADDING = 8;   // long 8개 = 64 byte
+
+    private final AtomicLongArray cells;
+    private final int stripes;
+    private volatile boolean deficit;
+
+    StripedStock(long initial, int stripes) {
+        this.stripes = Math.max(1, stripes);
+        this.cells = new AtomicLongArray(this.stripes * PADDING);
+        spread(initial);
+    }
+
+    /**
+     * @return 차감 성공 여부 (재고 부족이면 false)
+     */
+    boolean tryReserve(int quantity) {
+        if (deficit) {
+            return reserveSlow(quantity);
+        }
+        int start = probe();
+        for (int i = 0; i < stripes; i++) {
+            int index = ((start + i) % stripes) * PADDING;
+            long value;
+            while ((value = cells.get(index)) >= quantity) {
+                if (cells.compareAndSet(index, value, value - quantity)) {
+                    return true;
+                }
+            }
+        }
+        return reserveSlow(quantity);
+    }
+
+    /**
+     * 재고 증감 (복구 / 관리자 변경), 음수면 차감하되 재고 부족 검사 없음
+     */
+    void add(long delta) {
+        if (delta < 0 || deficit) {
+            addSlow(delta);
+            return;
+        }
+        cells.addAndGet(probe() * PADDING, delta);
+    }
+
+    /**
+     * 재고를 target 으로 맞추기 위한 증감량 (다른 차감 / 복구와 섞이지 않게 락 안에서 전체를 모아서 계산)
+     * - 감소는 바로 반영 (변경 후 재고를 넘는 판매 방지), 증가는 반영하지 않음 (호출하는 쪽에서 add)
+     * @return target - 현재 재고
+     */
+    synchronized long changeTo(long target) {
+        long total = gather();
+        long delta = target - total;
+        spread(delta < 0 ? target : total);
+        return delta;
+    }
+
+    long available() {
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    /**
+     * 칸마다 나뉜 재고를 모아서 차감 후 다시 고르게 나눠 담음
+     * - 모으는 중에 다른 스레드가 칸에 더한 값은 그 칸에 그대로 남음 (유실 없음)
+     */
+    private synchronized boolean reserveSlow(int quantity) {
+        long total = gather();
+        boolean reserved = total >= quantity;
+        if (reserved) {
+            total -= quantity;
+        }
+        spread(total);
+        return reserved;
+    }
+
+    private synchronized void addSlow(long delta) {
+        spread(gather() + delta);
+    }
+
+    /**
+     * 모으는 동안은 deficit 으로 표시 -> 새 차감은 락 경로로 와서 대기 (모으다 만 칸에서 팔리지 않음)
+     */
+    private long gather() {
+        deficit = true;
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.getAndSet(i * PADDING, 0);
+        }
+        return total;
+    }
+
+    private void spread(long total) {
+        if (total < 0) {
+            cells.addAndGet(0, total);
+            deficit = true;
+            return;
+        }
+        long share = total / stripes;
+        long remainder = total % stripes;
+        for (int i = 0; i < stripes; i++) {
+            cells.addAndGet(i * PADDING, share + (i < remainder ? 1 : 0));
+        }
+        deficit = false;
+    }
+
+    private int probe() {
+        return (int) (Thread.currentThread().getId() % stripes);
+    }
+}
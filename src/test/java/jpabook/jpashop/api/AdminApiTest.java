@@ -0,0 +1,44 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.config.AdminTokenInterceptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * AdminApiTest
+ * <pre>
+ * 관리 API(@AdminOnly) 는 X-Admin-Token 이 jpashop.admin.token (테스트 : test-admin-token) 과 같을 때만 실행
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AdminApiTest {
+
+    @Autowired MockMvc mockMvc;
+
+    @Test
+    public void 토큰_없거나_다르면_403() throws Exception {
+        mockMvc.perform(post("/api/reports/sales/rebuild"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/reports/sales/rebuild").header(AdminTokenInterceptor.HEADER, "wrong-token"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/order-summaries/rebuild"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void 토큰이_같으면_실행() throws Exception {
+        mockMvc.perform(post("/api/reports/sales/rebuild").header(AdminTokenInterceptor.HEADER, "test-admin-token"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/order-summaries/rebuild").header(AdminTokenInterceptor.HEADER, "test-admin-token"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,223 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jpabook.jpashop.config.CompactEncodingConfig;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * CompactEncodingTest
+ * <pre>
+ * Accept 헤더로 Smile / CBOR 응답, 바이너리 응답의 orderItems 열 단위 직렬화 검증
+ * - 클라이언트가 같은 DTO 로 다시 읽을 수 있는지 (ColumnarListDeserializer)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class CompactEncodingTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired EntityManager em;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    private final ObjectMapper smileReader = new ObjectMapper(new SmileFactory());
+    private final ObjectMapper cborReader = new ObjectMapper(new CBORFactory());
+
+    private Long orderId;
+
+    @BeforeEach
+    public void setUp() {
+        Member member = new Member();
+        member.setName("encodingMember");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+        Book book1 = createBook("encoding JPA 1", 10000);
+        Book book2 = createBook("encoding JPA 2", 20000);
+
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        Order order = Order.createOrder(member, delivery,
+                OrderItem.createOrderItem(book1, 10000, 1),
+                OrderItem.createOrderItem(book2, 20000, 3));
+        em.persist(order);
+        em.flush();
+        em.clear();
+        orderId = order.getId();
+    }
+
+    @Test
+    public void smile_주문상품_열_단위() throws Exception {
+        // when
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v5/orders").accept(CompactEncodingConfig.SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(CompactEncodingConfig.SMILE))
+                .andReturn().getResponse();
+
+        // then : {"itemName": [...], "orderPrice": [...], "count": [...]}
+        JsonNode orderItems = findOrder(smileReader.readTree(response.getContentAsByteArray())).get("orderItems");
+        assertTrue(orderItems.isObject(), orderItems.toString());
+        assertEquals(objectMapper.readTree("[\"encoding JPA 1\", \"encoding JPA 2\"]"), orderItems.get("itemName"));
+        assertEquals(objectMapper.readTree("[10000, 20000]"), orderItems.get("orderPrice"));
+        assertEquals(objectMapper.readTree("[1, 3]"), orderItems.get("count"));
+    }
+
+    @Test
+    public void cbor_엔티티_DTO_주문상품_열_단위() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v2/orders").accept(CompactEncodingConfig.CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(CompactEncodingConfig.CBOR))
+                .andReturn().getResponse();
+
+        JsonNode orderItems = findOrder(cborReader.readTree(response.getContentAsByteArray())).get("orderItems");
+        assertEquals(objectMapper.readTree("[\"encoding JPA 1\", \"encoding JPA 2\"]"), orderItems.get("itemName"));
+        assertEquals(objectMapper.readTree("[1, 3]"), orderItems.get("count"));
+    }
+
+    @Test
+    public void cbor_단순주문() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v4/simple-orders").accept(CompactEncodingConfig.CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(CompactEncodingConfig.CBOR))
+                .andReturn().getResponse();
+
+        JsonNode order = findOrder(cborReader.readTree(response.getContentAsByteArray()));
+        assertEquals("encodingMember", order.get("name").asText());
+        assertEquals("서울", order.get("address").get("city").asText());
+    }
+
+    @Test
+    public void JSON_응답은_기존_배열() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v5/orders").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+
+        JsonNode orderItems = findOrder(objectMapper.readTree(response.getContentAsByteArray())).get("orderItems");
+        assertTrue(orderItems.isArray(), orderItems.toString());
+        assertEquals("encoding JPA 1", orderItems.get(0).get("itemName").asText());
+    }
+
+    @Test
+    public void smile_응답을_DTO_로_읽기() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/v5/orders").accept(CompactEncodingConfig.SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<OrderQueryDto> orders = CompactEncodingConfig.smileMapper(objectMapperBuilder)
+                .readValue(body, new TypeReference<List<OrderQueryDto>>() {
+                });
+
+        OrderQueryDto order = orders.stream()
+                .filter(o -> o.getOrderId().equals(orderId))
+                .findFirst().orElseThrow();
+        assertEquals("encodingMember", order.getName());
+        assertEquals("서울", order.getAddress().getCity());
+        assertEquals(2, order.getOrderItems().size());
+        OrderItemQueryDto second = order.getOrderItems().get(1);
+        assertEquals("encoding JPA 2", second.getItemName());
+        assertEquals(20000, second.getOrderPrice());
+        assertEquals(3, second.getCount());
+    }
+
+    @Test
+    public void cbor_엔티티_DTO_응답을_DTO_로_읽기() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/v2/orders").accept(CompactEncodingConfig.CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<OrderApiController.OrderDto> orders = CompactEncodingConfig.cborMapper(objectMapperBuilder)
+                .readValue(body, new TypeReference<List<OrderApiController.OrderDto>>() {
+                });
+
+        OrderApiController.OrderDto order = orders.stream()
+                .filter(o -> o.getOrderId().equals(orderId))
+                .findFirst().orElseThrow();
+        assertEquals(2, order.getOrderItems().size());
+        assertEquals("encoding JPA 1", order.getOrderItems().get(0).getItemName());
+        assertEquals(1, order.getOrderItems().get(0).getCount());
+    }
+
+    @Test
+    public void JSON_배열도_같은_DTO_로_읽기() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/v5/orders").accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<OrderQueryDto> orders = objectMapper.readValue(body, new TypeReference<List<OrderQueryDto>>() {
+        });
+
+        OrderQueryDto order = orders.stream()
+                .filter(o -> o.getOrderId().equals(orderId))
+                .findFirst().orElseThrow();
+        assertEquals(List.of("encoding JPA 1", "encoding JPA 2"),
+                List.of(order.getOrderItems().get(0).getItemName(), order.getOrderItems().get(1).getItemName()));
+    }
+
+    @Test
+    public void 인코딩별_ETag() throws Exception {
+        MockHttpServletResponse json = mockMvc.perform(get("/api/v5/orders"))
+                .andReturn().getResponse();
+        MockHttpServletResponse smile = mockMvc.perform(get("/api/v5/orders").accept(CompactEncodingConfig.SMILE))
+                .andReturn().getResponse();
+
+        String etag = json.getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertNotEquals(etag, smile.getHeader(HttpHeaders.ETAG));
+        assertTrue(smile.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT));
+
+        // JSON ETag 로 smile 요청 -> 304 아님
+        mockMvc.perform(get("/api/v5/orders").accept(CompactEncodingConfig.SMILE).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    private JsonNode findOrder(JsonNode orders) {
+        for (JsonNode order : orders) {
+            if (order.get("orderId").asLong() == orderId) {
+                return order;
+            }
+        }
+        throw new AssertionError("주문이 응답에 없습니다. orderId=" + orderId);
+    }
+
+    private Book createBook(String name, int price) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(100);
+        em.persist(book);
+        return book;
+    }
+}
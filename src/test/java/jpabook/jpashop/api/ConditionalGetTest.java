@@ -0,0 +1,74 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.service.DataVersionTracker;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ConditionalGetTest
+ * <pre>
+ * 목록 API ETag / If-None-Match 검증
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired DataVersionTracker dataVersionTracker;
+
+    @Test
+    public void ETag_일치하면_304() throws Exception {
+        // given
+        String etag = mockMvc.perform(get("/api/v5/orders"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        // when, then : 본문 없이 304
+        mockMvc.perform(get("/api/v5/orders").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void 데이터_변경되면_ETag_변경() throws Exception {
+        // given
+        String etag = mockMvc.perform(get("/api/v4/simple-orders"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // when
+        dataVersionTracker.bump(DataVersionTracker.Resource.ORDERS);
+
+        // then
+        String changed = mockMvc.perform(get("/api/v4/simple-orders").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, changed);
+    }
+
+    @Test
+    public void 상품_변경은_회원_주문목록_ETag_에_영향_없음() throws Exception {
+        String etag = mockMvc.perform(get("/api/v4/simple-orders"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        dataVersionTracker.bump(DataVersionTracker.Resource.ITEMS);
+
+        mockMvc.perform(get("/api/v4/simple-orders").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+}
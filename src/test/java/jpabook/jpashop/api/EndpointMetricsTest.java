@@ -0,0 +1,58 @@
+package jpabook.jpashop.api;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * EndpointMetricsTest
+ * <pre>
+ * API 호출 후 커넥션 대기 / 트랜잭션 / hibernate 쿼리 메트릭이 handler 태그로 기록되는지 확인
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class EndpointMetricsTest {
+
+    private static final String HANDLER = "/api/v2/members";
+
+    @Autowired MockMvc mockMvc;
+    @Autowired MeterRegistry meterRegistry;
+
+    @Test
+    public void API_별_메트릭() throws Exception {
+        // when
+        mockMvc.perform(get(HANDLER))
+                .andExpect(status().isOk());
+
+        // then
+        long transactions = meterRegistry.get("jpashop.transaction")
+                .tag("class", "MemberService")
+                .tag("method", "findMembers")
+                .tag("handler", HANDLER)
+                .tag("readOnly", "true")
+                .tag("nested", "false")
+                .tag("exception", "none")
+                .timer().count();
+        assertTrue(transactions >= 1, "트랜잭션 시간");
+
+        long acquires = meterRegistry.get("jpashop.datasource.acquire")
+                .tag("handler", HANDLER)
+                .timer().count();
+        assertTrue(acquires >= 1, "커넥션 대기 시간");
+
+        long queries = meterRegistry.get("jpashop.hibernate.query")
+                .tag("handler", HANDLER)
+                .timer().count();
+        assertTrue(queries >= 1, "JPQL 실행 시간");
+    }
+}
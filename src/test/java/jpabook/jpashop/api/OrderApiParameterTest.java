@@ -0,0 +1,88 @@
+package jpabook.jpashop.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * OrderApiParameterTest
+ * <pre>
+ * 주문 API 크기 파라미터(limit 등) 검증 : 1 미만은 400, 잘못된 cursor 도 400
+ * - 같은 limit 규칙(@Positive + MAX_PAGE_LIMIT)을 쓰는 다른 목록 API 포함
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderApiParameterTest {
+
+    @Autowired MockMvc mockMvc;
+
+    @Test
+    public void limit_1_미만은_400() throws Exception {
+        mockMvc.perform(get("/api/v3.2/orders").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v5.1/orders").param("limit", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v5.2/orders").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void limit_최대값_초과는_최대값으로_조회() throws Exception {
+        mockMvc.perform(get("/api/v3.2/orders").param("limit", "1000000"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v5.1/orders").param("limit", "1000000"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void 잘못된_cursor_는_400() throws Exception {
+        mockMvc.perform(get("/api/v3.2/orders").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("잘못된 커서 값입니다. cursor=not-a-cursor"));
+        mockMvc.perform(get("/api/v5.1/orders").param("cursor", "%%%"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void export_chunkSize_fetchSize_1_미만은_400() throws Exception {
+        mockMvc.perform(get("/api/orders/export").param("chunkSize", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/orders/export").param("chunkSize", "-10"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v6.2/orders").param("fetchSize", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 카테고리_상품_limit_1_미만은_400() throws Exception {
+        mockMvc.perform(get("/api/categories/1/items").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 매출_상품별_limit() throws Exception {
+        mockMvc.perform(get("/api/reports/sales/items").param("from", "2024-01-01").param("to", "2024-01-31")
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/reports/sales/items").param("from", "2024-01-01").param("to", "2024-01-31")
+                        .param("limit", "1000000"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void 주문요약_limit() throws Exception {
+        mockMvc.perform(get("/api/order-summaries").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/order-summaries").param("limit", "1000000"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,102 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.service.BulkOrder;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static jpabook.jpashop.monitor.QueryCountAssertions.assertNoRepeatedStatements;
+import static jpabook.jpashop.monitor.QueryCountAssertions.assertQueryCountAtMost;
+import static jpabook.jpashop.monitor.QueryCountResponseAdvice.QUERY_COUNT_HEADER;
+import static jpabook.jpashop.monitor.QueryCountResponseAdvice.QUERY_REPEATED_HEADER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * OrderApiQueryCountTest
+ * <pre>
+ * 주문 조회 API 별 SQL 실행 수 허용치(budget) 검증
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class OrderApiQueryCountTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired OrderQueryRepository orderQueryRepository;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired OrderService orderService;
+    @Autowired EntityManager em;
+
+    /**
+     * 회원 2명이 각각 상품 2개를 주문 (테스트 트랜잭션 안에서 생성, 테스트 후 롤백)
+     * - 영속성 컨텍스트를 비워서 API 가 실제로 조회하는 SQL 수를 셈
+     */
+    @BeforeEach
+    public void setUp() {
+        for (String name : List.of("queryCountA", "queryCountB")) {
+            Member member = new Member();
+            member.setName(name);
+            member.setAddress(new Address("서울", "강가", "123-123"));
+            Long memberId = memberService.join(member);
+
+            Long itemId1 = createBook(name + " BOOK1");
+            Long itemId2 = createBook(name + " BOOK2");
+            orderService.orderBulk(List.of(new BulkOrder(memberId, List.of(
+                    new BulkOrder.Line(itemId1, 1),
+                    new BulkOrder.Line(itemId2, 2)))));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    private Long createBook(String name) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(100);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+
+    @Test
+    public void 주문조회V2_쿼리수_허용치() throws Exception {
+        // when
+        MvcResult result = mockMvc.perform(get("/api/v2/orders"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // then : order 1번 + member, delivery, orderItems, item 각각 batch fetch 1번
+        int queryCount = Integer.parseInt(result.getResponse().getHeader(QUERY_COUNT_HEADER));
+        assertTrue(queryCount <= 5, "V2 주문 조회 SQL 수는 5 이하여야 한다. actual=" + queryCount);
+        assertEquals("0", result.getResponse().getHeader(QUERY_REPEATED_HEADER), "batch fetch 로 N+1 이 없어야 한다.");
+    }
+
+    @Test
+    public void 주문조회V5_쿼리수_허용치() throws Exception {
+        // 루트 1번 + 컬렉션 in 1번
+        assertQueryCountAtMost(2, () -> orderQueryRepository.findAllByDto_optimization());
+        assertNoRepeatedStatements(2, () -> orderQueryRepository.findAllByDto_optimization());
+    }
+}
@@ -0,0 +1,117 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * OrderBulkApiTest
+ * <pre>
+ * POST /api/orders/bulk : 주문 생성 / 재고 차감, 요청 본문 검증 실패는 400, 없는 회원 / 상품은 404
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class OrderBulkApiTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired EntityManager em;
+
+    @Test
+    public void 대량주문_등록() throws Exception {
+        // given
+        Member member = createMember();
+        Book book1 = createBook("bulk book1", 10000, 10);
+        Book book2 = createBook("bulk book2", 20000, 10);
+        em.flush();
+
+        String body = "{\"orders\":[" +
+                "{\"memberId\":" + member.getId() + ",\"items\":[" +
+                "{\"itemId\":" + book2.getId() + ",\"count\":1}," +
+                "{\"itemId\":" + book1.getId() + ",\"count\":2}]}," +
+                "{\"memberId\":" + member.getId() + ",\"items\":[" +
+                "{\"itemId\":" + book1.getId() + ",\"count\":3}]}]}";
+
+        // when
+        mockMvc.perform(post("/api/orders/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.orderIds.length()").value(2));
+
+        // then
+        em.clear();
+        assertEquals(5, em.find(Book.class, book1.getId()).getStockQuantity());
+        assertEquals(9, em.find(Book.class, book2.getId()).getStockQuantity());
+    }
+
+    @Test
+    public void 대량주문_본문_검증_실패는_400() throws Exception {
+        mockMvc.perform(post("/api/orders/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orders\":[]}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/orders/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orders\":[{\"memberId\":1,\"items\":[{\"itemId\":1,\"count\":0}]}]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 대량주문_없는_회원_상품은_404() throws Exception {
+        // given
+        Member member = createMember();
+        Book book = createBook("bulk book3", 10000, 10);
+        em.flush();
+
+        // when, then
+        mockMvc.perform(post("/api/orders/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orders\":[{\"memberId\":-1,\"items\":[{\"itemId\":" + book.getId() + ",\"count\":1}]}]}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("존재하지 않는 회원입니다. memberId=-1"));
+        mockMvc.perform(post("/api/orders/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orders\":[{\"memberId\":" + member.getId() + ",\"items\":[{\"itemId\":-1,\"count\":1}]}]}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("존재하지 않는 상품입니다. itemId=-1"));
+
+        em.clear();
+        assertEquals(10, em.find(Book.class, book.getId()).getStockQuantity());
+    }
+
+    private Book createBook(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        em.persist(book);
+        return book;
+    }
+
+    private Member createMember() {
+        Member member = new Member();
+        member.setName("bulk member");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+        return member;
+    }
+}
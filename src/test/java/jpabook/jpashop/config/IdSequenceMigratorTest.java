@@ -0,0 +1,86 @@
+package jpabook.jpashop.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * IdSequenceMigratorTest
+ * <pre>
+ * 엔티티별 시퀀스가 없는(hibernate_sequence 만 있는) 기존 스키마에서 시퀀스 생성 + max(id) 다음 값으로 맞춤
+ * </pre>
+ *
+ * @version 1.0,
+ */
+class IdSequenceMigratorTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private IdSequenceMigrator migrator;
+
+    @BeforeEach
+    public void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:id_sequence_migrator;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("drop all objects");
+
+        // 기존 스키마 : 공용 hibernate_sequence + 테이블
+        jdbcTemplate.execute("create sequence hibernate_sequence start with 1 increment by 1");
+        for (String[] table : new String[][]{
+                {"member", "member_id"}, {"item", "item_id"}, {"category", "category_id"},
+                {"delivery", "delivery_id"}, {"orders", "order_id"}, {"order_item", "order_item_id"},
+                {"stock_journal", "stock_journal_id"}, {"sales_delta", "sales_delta_id"}}) {
+            jdbcTemplate.execute("create table " + table[0] + " (" + table[1] + " bigint primary key)");
+        }
+        jdbcTemplate.update("insert into member values (1), (2), (3)");
+        jdbcTemplate.update("insert into orders values (10)");
+        jdbcTemplate.update("insert into order_item values (11), (12)");
+
+        EntityManagerFactory emf = mock(EntityManagerFactory.class);
+        when(emf.getProperties()).thenReturn(Map.of(
+                "jpashop.id.allocation_size", "50",
+                "jpashop.id.allocation_size.order_item_seq", "100"));
+        migrator = new IdSequenceMigrator(jdbcTemplate, emf, false);
+    }
+
+    @Test
+    public void 시퀀스가_없는_스키마() throws Exception {
+        // when
+        migrator.syncSequences();
+
+        // then
+        assertEquals(4, nextValue("member_seq"), "max(id) 다음 값부터 발급");
+        assertEquals(54, nextValue("member_seq"), "increment 는 allocation size");
+        assertEquals(11, nextValue("orders_seq"));
+        assertEquals(13, nextValue("order_item_seq"));
+        assertEquals(113, nextValue("order_item_seq"), "시퀀스별 allocation size");
+        assertEquals(1, nextValue("item_seq"), "빈 테이블은 1부터");
+    }
+
+    @Test
+    public void 시퀀스가_있으면_재시작() throws Exception {
+        // given
+        migrator.syncSequences();
+        nextValue("member_seq");
+        jdbcTemplate.update("insert into member values (100)");
+
+        // when
+        migrator.syncSequences();
+
+        // then
+        assertEquals(101, nextValue("member_seq"));
+    }
+
+    private long nextValue(String sequenceName) {
+        return jdbcTemplate.queryForObject("select next value for " + sequenceName, Long.class);
+    }
+}
@@ -0,0 +1,216 @@
+package jpabook.jpashop.config;
+
+import jpabook.jpashop.datasource.ReplicaLagMonitor;
+import jpabook.jpashop.datasource.ReplicaRoutingDataSource;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderExportService;
+import jpabook.jpashop.service.OrderService;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ReplicaDataSourceConfigTest
+ * <pre>
+ * jpashop.datasource.replica.enabled=true 로 기동해서 JpaTransactionManager + Hibernate 경로의 라우팅 검증
+ * - primary / 복제 DB 는 서로 다른 H2 메모리 DB (다른 테스트의 jdbc:h2:mem:test 와도 분리)
+ * - 복제는 테스트에서 직접 수행 : replicate() 가 primary 전체(SCRIPT)를 복제 DB 에 복사
+ *   ㄴ replicate() 이후 primary 에만 쓴 데이터가 보이는지로 어느 DB 에서 읽었는지 확인 (복제 지연 재현)
+ * - 복제 지연 확인 SQL 은 복제 DB 에만 있는 replica_heartbeat 테이블 조회
+ *   ㄴ 기동 시에는 테이블이 없어서 복제 DB 사용 안 함 -> 기동 중 조회는 모두 primary
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica_primary",
+        "jpashop.datasource.replica.enabled=true",
+        "jpashop.datasource.replica.urls=" + ReplicaDataSourceConfigTest.REPLICA_URL,
+        "jpashop.datasource.replica.lag-query=select lag_ms from replica_heartbeat"})
+@AutoConfigureMockMvc
+class ReplicaDataSourceConfigTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica_0;DB_CLOSE_DELAY=-1";
+
+    @Autowired MockMvc mockMvc;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired ReplicaLagMonitor replicaLagMonitor;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired OrderService orderService;
+    @Autowired OrderExportService orderExportService;
+    @Autowired EntityManagerFactory emf;
+    @Autowired EntityManager em;
+
+    private JdbcTemplate replicaJdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        JdbcDataSource replica = new JdbcDataSource();
+        replica.setURL(REPLICA_URL);
+        replica.setUser("sa");
+        replicaJdbcTemplate = new JdbcTemplate(replica);
+        replicate();
+    }
+
+    @Test
+    public void 읽기전용_트랜잭션은_복제DB_쓰기는_primary() throws Exception {
+        assertInstanceOf(JpaTransactionManager.class, transactionManager);
+
+        // given : 복제 전 primary 에만 있는 회원
+        Long memberId = memberService.join(createMember("replica member"));
+        assertTrue(primaryHas("member", "member_id", memberId), "쓰기 트랜잭션은 primary");
+
+        // when, then
+        assertFalse(memberIds(memberService.findMembers()).contains(memberId), "읽기 전용 트랜잭션은 복제 DB");
+
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        Boolean primaryRead = readWrite.execute(status -> memberIds(memberService.findMembers()).contains(memberId));
+        assertTrue(primaryRead, "쓰기 트랜잭션 안의 읽기 전용 호출은 primary");
+
+        replicate();
+        assertTrue(memberIds(memberService.findMembers()).contains(memberId), "복제 후에는 복제 DB 에서도 조회");
+    }
+
+    @Test
+    public void 복제DB_조회는_2차캐시에_넣지_않음() throws Exception {
+        // given : 복제 후 primary 에서만 재고 변경, 캐시는 비어 있음
+        Book book = createBook("replica cached book");
+        itemService.saveItem(book);
+        replicate();
+        itemService.updateItem(book.getId(), book.getName(), book.getPrice(), 3);
+        emf.getCache().evict(Item.class);
+
+        // when : 읽기 전용 트랜잭션 -> 복제 DB 의 이전 재고
+        assertEquals(10, itemService.findOne(book.getId()).getStockQuantity());
+
+        // then
+        assertFalse(emf.getCache().contains(Item.class, book.getId()), "복제 DB 에서 읽은 row 는 2차 캐시에 넣지 않아야 한다.");
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        Integer stock = readWrite.execute(status -> em.find(Item.class, book.getId()).getStockQuantity());
+        assertEquals(3, stock, "쓰기 트랜잭션은 primary 의 재고를 읽어야 한다.");
+        assertTrue(emf.getCache().contains(Item.class, book.getId()), "primary 에서 읽은 row 는 캐시");
+    }
+
+    @Test
+    public void VersionedETag_핸들러는_primary_조회() throws Exception {
+        // given : 복제 전 primary 에만 있는 상품, 일반 조회는 복제 DB 의 이전 목록 (캐시에는 넣지 않음)
+        Book book = createBook("replica book");
+        itemService.saveItem(book);
+        Long itemId = book.getId();
+        assertFalse(itemIds(itemService.findItems()).contains(itemId));
+
+        // when
+        MvcResult result = mockMvc.perform(get("/items"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // then : ETag 버전(primary 커밋 기준)과 같은 시점의 목록
+        assertNotNull(result.getResponse().getHeader(HttpHeaders.ETAG));
+        @SuppressWarnings("unchecked")
+        List<Item> items = (List<Item>) result.getModelAndView().getModel().get("items");
+        assertTrue(itemIds(items).contains(itemId), "@VersionedETag 핸들러는 primary 에서 조회 해야 한다.");
+        assertFalse(ReplicaRoutingDataSource.isPrimaryOnly(), "요청이 끝나면 primary 강제 해제");
+    }
+
+    @Test
+    public void VersionedETag_스트리밍_본문도_primary_조회() throws Exception {
+        // given : 복제 전 primary 에만 있는 주문
+        Long memberId = memberService.join(createMember("replica orderer"));
+        Book book = createBook("replica order book");
+        itemService.saveItem(book);
+        Long orderId = orderService.order(memberId, book.getId(), 1);
+        String orderJson = "\"orderId\":" + orderId + ",";
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExportService.writeJson(out, 100);
+        assertFalse(out.toString(StandardCharsets.UTF_8).contains(orderJson));
+
+        // when : 본문은 비동기 스레드에서 씀
+        MvcResult result = mockMvc.perform(get("/api/v6.2/orders"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertFalse(ReplicaRoutingDataSource.isPrimaryOnly(), "비동기 처리 시작 후 요청 스레드는 primary 강제 해제");
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        // then
+        assertTrue(result.getResponse().getContentAsString().contains(orderJson),
+                "@VersionedETag 스트리밍 본문도 primary 에서 조회 해야 한다.");
+    }
+
+    /**
+     * primary 전체를 복제 DB 로 복사하고 복제 DB 사용 가능으로 갱신
+     */
+    private void replicate() {
+        List<String> script = jdbcTemplate.queryForList("script nopasswords nosettings", String.class);
+        replicaJdbcTemplate.execute("drop all objects");
+        script.stream()
+                .filter(sql -> !sql.startsWith("--"))
+                .forEach(replicaJdbcTemplate::execute);
+        replicaJdbcTemplate.execute("create table replica_heartbeat (lag_ms bigint)");
+        replicaJdbcTemplate.update("insert into replica_heartbeat values (0)");
+        replicaLagMonitor.check();
+    }
+
+    private boolean primaryHas(String table, String idColumn, Long id) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table + " where " + idColumn + " = ?", Integer.class, id) == 1;
+    }
+
+    private static List<Long> memberIds(List<Member> members) {
+        return members.stream().map(Member::getId).collect(Collectors.toList());
+    }
+
+    private static List<Long> itemIds(List<Item> items) {
+        return items.stream().map(Item::getId).collect(Collectors.toList());
+    }
+
+    private static Member createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return member;
+    }
+
+    private static Book createBook(String name) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        return book;
+    }
+}
@@ -0,0 +1,141 @@
+package jpabook.jpashop.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * ReplicaRoutingDataSourceTest
+ * <pre>
+ * H2 메모리 DB 2개(primary / replica)로 읽기 전용 트랜잭션 라우팅, 복제 지연 시 primary 조회 검증
+ * - 각 DB 의 node 테이블에 자기 이름을 넣어두고 조회 결과로 어느 DB 에서 실행됐는지 확인
+ * </pre>
+ *
+ * @version 1.0,
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong lag = new AtomicLong();
+    private ReplicaRoutingDataSource routingDataSource;
+    private ReplicaLagMonitor lagMonitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    public void setUp() {
+        ReplicaTarget replica = new ReplicaTarget("replica-0", h2("replica"));
+        routingDataSource = new ReplicaRoutingDataSource(h2("primary"), List.of(replica),
+                ReplicaLoadBalancer.roundRobin());
+        routingDataSource.bindTo(meterRegistry);
+        lagMonitor = new ReplicaLagMonitor(routingDataSource, dataSource -> {
+            if (lag.get() < 0) {
+                throw new SQLException("replica down");
+            }
+            return lag.get();
+        }, 1000, 1000, meterRegistry);
+        lagMonitor.check();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    public void 읽기전용_트랜잭션은_복제DB() throws Exception {
+        // LazyConnectionDataSourceProxy 생성 시 기본 설정 확인용으로 primary 커넥션을 얻으므로 이후 증가분만 비교
+        double primaryBefore = routeCount(ReplicaRoutingDataSource.PRIMARY);
+
+        assertEquals("replica", readOnly.execute(status -> node()));
+        assertEquals("primary", readWrite.execute(status -> node()));
+        assertEquals("primary", node(), "트랜잭션 밖은 primary");
+
+        assertEquals(1, routeCount("replica-0"));
+        assertEquals(2, routeCount(ReplicaRoutingDataSource.PRIMARY) - primaryBefore);
+    }
+
+    @Test
+    public void 쓰기_트랜잭션_안의_읽기전용_호출은_primary() throws Exception {
+        String node = readWrite.execute(status -> readOnly.execute(inner -> node()));
+
+        assertEquals("primary", node);
+    }
+
+    @Test
+    public void 복제_지연이_크면_primary() throws Exception {
+        // given
+        lag.set(5000);
+
+        // when
+        lagMonitor.check();
+
+        // then
+        assertFalse(routingDataSource.getReplicas().get(0).isAvailable());
+        assertEquals("primary", readOnly.execute(status -> node()));
+        assertEquals(1, meterRegistry.get("jpashop.datasource.replica.fallback").functionCounter().count());
+        assertEquals(5000, meterRegistry.get("jpashop.datasource.replica.lag").tag("target", "replica-0").gauge().value());
+
+        // 지연이 줄면 다시 복제 DB
+        lag.set(10);
+        lagMonitor.check();
+        assertEquals("replica", readOnly.execute(status -> node()));
+    }
+
+    @Test
+    public void 복제DB_확인_실패하면_primary() throws Exception {
+        lag.set(-1);
+        lagMonitor.check();
+
+        assertEquals("primary", readOnly.execute(status -> node()));
+        assertEquals(0, meterRegistry.get("jpashop.datasource.replica.available").tag("target", "replica-0").gauge().value());
+    }
+
+    @Test
+    public void 라운드로빈() throws Exception {
+        ReplicaTarget first = new ReplicaTarget("replica-0", null);
+        ReplicaTarget second = new ReplicaTarget("replica-1", null);
+        ReplicaLoadBalancer loadBalancer = ReplicaLoadBalancer.roundRobin();
+
+        assertEquals(first, loadBalancer.choose(List.of(first, second)));
+        assertEquals(second, loadBalancer.choose(List.of(first, second)));
+        assertEquals(first, loadBalancer.choose(List.of(first, second)));
+        assertEquals(second, loadBalancer.choose(List.of(second)));
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private double routeCount(String target) {
+        return meterRegistry.get("jpashop.datasource.route").tag("target", target).functionCounter().count();
+    }
+
+    private static DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("drop table if exists node");
+        jdbcTemplate.execute("create table node (name varchar(20))");
+        jdbcTemplate.update("insert into node values (?)", name);
+        return dataSource;
+    }
+}
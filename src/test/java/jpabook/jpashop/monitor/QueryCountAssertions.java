@@ -0,0 +1,41 @@
+package jpabook.jpashop.monitor;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * QueryCountAssertions
+ * <pre>
+ * 테스트용 SQL 실행 수 검증
+ * - 트랜잭션 테스트에서는 1차 캐시 때문에 SQL 이 안 나갈 수 있으므로 필요 시 em.flush / em.clear 후 호출
+ * </pre>
+ *
+ * @version 1.0,
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    public static QueryCounter count(Runnable action) {
+        QueryCounter counter = QueryCounter.start();
+        try {
+            action.run();
+        } finally {
+            QueryCounter.clear();
+        }
+        return counter;
+    }
+
+    public static void assertQueryCountAtMost(int budget, Runnable action) {
+        QueryCounter counter = count(action);
+        assertTrue(counter.getCount() <= budget,
+                "SQL 실행 수가 허용치를 초과했습니다. budget=" + budget + ", actual=" + counter.getCount());
+    }
+
+    public static void assertNoRepeatedStatements(int threshold, Runnable action) {
+        Map<String, Integer> repeated = count(action).getRepeatedStatements(threshold);
+        assertTrue(repeated.isEmpty(), "N+1 의심 SQL 이 있습니다. " + repeated);
+    }
+}
@@ -0,0 +1,85 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ItemRepositoryTest
+ * <pre>
+ * 재고 UPDATE 후 2차 캐시 evict 시점 확인
+ * - 커밋 전에 다른 트랜잭션이 이전 재고를 캐시에 다시 올려도, 커밋 후에는 캐시에 남지 않아야 함
+ * - 트랜잭션을 직접 커밋하므로 생성한 상품은 테스트 후 삭제
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@SpringBootTest
+class ItemRepositoryTest {
+
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired ItemRepository itemRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private TransactionTemplate newTx;
+    private Long itemId;
+
+    @BeforeEach
+    public void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        newTx = new TransactionTemplate(transactionManager);
+        newTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (itemId != null) {
+            tx.executeWithoutResult(status -> em.remove(em.find(Item.class, itemId)));
+        }
+    }
+
+    @Test
+    public void 재고_감소_커밋_후_캐시_evict() throws Exception {
+        // given
+        itemId = tx.execute(status -> {
+            Book book = new Book();
+            book.setName("cache book");
+            book.setPrice(10000);
+            book.setStockQuantity(10);
+            em.persist(book);
+            return book.getId();
+        });
+
+        // when
+        tx.executeWithoutResult(status -> {
+            itemRepository.decreaseStock(em.find(Item.class, itemId), 3);
+
+            // 커밋 전 다른 트랜잭션이 이전 재고(10)를 읽어 캐시에 올림
+            Integer stale = newTx.execute(s -> em.find(Item.class, itemId).getStockQuantity());
+            assertEquals(10, stale);
+            assertTrue(emf.getCache().contains(Item.class, itemId));
+        });
+
+        // then
+        assertFalse(emf.getCache().contains(Item.class, itemId), "커밋 후에는 이전 재고가 캐시에 남지 않아야 한다.");
+        Integer stock = tx.execute(status -> em.find(Item.class, itemId).getStockQuantity());
+        assertEquals(7, stock);
+    }
+}
@@ -0,0 +1,79 @@
+package jpabook.jpashop.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * MemberNameIndexTest
+ * <pre>
+ * Describe here
+ * </pre>
+ *
+ * @version 1.0,
+ */
+class MemberNameIndexTest {
+
+    private MemberNameIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new MemberNameIndex(true, 2);
+        index.put(1L, "kim");
+        index.put(2L, "kimchi");
+        index.put(3L, "park");
+        index.put(4L, "김철수");
+        index.markReady(0);
+    }
+
+    @Test
+    public void like_패턴별_조회() throws Exception {
+        assertEquals(List.of(1L, 2L), index.resolveLike("%kim%"));
+        assertEquals(List.of(2L), index.resolveLike("%chi%"));
+        assertEquals(List.of(1L), index.resolveLike("kim"), "와일드카드가 없으면 일치 검색");
+        assertEquals(List.of(3L), index.resolveLike("pa%"));
+        assertEquals(List.of(1L), index.resolveLike("%im"));
+        assertEquals(List.of(4L), index.resolveLike("%철%"));
+        assertEquals(List.of(), index.resolveLike("%lee%"), "일치 없음");
+        assertEquals(List.of(), index.resolveLike("chi%"), "gram 은 있지만 일치 없음");
+    }
+
+    @Test
+    public void 이름_변경_삭제_반영() throws Exception {
+        // when
+        index.put(3L, "kimpark");
+        index.remove(1L);
+
+        // then
+        assertEquals(List.of(2L, 3L), index.resolveLike("%kim%"));
+        assertEquals(List.of(3L), index.resolveLike("%park%"));
+        assertEquals(List.of(), index.resolveLike("kim"));
+    }
+
+    @Test
+    public void 버전은_이어질_때만_갱신() throws Exception {
+        index.advance(0, 2);
+        assertEquals(2, index.getVersion());
+
+        index.advance(3, 5);
+        assertEquals(2, index.getVersion(), "중간 버전을 놓치면 갱신 안 함");
+
+        index.clear();
+        assertEquals(-1, index.getVersion());
+        assertNull(index.resolveLike("%kim%"));
+    }
+
+    @Test
+    public void 색인으로_답할_수_없으면_null() throws Exception {
+        index.put(5L, "kimbap");
+
+        assertNull(index.resolveLike("%ki%"), "max-ids 초과");
+        assertNull(index.resolveLike("k_m"), "'_' 패턴 미지원");
+        assertNull(index.resolveLike("k%m"), "중간 '%' 미지원");
+        assertNull(new MemberNameIndex(true, 10).resolveLike("%kim%"), "색인 전");
+    }
+}
@@ -0,0 +1,156 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.OrderCursor;
+import jpabook.jpashop.domain.OrderSearch;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.monitor.QueryCounter;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static jpabook.jpashop.monitor.QueryCountAssertions.count;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * QueryPlanTest
+ * <pre>
+ * 자주 쓰는 repository 쿼리의 H2 실행 계획 검증
+ * - repository 메서드가 실제로 실행한 SQL 원문(정규화 전)을 그대로 EXPLAIN -> 인덱스 없이 테이블 전체를 읽으면(tableScan) 실패
+ * - 파라미터는 repository 에 넘긴 값을 SQL 의 ? 순서대로 바인딩 (setMaxResults 의 limit 는 마지막)
+ * - 빈 테이블에서는 어떤 계획이든 비용이 같으므로, 회원 / 주문 / 주문상품을 미리 넣고(테스트 트랜잭션과 함께 롤백) 같은 커넥션에서 EXPLAIN
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@SpringBootTest
+@Transactional
+class QueryPlanTest {
+
+    /** 시퀀스로 발급되는 id 와 겹치지 않는 시작 값 */
+    private static final long BASE = 900_000_000L;
+    private static final int MEMBERS = 1_000;
+    private static final int ORDERS = 5_000;
+
+    @Autowired DataSource dataSource;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired OrderRepository orderRepository;
+    @Autowired OrderQueryRepository orderQueryRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberNameIndex memberNameIndex;
+
+    @BeforeEach
+    public void seed() {
+        jdbcTemplate.update("insert into member (member_id, name, city, street, zipcode)" +
+                " select ? + x, 'planMember' || x, 'city', 'street', 'zipcode' from system_range(1, ?)", BASE, MEMBERS);
+        jdbcTemplate.update("insert into item (item_id, dtype, name, price, stock_quantity)" +
+                " values (?, 'B', 'planItem', 10000, 100)", BASE + 1);
+        jdbcTemplate.update("insert into delivery (delivery_id, city, street, zipcode, status)" +
+                " select ? + x, 'city', 'street', 'zipcode', 'READY' from system_range(1, ?)", BASE, ORDERS);
+        jdbcTemplate.update("insert into orders (order_id, member_id, delivery_id, order_date, status)" +
+                " select ? + x, ? + mod(x, ?) + 1, ? + x, dateadd('SECOND', x, timestamp '2024-01-01 00:00:00')," +
+                " case when mod(x, 10) = 0 then 'CANCEL' else 'ORDER' end from system_range(1, ?)",
+                BASE, BASE, MEMBERS, BASE, ORDERS);
+        jdbcTemplate.update("insert into order_item (order_item_id, order_id, item_id, order_price, count)" +
+                " select ? + x, ? + (x + 1) / 2, ?, 10000, 1 from system_range(1, ?)",
+                BASE, BASE, BASE + 1, ORDERS * 2);
+    }
+
+    @Test
+    public void 주문검색_상태_회원명() throws Exception {
+        // given : 회원명 -> 회원 id 1건
+        memberNameIndex.put(BASE + 1, "planTestMember");
+        try {
+            OrderSearch orderSearch = new OrderSearch();
+            orderSearch.setOrderStatus(OrderStatus.ORDER);
+            orderSearch.setMemberName("planTestMember");
+
+            // when
+            String sql = captureSql(() -> orderRepository.findAll(orderSearch));
+
+            // then
+            assertNoTableScan(explain(sql, OrderStatus.ORDER.name(), BASE + 1, 1000));
+        } finally {
+            memberNameIndex.remove(BASE + 1);
+        }
+    }
+
+    @Test
+    public void 주문페이지_상태() throws Exception {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setOrderStatus(OrderStatus.ORDER);
+
+        String sql = captureSql(() -> orderQueryRepository.findOrderPage(orderSearch, OrderCursor.first(), 100));
+
+        assertNoTableScan(explain(sql, OrderStatus.ORDER.name(), 100));
+    }
+
+    @Test
+    public void 주문건수_상태() throws Exception {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setOrderStatus(OrderStatus.CANCEL);
+
+        String sql = captureSql(() -> orderQueryRepository.countOrders(orderSearch));
+
+        assertNoTableScan(explain(sql, OrderStatus.CANCEL.name()));
+    }
+
+    @Test
+    public void 주문상품_in_조회() throws Exception {
+        String sql = captureSql(() -> orderQueryRepository.findOrderItemMap(List.of(BASE + 1, BASE + 2)));
+
+        assertNoTableScan(explain(sql, BASE + 1, BASE + 2));
+    }
+
+    @Test
+    public void 회원명_건수() throws Exception {
+        String sql = captureSql(() -> memberRepository.countByName("planMember1"));
+
+        assertNoTableScan(explain(sql, "planMember1"));
+    }
+
+    private String captureSql(Runnable action) {
+        QueryCounter counter = count(action);
+        // 회원 이름 색인 버전 확인(pk 조회)은 제외
+        List<String> statements = counter.getExecutedStatements().stream()
+                .filter(sql -> !sql.contains("member_name_version"))
+                .collect(Collectors.toList());
+        assertEquals(1, statements.size(), "SQL 1개만 실행되어야 한다. " + statements);
+        return statements.get(0);
+    }
+
+    /**
+     * 테스트 트랜잭션의 커넥션에서 실행 (미리 넣은 row 가 보여야 함)
+     */
+    private String explain(String sql, Object... parameters) throws SQLException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement ps = connection.prepareStatement("explain " + sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                ps.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private void assertNoTableScan(String plan) {
+        assertFalse(plan.contains(".tableScan"), "인덱스를 사용하지 않는 테이블이 있습니다.\n" + plan);
+    }
+}
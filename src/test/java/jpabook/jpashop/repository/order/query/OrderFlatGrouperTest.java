@@ -0,0 +1,61 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * OrderFlatGrouperTest
+ * <pre>
+ * Describe here
+ * </pre>
+ *
+ * @version 1.0,
+ */
+class OrderFlatGrouperTest {
+
+    @Test
+    public void 정렬된_row_주문단위로_묶기() throws Exception {
+        // given
+        List<OrderFlatDto> flats = List.of(flat(3L, "A"), flat(3L, "B"), flat(1L, "C"), flat(2L, "D"), flat(2L, "E"));
+
+        // when
+        List<OrderQueryDto> orders = flats.stream()
+                .collect(OrderFlatGrouper.toOrderQueryDtos());
+
+        // then
+        assertEquals(3, orders.size(), "주문 수만큼 DTO 가 생성 되어야 한다.");
+        assertEquals(3L, orders.get(0).getOrderId(), "row 순서가 유지 되어야 한다.");
+        assertEquals(2, orders.get(0).getOrderItems().size());
+        assertEquals(1, orders.get(1).getOrderItems().size());
+        assertEquals("E", orders.get(2).getOrderItems().get(1).getItemName());
+    }
+
+    @Test
+    public void 스트리밍_묶기() throws Exception {
+        // given
+        List<OrderQueryDto> orders = new ArrayList<>();
+        OrderFlatGrouper grouper = new OrderFlatGrouper(orders::add);
+
+        // when
+        Stream.of(flat(1L, "A"), flat(1L, "B"), flat(2L, "C")).forEach(grouper);
+        int beforeFinish = orders.size();
+        grouper.finish();
+
+        // then
+        assertEquals(1, beforeFinish, "다음 주문 row 가 나와야 이전 주문이 완성된다.");
+        assertEquals(2, orders.size());
+    }
+
+    private OrderFlatDto flat(Long orderId, String itemName) {
+        return new OrderFlatDto(orderId, "회원" + orderId, LocalDateTime.now(), OrderStatus.ORDER,
+                new Address("서울", "강가", "123-123"), itemName, 10000, 1);
+    }
+}
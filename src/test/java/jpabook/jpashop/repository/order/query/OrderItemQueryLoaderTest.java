@@ -0,0 +1,57 @@
+package jpabook.jpashop.repository.order.query;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * OrderItemQueryLoaderTest
+ * <pre>
+ * Describe here
+ * </pre>
+ *
+ * @version 1.0,
+ */
+class OrderItemQueryLoaderTest {
+
+    @Test
+    public void chunk_분할_패딩() throws Exception {
+        // given
+        List<Long> ids = LongStream.rangeClosed(1, 10).boxed().collect(Collectors.toList());
+
+        // when
+        List<List<Long>> chunks = OrderItemQueryLoader.chunk(ids, 4);
+
+        // then
+        assertEquals(3, chunks.size(), "chunk-size 단위로 나뉘어야 한다.");
+        assertEquals(List.of(1L, 2L, 3L, 4L), chunks.get(0));
+        assertEquals(List.of(9L, 10L), chunks.get(2), "2의 제곱 크기면 패딩하지 않는다.");
+    }
+
+    @Test
+    public void 패딩은_마지막_id_반복() throws Exception {
+        assertEquals(List.of(1L, 2L, 3L, 3L), OrderItemQueryLoader.pad(List.of(1L, 2L, 3L), 1000));
+        assertEquals(List.of(7L), OrderItemQueryLoader.pad(List.of(7L), 1000));
+        assertEquals(8, OrderItemQueryLoader.pad(List.of(1L, 2L, 3L, 4L, 5L), 1000).size());
+    }
+
+    @Test
+    public void 패딩은_chunk_size_를_넘지_않음() throws Exception {
+        // given : 2의 제곱이 아닌 chunk-size (기본값 1000)
+        List<Long> ids = LongStream.rangeClosed(1, 2500).boxed().collect(Collectors.toList());
+
+        // when
+        List<List<Long>> chunks = OrderItemQueryLoader.chunk(ids, 1000);
+
+        // then : 가득 찬 chunk 는 1024 로 패딩하지 않음, 마지막 500 건은 512 로 패딩
+        assertEquals(3, chunks.size());
+        assertEquals(1000, chunks.get(0).size());
+        assertEquals(1000, chunks.get(1).size());
+        assertEquals(512, chunks.get(2).size());
+        assertEquals(List.of(5L, 5L, 5L, 5L, 5L, 5L), OrderItemQueryLoader.pad(List.of(5L, 5L, 5L, 5L, 5L), 6));
+    }
+}
@@ -0,0 +1,47 @@
+package jpabook.jpashop.seed;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ZipfSamplerTest
+ * <pre>
+ * Describe here
+ * </pre>
+ *
+ * @version 1.0,
+ */
+class ZipfSamplerTest {
+
+    @Test
+    public void 순위가_낮을수록_자주_추출() throws Exception {
+        // given
+        ZipfSampler sampler = new ZipfSampler(1000, 1.0);
+        Random random = new Random(42);
+        int[] counts = new int[1000];
+
+        // when
+        for (int i = 0; i < 100_000; i++) {
+            counts[sampler.sample(random)]++;
+        }
+
+        // then
+        assertTrue(counts[0] > counts[1], "1위가 2위보다 많이 나와야 한다.");
+        assertTrue(counts[1] > counts[10], "2위가 11위보다 많이 나와야 한다.");
+        int top10 = 0;
+        for (int i = 0; i < 10; i++) {
+            top10 += counts[i];
+        }
+        assertTrue(top10 > 100_000 / 4, "상위 1% 상품에 주문의 1/4 이상이 몰려야 한다. top10=" + top10);
+    }
+
+    @Test
+    public void 추출_범위() throws Exception {
+        ZipfSampler sampler = new ZipfSampler(1, 1.0);
+        assertEquals(0, sampler.sample(new Random()));
+    }
+}
@@ -0,0 +1,101 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.CategoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * CategoryServiceTest
+ * <pre>
+ * 카테고리 path 갱신 / 하위 트리 상품 조회
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@SpringBootTest
+@Transactional
+class CategoryServiceTest {
+
+    @Autowired CategoryService categoryService;
+    @Autowired CategoryRepository categoryRepository;
+    @Autowired EntityManager em;
+
+    @Test
+    public void 카테고리_path() throws Exception {
+        // given : 저장 전에 트리 구성
+        Category root = createCategory("root");
+        Category child = createCategory("child");
+        root.addChildCategory(child);
+
+        // when
+        categoryRepository.save(child);
+        categoryRepository.save(root);
+
+        // then
+        assertEquals("/" + root.getId() + "/", root.getPath());
+        assertEquals(root.getPath() + child.getId() + "/", child.getPath(), "부모를 나중에 저장해도 자식 path 가 갱신되어야 한다.");
+    }
+
+    @Test
+    public void 하위트리_상품_조회() throws Exception {
+        // given : root > child > grandChild, other
+        Long rootId = categoryService.saveCategory("root", null);
+        Long childId = categoryService.saveCategory("child", rootId);
+        Long grandChildId = categoryService.saveCategory("grandChild", childId);
+        Long otherId = categoryService.saveCategory("other", null);
+
+        Item book1 = createBook("book1");
+        Item book2 = createBook("book2");
+        Item book3 = createBook("book3");
+        Item book4 = createBook("book4");
+        categoryService.findOne(rootId).getItems().add(book1);
+        categoryService.findOne(childId).getItems().add(book2);
+        categoryService.findOne(grandChildId).getItems().add(book3);
+        categoryService.findOne(rootId).getItems().add(book3);     // 중복 포함
+        categoryService.findOne(otherId).getItems().add(book4);
+        em.flush();
+        em.clear();
+
+        // when
+        List<Item> firstPage = categoryService.findSubtreeItems(rootId, null, 2);
+        List<Item> nextPage = categoryService.findSubtreeItems(rootId, firstPage.get(1).getId(), 2);
+
+        // then
+        assertEquals(List.of("book1", "book2"), names(firstPage));
+        assertEquals(List.of("book3"), names(nextPage));
+        assertEquals(3, categoryService.countSubtreeItems(rootId), "하위 트리 상품 수 (중복 제외)");
+        assertEquals(2, categoryService.countSubtreeItems(childId));
+        assertEquals(1, categoryService.countSubtreeItems(otherId));
+    }
+
+    private Category createCategory(String name) {
+        Category category = new Category();
+        category.setName(name);
+        return category;
+    }
+
+    private Item createBook(String name) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+        return book;
+    }
+
+    private static List<String> names(List<Item> items) {
+        return items.stream().map(Item::getName).collect(Collectors.toList());
+    }
+}
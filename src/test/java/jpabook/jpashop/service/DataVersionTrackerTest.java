@@ -0,0 +1,71 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.service.DataVersionTracker.Resource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * DataVersionTrackerTest
+ * <pre>
+ * 트랜잭션 안 bump : 커밋 직전부터 트랜잭션 종료까지 커밋 중, 버전은 커밋 후 증가
+ * - 트랜잭션 동기화 콜백을 직접 호출해서 DB 커밋과 버전 증가 사이 구간을 재현
+ * </pre>
+ *
+ * @version 1.0,
+ */
+class DataVersionTrackerTest {
+
+    private final DataVersionTracker tracker = new DataVersionTracker();
+
+    @BeforeEach
+    public void setUp() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    public void 커밋_중에는_isCommitting() throws Exception {
+        // given
+        tracker.bump(Resource.ORDERS);
+        assertFalse(tracker.isCommitting(Resource.ORDERS), "커밋 전");
+
+        // when, then : DB 커밋 직전 ~ 버전 증가 전
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        assertTrue(tracker.isCommitting(Resource.ORDERS));
+        assertTrue(tracker.isCommitting(Resource.MEMBERS, Resource.ORDERS));
+        assertFalse(tracker.isCommitting(Resource.MEMBERS), "bump 하지 않은 데이터는 커밋 중이 아님");
+        assertEquals(0, tracker.version(Resource.ORDERS));
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        assertEquals(1, tracker.version(Resource.ORDERS));
+        assertTrue(tracker.isCommitting(Resource.ORDERS), "버전 증가 후 트랜잭션 종료 전까지 커밋 중");
+
+        TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        assertFalse(tracker.isCommitting(Resource.ORDERS));
+    }
+
+    @Test
+    public void 롤백은_버전_그대로() throws Exception {
+        // given
+        tracker.bump(Resource.ITEMS);
+
+        // when
+        TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // then
+        assertEquals(0, tracker.version(Resource.ITEMS));
+        assertFalse(tracker.isCommitting(Resource.ITEMS));
+    }
+}
@@ -0,0 +1,85 @@
+package jpabook.jpashop.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.order.query.OrderFlatGrouper;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * OrderJsonWriterTest
+ * <pre>
+ * row 스트림 직렬화 결과가 기존 DTO + Jackson 직렬화 결과와 같은지 확인
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@SpringBootTest
+@Transactional
+class OrderJsonWriterTest {
+
+    @Autowired EntityManager em;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired OrderExportService orderExportService;
+    @Autowired OrderQueryRepository orderQueryRepository;
+
+    @Test
+    public void DTO_직렬화와_같은_JSON() throws Exception {
+        // given : 주문상품 1개 / 2개 주문, 이름에 이스케이프가 필요한 문자 포함
+        Member member = new Member();
+        member.setName("회원 \"A\"");
+        member.setAddress(new Address("서울", "강가\n1", "123-123"));
+        em.persist(member);
+        Book book1 = createBook("JPA\t1", 10000);
+        Book book2 = createBook("JPA 2", 20000);
+        createOrder(member, OrderItem.createOrderItem(book1, 10000, 1));
+        createOrder(member, OrderItem.createOrderItem(book1, 10000, 2), OrderItem.createOrderItem(book2, 20000, 3));
+        em.flush();
+        em.clear();
+
+        List<OrderQueryDto> dtos = orderQueryRepository.findAllByDto_flat().stream()
+                .collect(OrderFlatGrouper.toOrderQueryDtos());
+        // valueToTree 는 Long 을 LongNode 로 만들므로 직렬화한 JSON 을 다시 읽어서 비교 (readTree 는 작은 수를 IntNode 로 읽음)
+        JsonNode expected = objectMapper.readTree(objectMapper.writeValueAsBytes(dtos));
+
+        // when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = orderExportService.writeJson(out, 100);
+
+        // then
+        assertEquals(dtos.size(), count);
+        assertEquals(expected, objectMapper.readTree(out.toByteArray()));
+    }
+
+    private Book createBook(String name, int price) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(100);
+        em.persist(book);
+        return book;
+    }
+
+    private void createOrder(Member member, OrderItem... orderItems) {
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        em.persist(Order.createOrder(member, delivery, orderItems));
+    }
+}
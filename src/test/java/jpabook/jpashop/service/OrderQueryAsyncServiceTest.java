@@ -0,0 +1,45 @@
+package jpabook.jpashop.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * OrderQueryAsyncServiceTest
+ * <pre>
+ * Describe here
+ * </pre>
+ *
+ * @version 1.0,
+ */
+class OrderQueryAsyncServiceTest {
+
+    @Test
+    public void id_구간_분할() throws Exception {
+        // given
+        List<Long> ids = LongStream.rangeClosed(1, 1000).map(i -> 1001 - i).boxed().collect(Collectors.toList());
+
+        // when
+        List<List<Long>> partitions = OrderQueryAsyncService.partition(ids, 4, 100);
+
+        // then
+        assertEquals(4, partitions.size());
+        assertEquals(Long.valueOf(1), partitions.get(0).get(0), "정렬된 연속 구간으로 나뉘어야 한다.");
+        assertEquals(Long.valueOf(250), partitions.get(0).get(249));
+        assertEquals(Long.valueOf(751), partitions.get(3).get(0));
+    }
+
+    @Test
+    public void 작은_페이지는_나누지_않음() throws Exception {
+        List<Long> ids = LongStream.rangeClosed(1, 150).boxed().collect(Collectors.toList());
+
+        assertEquals(1, OrderQueryAsyncService.partition(ids, 4, 100).size());
+        assertEquals(3, OrderQueryAsyncService.partition(ids, 4, 50).size());
+        assertTrue(OrderQueryAsyncService.partition(List.of(), 4, 100).isEmpty());
+    }
+}
@@ -3,16 +3,25 @@ package jpabook.jpashop.service;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderSearch;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.OrderSummary;
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.MemberNameIndex;
+import jpabook.jpashop.repository.MemberNameIndexSynchronizer;
 import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSummaryRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
 
 import static org.aspectj.bridge.MessageUtil.fail;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -33,6 +42,10 @@ class OrderServiceTest {
     @Autowired EntityManager em;
     @Autowired OrderService orderService;
     @Autowired OrderRepository orderRepository;
+    @Autowired OrderSummaryRepository orderSummaryRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired MemberNameIndex memberNameIndex;
+    @Autowired MemberNameIndexSynchronizer memberNameIndexSynchronizer;
 
     @Test
     public void 상품주문() throws Exception {
@@ -113,4 +126,131 @@ class OrderServiceTest {
         assertEquals(stockQuantity, book.getStockQuantity(), "주문이 취소된 상품은 주문 수량이 복구 되어야 한다.");
     }
 
+    @Test
+    public void 주문요약_갱신() throws Exception {
+        // given
+        Member member = createMember();
+        Book book = createBook("시골 JPA", 10000, 10);
+
+        // when
+        Long orderId = orderService.order(member.getId(), book.getId(), 3);
+        OrderSummary ordered = orderSummaryRepository.findOne(orderId);
+        OrderStatus orderedStatus = ordered.getStatus();
+        orderService.cancelOrder(orderId);
+
+        // then
+        assertEquals(OrderStatus.ORDER, orderedStatus, "주문 시 요약이 함께 저장 되어야 한다.");
+        assertEquals(30000, ordered.getTotalPrice(), "요약의 주문 가격은 가격 * 수량이다.");
+        assertEquals("시골 JPA", ordered.getFirstItemName());
+        assertEquals(OrderStatus.CANCEL, orderSummaryRepository.findOne(orderId).getStatus(), "주문 취소 시 요약 상태도 CANCEL 이다.");
+    }
+
+    @Test
+    public void 대량주문() throws Exception {
+        // given
+        Member member1 = createMember();
+        Member member2 = createMember();
+        Book book1 = createBook("시골 JPA", 10000, 10);
+        Book book2 = createBook("도시 JPA", 20000, 10);
+
+        // when (book2 를 먼저 요청해도 재고는 상품 id 순서로 차감)
+        List<Long> orderIds = orderService.orderBulk(List.of(
+                new BulkOrder(member1.getId(), List.of(
+                        new BulkOrder.Line(book2.getId(), 1),
+                        new BulkOrder.Line(book1.getId(), 2))),
+                new BulkOrder(member2.getId(), List.of(
+                        new BulkOrder.Line(book1.getId(), 3)))));
+
+        // then
+        assertEquals(2, orderIds.size(), "요청한 주문 수만큼 생성 되어야 한다.");
+        Order first = orderRepository.findOne(orderIds.get(0));
+        Order second = orderRepository.findOne(orderIds.get(1));
+        assertEquals(member1.getId(), first.getMember().getId(), "주문 id 는 요청 순서로 반환 되어야 한다.");
+        assertEquals(40000, first.getTotalPrice());
+        assertEquals(30000, second.getTotalPrice());
+
+        em.flush();
+        em.clear();
+        assertEquals(5, em.find(Book.class, book1.getId()).getStockQuantity(), "상품별 총 주문 수량만큼 재고가 줄어야 한다.");
+        assertEquals(9, em.find(Book.class, book2.getId()).getStockQuantity());
+    }
+
+    @Test
+    public void 대량주문_없는_회원_상품은_재고_차감_전_실패() throws Exception {
+        // given
+        Member member = createMember();
+        Book book = createBook("시골 JPA", 10000, 10);
+        em.flush();
+
+        // when
+        assertThrows(NoSuchElementException.class, () -> orderService.orderBulk(List.of(
+                new BulkOrder(member.getId(), List.of(new BulkOrder.Line(book.getId(), 2))),
+                new BulkOrder(-1L, List.of(new BulkOrder.Line(book.getId(), 1))))));
+        assertThrows(NoSuchElementException.class, () -> orderService.orderBulk(List.of(
+                new BulkOrder(member.getId(), List.of(
+                        new BulkOrder.Line(book.getId(), 2),
+                        new BulkOrder.Line(-1L, 1))))));
+
+        // then
+        assertEquals(10, ((Number) em.createNativeQuery("select stock_quantity from item where item_id = :itemId")
+                .setParameter("itemId", book.getId())
+                .getSingleResult()).intValue(), "검증에 실패하면 재고 UPDATE 가 실행되지 않아야 한다.");
+    }
+
+    @Test
+    public void 이름_색인에_아직_없는_회원도_주문검색() throws Exception {
+        // given (회원 이름 색인은 커밋 후 반영되므로 이 트랜잭션의 회원은 색인에 없음)
+        Member member = createMember();
+        member.setName("색인전회원");
+        Book book = createBook("시골 JPA", 10000, 10);
+        Long orderId = orderService.order(member.getId(), book.getId(), 1);
+
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("색인전회원");
+
+        // when
+        List<Order> orders = orderService.findOrders(orderSearch);
+
+        // then
+        assertEquals(List.of(orderId), orders.stream().map(Order::getId).collect(Collectors.toList()),
+                "색인에서 일치하는 회원이 없으면 like 로 조회 해야 한다.");
+    }
+
+    @Test
+    public void 색인_모르게_추가된_회원도_주문검색() throws Exception {
+        // given : 색인된 회원 A, 다른 인스턴스에서 추가된 회원 B (이 인스턴스 색인에는 없고 DB 버전만 증가)
+        long memberA = 800_000_001L;
+        long memberB = 800_000_002L;
+        jdbcTemplate.update("insert into member (member_id, name, city, street, zipcode) values (?, '동명회원A', '서울', '강가', '123-123')", memberA);
+        memberNameIndex.put(memberA, "동명회원A");
+        try {
+            jdbcTemplate.update("insert into member (member_id, name, city, street, zipcode) values (?, '동명회원B', '서울', '강가', '123-123')", memberB);
+            jdbcTemplate.update("update member_name_version set version = version + 1");
+
+            Book book = createBook("시골 JPA", 10000, 10);
+            Long orderA = orderService.order(memberA, book.getId(), 1);
+            Long orderB = orderService.order(memberB, book.getId(), 1);
+
+            OrderSearch orderSearch = new OrderSearch();
+            orderSearch.setMemberName("동명회원");
+            OrderSearch prefixSearch = new OrderSearch();
+            prefixSearch.setMemberName("동명회원%");  // findAll 은 검색어를 like 패턴 그대로 사용
+
+            // when
+            List<Order> byCriteria = orderService.findOrders(orderSearch);
+            List<Order> byQuerydsl = orderRepository.findAll(prefixSearch);
+
+            // then : 색인에서 A 만 일치하더라도 색인 버전이 DB 보다 낮으면 like 로 조회
+            assertEquals(List.of(orderA, orderB), orderIds(byCriteria), "색인에 없는 회원의 주문도 조회 해야 한다.");
+            assertEquals(List.of(orderA, orderB), orderIds(byQuerydsl));
+        } finally {
+            memberNameIndex.remove(memberA);
+            // 커밋된 데이터 기준으로 다시 색인 (테스트 데이터는 롤백)
+            memberNameIndexSynchronizer.rebuildIfStale();
+        }
+    }
+
+    private static List<Long> orderIds(List<Order> orders) {
+        return orders.stream().map(Order::getId).sorted().collect(Collectors.toList());
+    }
 }
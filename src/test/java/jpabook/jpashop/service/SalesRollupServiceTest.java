@@ -0,0 +1,223 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.SalesRollup;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.SalesTotalDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * SalesRollupServiceTest
+ * <pre>
+ * 주문 / 취소 변경분이 매출 집계에 반영되는지, rebuild 결과와 같은지 확인
+ * - 다른 테스트가 커밋한 주문이 있을 수 있으므로 전체 합계는 전 / 후 차이로 비교
+ * - 주문_중_재생성 : 주문 스레드가 커밋하는 동안 rebuild 를 반복해도 누락 / 중복이 없는지 (테스트 트랜잭션 없이 커밋)
+ *   ㄴ 커밋한 주문 / 집계 / 회원 / 상품은 테스트 후 삭제 (다른 테스트의 주문 목록 / SQL 수에 영향)
+ * </pre>
+ *
+ * @version 1.0,
+ */
+
+@SpringBootTest
+@Transactional
+class SalesRollupServiceTest {
+
+    @Autowired EntityManager em;
+    @Autowired OrderService orderService;
+    @Autowired SalesRollupService salesRollupService;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    private Long committedMemberId;
+    private Long committedItemId;
+
+    @AfterEach
+    public void tearDown() {
+        if (committedMemberId == null) {
+            return;
+        }
+        salesRollupService.fold();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("select o from Order o where o.member.id = :memberId", Order.class)
+                    .setParameter("memberId", committedMemberId)
+                    .getResultList()
+                    .forEach(em::remove);
+            em.createQuery("delete from OrderSummary s where s.memberId = :memberId")
+                    .setParameter("memberId", committedMemberId)
+                    .executeUpdate();
+            em.createQuery("delete from SalesRollup r where r.itemId = :itemId")
+                    .setParameter("itemId", committedItemId)
+                    .executeUpdate();
+            em.remove(em.find(Member.class, committedMemberId));
+            em.remove(em.find(Item.class, committedItemId));
+        });
+    }
+
+    @Test
+    public void 주문_취소_집계() throws Exception {
+        // given
+        LocalDate today = LocalDate.now();
+        Member member = createMember();
+        Book book1 = createBook("rollup book1", 10000, 100);
+        Book book2 = createBook("rollup book2", 3000, 100);
+        salesRollupService.fold();
+        SalesTotalDto before = dailyTotal(today, OrderStatus.ORDER);
+
+        // when
+        orderService.order(member.getId(), book1.getId(), 2);
+        Long canceledId = orderService.order(member.getId(), book2.getId(), 5);
+        orderService.cancelOrder(canceledId);
+        salesRollupService.fold();
+
+        // then
+        SalesTotalDto after = dailyTotal(today, OrderStatus.ORDER);
+        assertEquals(20000, after.getRevenue() - before.getRevenue(), "취소한 주문은 ORDER 매출에서 빠져야 한다.");
+        assertEquals(2, after.getUnits() - before.getUnits());
+        assertEquals(1, after.getOrderCount() - before.getOrderCount());
+
+        assertItemTotal(book1.getId(), OrderStatus.ORDER, 20000, 2, 1);
+        assertItemTotal(book2.getId(), OrderStatus.ORDER, 0, 0, 0);
+        assertItemTotal(book2.getId(), OrderStatus.CANCEL, 15000, 5, 1);
+    }
+
+    @Test
+    public void 재생성_결과_동일() throws Exception {
+        // given
+        Member member = createMember();
+        Book book = createBook("rollup book3", 7000, 100);
+        orderService.order(member.getId(), book.getId(), 1);
+        orderService.order(member.getId(), book.getId(), 3);
+        salesRollupService.fold();
+
+        // when
+        salesRollupService.rebuild();
+
+        // then
+        assertItemTotal(book.getId(), OrderStatus.ORDER, 28000, 4, 2);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void 주문_중_재생성() throws Exception {
+        // given : 커밋된 회원 / 상품
+        int threads = 4;
+        int ordersPerThread = 25;
+        Long[] ids = new TransactionTemplate(transactionManager).execute(status ->
+                new Long[]{createMember().getId(), createBook("rollup book5", 1000, 1000).getId()});
+        Long memberId = committedMemberId = ids[0];
+        Long itemId = committedItemId = ids[1];
+
+        // when : 주문이 커밋되는 동안 rebuild 반복 (주기적 fold 도 그대로 실행)
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ordersPerThread; i++) {
+                    orderService.order(memberId, itemId, 1);
+                }
+                return null;
+            }));
+        }
+        int rebuilds = 0;
+        try {
+            start.countDown();
+            while (rebuilds == 0 || futures.stream().anyMatch(future -> !future.isDone())) {
+                salesRollupService.rebuild();
+                rebuilds++;
+            }
+            for (Future<?> future : futures) {
+                future.get();  // 주문이 실패했으면 여기서 예외
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        salesRollupService.fold();
+
+        // then : 주문마다 정확히 1번씩 집계
+        int orders = threads * ordersPerThread;
+        assertItemTotal(itemId, OrderStatus.ORDER, orders * 1000L, orders, orders);
+    }
+
+    @Test
+    public void 상품별_월_일_구간_합산() throws Exception {
+        // given : 오늘 주문 -> 일별 / 월별 row 모두 생성
+        Member member = createMember();
+        Book book = createBook("rollup book4", 1000, 100);
+        orderService.order(member.getId(), book.getId(), 3);
+        salesRollupService.fold();
+        LocalDate today = LocalDate.now();
+
+        // when : 이번 달 전체(월별 row) / 오늘 하루(일별 row) / 지난달 중순 ~ 오늘(일별 + 월별)
+        long month = itemRevenue(book.getId(), today.withDayOfMonth(1), today.withDayOfMonth(today.lengthOfMonth()));
+        long day = itemRevenue(book.getId(), today, today);
+        long mixed = itemRevenue(book.getId(), today.minusMonths(1).withDayOfMonth(15), today);
+
+        // then
+        assertEquals(3000, month);
+        assertEquals(3000, day);
+        assertEquals(3000, mixed);
+    }
+
+    private SalesTotalDto dailyTotal(LocalDate day, OrderStatus status) {
+        List<SalesTotalDto> totals = salesRollupService.findPeriodTotals(SalesRollup.Grain.DAY, day, day, status);
+        return totals.isEmpty() ? new SalesTotalDto(day, status, 0L, 0L, 0L) : totals.get(0);
+    }
+
+    private void assertItemTotal(Long itemId, OrderStatus status, long revenue, long units, long orderCount) {
+        LocalDate today = LocalDate.now();
+        SalesTotalDto total = salesRollupService.findItemTotals(today, today, status, Integer.MAX_VALUE).stream()
+                .filter(row -> row.getItemId().equals(itemId))
+                .findFirst()
+                .orElse(new SalesTotalDto(itemId, status, 0L, 0L, 0L));
+        assertEquals(revenue, total.getRevenue(), "매출");
+        assertEquals(units, total.getUnits(), "수량");
+        assertEquals(orderCount, total.getOrderCount(), "주문 건수");
+    }
+
+    private long itemRevenue(Long itemId, LocalDate from, LocalDate to) {
+        return salesRollupService.findItemTotals(from, to, OrderStatus.ORDER, Integer.MAX_VALUE).stream()
+                .filter(row -> row.getItemId().equals(itemId))
+                .mapToLong(SalesTotalDto::getRevenue)
+                .sum();
+    }
+
+    private Member createMember() {
+        Member member = new Member();
+        member.setName("rollupMember");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+        return member;
+    }
+
+    private Book createBook(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        em.persist(book);
+        return book;
+    }
+}
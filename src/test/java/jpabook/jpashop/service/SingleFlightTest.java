@@ -0,0 +1,159 @@
+package jpabook.jpashop.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SingleFlightTest
+ * <pre>
+ * 같은 key 동시 호출 합치기, 예외 전파, 결과 재사용 시간
+ * </pre>
+ *
+ * @version 1.0,
+ */
+class SingleFlightTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void 동시_호출은_1번만_실행() throws Exception {
+        // given : 첫 호출이 끝나지 않은 상태에서 같은 key 로 여러 번 호출
+        SingleFlight singleFlight = new SingleFlight("test", 0, meterRegistry);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                await(release);
+                return new Object();
+            })));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < callers; i++) {
+                futures.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                    executions.incrementAndGet();
+                    return new Object();
+                })));
+            }
+            waitFor(() -> count("coalesced") == callers - 1);
+
+            // when
+            release.countDown();
+
+            // then : 모두 같은 결과
+            Object result = futures.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Object> future : futures) {
+                assertSame(result, future.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+            assertEquals(1, count("executed"));
+            assertEquals(0, singleFlight.size(), "재사용 시간이 0 이면 실행이 끝나면 제거되어야 한다.");
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void 예외는_기다리던_호출에도_전달_후_다시_실행() throws Exception {
+        SingleFlight singleFlight = new SingleFlight("test", 60_000, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<Object> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+                started.countDown();
+                await(release);
+                throw new IllegalStateException("조회 실패");
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<Object> follower = executor.submit(() -> singleFlight.execute("key", Object::new));
+            waitFor(() -> count("coalesced") == 1);
+
+            release.countDown();
+
+            assertTrue(assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS)).getCause() instanceof IllegalStateException);
+            assertTrue(assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS)).getCause() instanceof IllegalStateException);
+
+            // 실패한 결과는 재사용하지 않음
+            assertEquals("ok", singleFlight.execute("key", () -> "ok"));
+            assertEquals(2, count("executed"));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void 재사용_시간_안에는_결과_재사용() throws Exception {
+        SingleFlight singleFlight = new SingleFlight("test", 60_000, meterRegistry);
+
+        Object first = singleFlight.execute("key", Object::new);
+        Object second = singleFlight.execute("key", Object::new);
+        Object other = singleFlight.execute("other", Object::new);
+
+        assertSame(first, second);
+        assertTrue(first != other, "key 가 다르면 따로 실행");
+        assertEquals(2, count("executed"));
+        assertEquals(1, count("reused"));
+    }
+
+    @Test
+    public void 재사용_시간_0_이면_끝난_결과는_재사용_안함() throws Exception {
+        SingleFlight singleFlight = new SingleFlight("test", 0, meterRegistry);
+
+        Object first = singleFlight.execute("key", Object::new);
+        Object second = singleFlight.execute("key", Object::new);
+
+        assertTrue(first != second);
+        assertEquals(2, count("executed"));
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("jpashop.query.coalesce")
+                .tag("query", "test")
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("시간 초과");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.StockJournal;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.StockJournalRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * StockLedgerTest
+ * <pre>
+ * 기동 시 (@PostConstruct start) 이전 실행에서 반영하지 못한 저널 복구
+ * - 앱의 StockLedger 는 주기적으로 flush 하므로 테스트 동안 멈추고, 새 StockLedger 로 기동 과정을 재현
+ * </pre>
+ *
+ * @version 1.0,
+ */
+@SpringBootTest
+class StockLedgerTest {
+
+    @Autowired EntityManager em;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired ItemRepository itemRepository;
+    @Autowired StockJournalRepository stockJournalRepository;
+    @Autowired DataVersionTracker dataVersionTracker;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired StockLedger stockLedger;
+
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        tx = new TransactionTemplate(transactionManager);
+        stockLedger.stop();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        stockLedger.start();
+    }
+
+    @Test
+    public void 기동_시_미반영_저널_복구() throws Exception {
+        // given : 재고 10 상품에 커밋된 저널 (-3, -2, +1) 이 반영되지 않은 채 종료된 상태
+        Long itemId = tx.execute(status -> {
+            Book book = new Book();
+            book.setName("ledger book");
+            book.setPrice(10000);
+            book.setStockQuantity(10);
+            em.persist(book);
+            return book.getId();
+        });
+        tx.executeWithoutResult(status -> {
+            stockJournalRepository.save(StockJournal.createStockJournal(itemId, -3));
+            stockJournalRepository.save(StockJournal.createStockJournal(itemId, -2));
+            stockJournalRepository.save(StockJournal.createStockJournal(itemId, 1));
+        });
+        long itemsVersion = dataVersionTracker.version(DataVersionTracker.Resource.ITEMS);
+
+        // when
+        StockLedger restarted = new StockLedger(itemRepository, stockJournalRepository, dataVersionTracker,
+                transactionManager, List.of(itemId), 4, 60_000);
+        restarted.start();
+        try {
+            // then
+            assertEquals(6, stockQuantity(itemId), "미반영 저널이 item.stock_quantity 에 반영 되어야 한다.");
+            assertEquals(0, journalRows(itemId), "반영한 저널은 삭제 되어야 한다.");
+            assertEquals(6, restarted.available(itemId));
+            assertEquals(itemsVersion + 1, dataVersionTracker.version(DataVersionTracker.Resource.ITEMS),
+                    "flush 후 상품 목록 ETag 버전이 바뀌어야 한다.");
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    @Test
+    public void flush_전_메모리_재고는_저널_포함() throws Exception {
+        // given
+        Long itemId = tx.execute(status -> {
+            Book book = new Book();
+            book.setName("ledger book2");
+            book.setPrice(10000);
+            book.setStockQuantity(10);
+            em.persist(book);
+            return book.getId();
+        });
+        StockLedger ledger = new StockLedger(itemRepository, stockJournalRepository, dataVersionTracker,
+                transactionManager, List.of(itemId), 4, 60_000);
+
+        // when : 주문 차감 / 관리자 감소
+        tx.executeWithoutResult(status -> ledger.reserve(itemId, 4));
+        tx.executeWithoutResult(status -> ledger.changeTo(itemId, 3));
+
+        // then : DB 는 flush 전, 메모리 / 새로 읽은 값은 저널 포함
+        assertEquals(10, stockQuantity(itemId));
+        assertEquals(3, ledger.available(itemId));
+        Long journaled = tx.execute(status -> stockJournalRepository.findAvailableStock(itemId));
+        assertEquals(3L, journaled);
+
+        // rollback 한 감소는 메모리에서도 되돌림
+        tx.executeWithoutResult(status -> {
+            ledger.changeTo(itemId, 1);
+            status.setRollbackOnly();
+        });
+        assertEquals(3, ledger.available(itemId));
+
+        ledger.flush();
+        assertEquals(3, stockQuantity(itemId));
+    }
+
+    private int stockQuantity(Long itemId) {
+        return jdbcTemplate.queryForObject("select stock_quantity from item where item_id = ?", Integer.class, itemId);
+    }
+
+    private int journalRows(Long itemId) {
+        return jdbcTemplate.queryForObject("select count(*) from stock_journal where item_id = ?", Integer.class, itemId);
+    }
+}
@@ -0,0 +1,141 @@
+package jpabook.jpashop.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * StripedStockTest
+ * <pre>
+ * 메모리 재고 카운터 차감 / 복구, 동시 차감 시 초과 판매 여부
+ * </pre>
+ *
+ * @version 1.0,
+ */
+class StripedStockTest {
+
+    @Test
+    public void 칸에_나뉜_재고를_모아서_차감() throws Exception {
+        // given : 10개를 4칸에 나눠 담음 (칸당 2~3개)
+        StripedStock stock = new StripedStock(10, 4);
+
+        // when
+        boolean reserved = stock.tryReserve(7);
+
+        // then
+        assertTrue(reserved, "한 칸보다 많은 수량도 전체 재고가 있으면 차감되어야 한다.");
+        assertEquals(3, stock.available());
+        assertFalse(stock.tryReserve(4), "재고 부족");
+        assertEquals(3, stock.available(), "실패한 차감은 재고를 바꾸지 않아야 한다.");
+    }
+
+    @Test
+    public void 복구() throws Exception {
+        StripedStock stock = new StripedStock(1, 4);
+
+        assertTrue(stock.tryReserve(1));
+        assertFalse(stock.tryReserve(1));
+        stock.add(1);
+
+        assertTrue(stock.tryReserve(1));
+        assertEquals(0, stock.available());
+    }
+
+    @Test
+    public void 음수_증감은_전체_재고에서_차감() throws Exception {
+        // given : 10개를 4칸에 나눠 담음 (3, 3, 2, 2)
+        StripedStock stock = new StripedStock(10, 4);
+
+        // when : 관리자가 재고를 2개로 낮춤
+        stock.add(-8);
+
+        // then : 한 칸만 음수가 되고 다른 칸의 3개가 팔리면 안 됨
+        assertEquals(2, stock.available());
+        assertFalse(stock.tryReserve(3), "감소 후 재고보다 많이 팔리면 안 된다.");
+        assertTrue(stock.tryReserve(2));
+        assertEquals(0, stock.available());
+    }
+
+    @Test
+    public void 전체가_음수면_복구로_0_이상이_될_때까지_판매_없음() throws Exception {
+        // given
+        StripedStock stock = new StripedStock(5, 4);
+
+        // when : 판매된 것보다 더 낮게 변경 -> -3
+        stock.add(-8);
+
+        // then
+        assertEquals(-3, stock.available());
+        assertFalse(stock.tryReserve(1));
+        stock.add(2);
+        assertFalse(stock.tryReserve(1), "복구한 칸만 보고 팔면 안 된다. (전체 -1)");
+        assertEquals(-1, stock.available());
+        stock.add(4);
+        assertTrue(stock.tryReserve(3));
+        assertEquals(0, stock.available());
+    }
+
+    @Test
+    public void 지정_재고로_변경() throws Exception {
+        // given
+        StripedStock stock = new StripedStock(10, 4);
+        assertTrue(stock.tryReserve(4));
+
+        // when / then : 감소는 바로 반영, 증가는 증감량만 반환
+        assertEquals(-4, stock.changeTo(2));
+        assertEquals(2, stock.available());
+        assertFalse(stock.tryReserve(3));
+        assertEquals(3, stock.changeTo(5));
+        assertEquals(2, stock.available(), "증가는 호출하는 쪽에서 커밋 후 반영");
+    }
+
+    @Test
+    public void 동시_차감_초과판매_없음() throws Exception {
+        // given
+        int initial = 10_000;
+        int threads = 16;
+        StripedStock stock = new StripedStock(initial, 8);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // when : 스레드마다 재고가 없을 때까지 1~3개씩 차감
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int quantity = t % 3 + 1;
+            futures.add(executor.submit(() -> {
+                start.await();
+                long sold = 0;
+                int failures = 0;
+                while (failures < 100) {
+                    if (stock.tryReserve(quantity)) {
+                        sold += quantity;
+                    } else {
+                        failures++;
+                    }
+                }
+                return sold;
+            }));
+        }
+        start.countDown();
+        long sold = 0;
+        for (Future<Long> future : futures) {
+            sold += future.get();
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        // then
+        assertEquals(initial, sold + stock.available(), "판매 수량 + 남은 재고 = 초기 재고");
+        assertTrue(stock.available() >= 0 && stock.available() < 3);
+    }
+}